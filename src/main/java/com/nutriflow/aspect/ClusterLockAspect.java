@@ -0,0 +1,77 @@
+package com.nutriflow.aspect;
+
+import com.nutriflow.helpers.JobRunContext;
+import com.nutriflow.helpers.RedisLeaseLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Wraps {@link ClusterLocked} jobs in a {@link RedisLeaseLock} lease.
+ * Ordered first, so the lease is held around the job's transaction and released after commit.
+ * If Redis is unreachable the run is skipped rather than risking duplicates. The run-once marker
+ * is set by {@link JobRunAspect}, which knows whether the run succeeded.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterLockAspect {
+
+    private final RedisLeaseLock redisLeaseLock;
+
+    // Single-instance setups can turn the lock off
+    @Value("${nutriflow.scheduler.lock.enabled:true}")
+    private boolean enabled;
+
+    @Around("@annotation(clusterLocked)")
+    public Object runLocked(ProceedingJoinPoint joinPoint, ClusterLocked clusterLocked) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+
+        String name = clusterLocked.name();
+        Duration window = Duration.ofSeconds(clusterLocked.runOnceWithinSeconds());
+        // An admin asking for a run gets one; the lease still keeps it from overlapping another run
+        boolean checkWindow = !window.isZero() && !JobRunContext.isManualTrigger();
+        Optional<RedisLeaseLock.Lease> lease;
+        try {
+            if (checkWindow && redisLeaseLock.hasRunWithin(name)) {
+                log.info("🔒 [LOCK] {} already ran in the cluster within {}s, skipping", name, window.toSeconds());
+                return null;
+            }
+            lease = redisLeaseLock.tryAcquire(name, Duration.ofSeconds(clusterLocked.leaseSeconds()));
+        } catch (Exception e) {
+            log.error("❌ [LOCK] Could not reach lock store for {}, skipping run: {}", name, e.getMessage());
+            return null;
+        }
+
+        if (lease.isEmpty()) {
+            log.info("🔒 [LOCK] {} is running on another instance, skipping", name);
+            return null;
+        }
+
+        try {
+            // Another instance may have finished between the window check and the acquisition
+            if (checkWindow && redisLeaseLock.hasRunWithin(name)) {
+                log.info("🔒 [LOCK] {} already ran in the cluster within {}s, skipping", name, window.toSeconds());
+                return null;
+            }
+
+            log.info("🔒 [LOCK] {} acquired | Fencing token: {}", name, lease.get().getFencingToken());
+            return joinPoint.proceed();
+        } finally {
+            redisLeaseLock.release(lease.get());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.nutriflow.aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a scheduled or startup job on one instance of the cluster at a time.
+ * Instances that cannot take the lease skip the run. Only for void methods.
+ *
+ * @see ClusterLockAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ClusterLocked {
+
+    /** Lock name, unique per job */
+    String name();
+
+    /** Lease length; renewed while the job runs, so it only bounds how long a crashed holder blocks others */
+    long leaseSeconds() default 60;
+
+    /**
+     * After a successful run, other instances skip this job for this long. Covers clock skew between
+     * nodes firing the same cron, and startup jobs on rolling deploys. 0 disables the window.
+     */
+    long runOnceWithinSeconds() default 0;
+}
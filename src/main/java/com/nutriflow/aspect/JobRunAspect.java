@@ -0,0 +1,94 @@
+package com.nutriflow.aspect;
+
+import com.nutriflow.enums.JobRunStatus;
+import com.nutriflow.helpers.JobRunContext;
+import com.nutriflow.helpers.RedisLeaseLock;
+import com.nutriflow.services.JobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Records every {@link ClusterLocked} job run in {@code job_runs}.
+ * Ordered right after {@link ClusterLockAspect}, so only runs that got the lease are recorded, and
+ * before the job's transaction, so the record is written even if that transaction rolls back.
+ * Failing to write the record never fails the job.
+ *
+ * Only a successful run under a lease that was never lost sets the run-once marker; jobs catch their
+ * own exceptions, so the failure reported through {@link JobRunContext} counts as well, and a failed
+ * run stays retryable by other instances.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+@Slf4j
+public class JobRunAspect {
+
+    private final JobService jobService;
+    private final RedisLeaseLock redisLeaseLock;
+
+    @Around("@annotation(clusterLocked)")
+    public Object recordRun(ProceedingJoinPoint joinPoint, ClusterLocked clusterLocked) throws Throwable {
+        JobRunContext context = JobRunContext.begin();
+        if (context == null) {
+            // Called from another recorded job; counted in the outer run
+            return joinPoint.proceed();
+        }
+
+        String name = clusterLocked.name();
+        Long runId = null;
+        try {
+            runId = jobService.startRun(name, context.getRunId());
+        } catch (Exception e) {
+            log.warn("⚠️ [JOBS] Could not record start of {}: {}", name, e.getMessage());
+        }
+
+        long startNanos = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            thrown = t;
+            throw t;
+        } finally {
+            long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+            Throwable failure = thrown != null ? thrown : context.getFailure();
+            JobRunStatus status = failure == null ? JobRunStatus.SUCCEEDED : JobRunStatus.FAILED;
+
+            if (runId != null) {
+                try {
+                    jobService.finishRun(runId, name, status, durationMs, context.getAffectedRows(),
+                            failure == null ? null : failure.getClass().getSimpleName() + ": " + failure.getMessage());
+                } catch (Exception e) {
+                    log.warn("⚠️ [JOBS] Could not record end of {} (run {}): {}", name, runId, e.getMessage());
+                }
+            }
+            if (failure == null) {
+                markRun(clusterLocked);
+            }
+            if (!context.isManual()) {
+                JobRunContext.clear();
+            }
+        }
+    }
+
+    private void markRun(ClusterLocked clusterLocked) {
+        RedisLeaseLock.Lease lease = RedisLeaseLock.currentLease();
+        if (clusterLocked.runOnceWithinSeconds() == 0 || lease == null || lease.isLost()) {
+            return;
+        }
+        try {
+            redisLeaseLock.markRun(clusterLocked.name(), Duration.ofSeconds(clusterLocked.runOnceWithinSeconds()));
+        } catch (Exception e) {
+            log.warn("⚠️ [JOBS] Could not mark {} as run: {}", clusterLocked.name(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.nutriflow.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the two-level (Caffeine + Redis) caches. Keys of {@code caches} are cache names, e.g.
+ * {@code nutriflow.cache.caches.dietitian-profiles.local-ttl=10m}. Caches without an entry use the defaults of {@link Spec}.
+ */
+@Component
+@ConfigurationProperties(prefix = "nutriflow.cache")
+@Getter
+@Setter
+public class CacheProperties {
+
+    private boolean enabled = true;
+
+    private String keyPrefix = "CACHE:";
+
+    private String invalidationChannel = "nutriflow:cache-invalidation";
+
+    private Map<String, Spec> caches = new HashMap<>(Map.of(
+            "dietitian-profiles", new Spec(1000, Duration.ofMinutes(5), Duration.ofHours(1)),
+            "active-caterer", new Spec(1, Duration.ofMinutes(1), Duration.ofMinutes(10))
+    ));
+
+    public Spec spec(String cacheName) {
+        return caches.getOrDefault(cacheName, new Spec());
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spec {
+        /** Entries kept in process memory */
+        private long maxSize = 1000;
+        /** How long an entry lives in process memory; bounds staleness if an invalidation message is missed */
+        private Duration localTtl = Duration.ofMinutes(5);
+        /** How long an entry lives in Redis */
+        private Duration redisTtl = Duration.ofHours(1);
+    }
+}
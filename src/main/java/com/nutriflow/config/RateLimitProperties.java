@@ -0,0 +1,58 @@
+package com.nutriflow.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint token-bucket limits for the public auth endpoints.
+ * Keys of {@code endpoints} are the path segment after /api/v1/auth/, e.g.
+ * {@code nutriflow.rate-limit.endpoints.login.email.capacity=5}.
+ */
+@Component
+@ConfigurationProperties(prefix = "nutriflow.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private String keyPrefix = "RL:";
+
+    private Map<String, EndpointLimit> endpoints = new HashMap<>(Map.of(
+            "login", new EndpointLimit(new Bucket(30, 30), new Bucket(10, 5)),
+            "register", new EndpointLimit(new Bucket(10, 5), new Bucket(3, 1)),
+            "verify", new EndpointLimit(new Bucket(30, 20), new Bucket(10, 5)),
+            "resend-otp", new EndpointLimit(new Bucket(10, 5), new Bucket(3, 1)),
+            "forgot-password", new EndpointLimit(new Bucket(10, 5), new Bucket(3, 1)),
+            "reset-password", new EndpointLimit(new Bucket(20, 10), new Bucket(10, 5))
+    ));
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EndpointLimit {
+        /** Bucket per client IP */
+        private Bucket ip;
+        /** Bucket per email in the request; skipped when the request carries no email */
+        private Bucket email;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        /** Maximum burst */
+        private int capacity;
+        /** Sustained rate */
+        private double refillPerMinute;
+    }
+}
@@ -1,11 +1,120 @@
 package com.nutriflow.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
+import java.util.concurrent.ThreadPoolExecutor;
 
+
+/**
+ * Executors for scheduled jobs and @Async methods.
+ *
+ * With spring.threads.virtual.enabled=true (which also switches Tomcat's request handling to
+ * virtual threads) every job run and @Async call gets its own virtual thread instead of a pooled
+ * platform thread. Concurrency is then bounded by the resources the work waits on (the JDBC and
+ * Redis connection pools, the SMTP connection pool) rather than by thread counts.
+ */
 @Configuration
 @EnableScheduling
-public class SchedulingConfig {
-    // Configuration is ready with annotation
-}
\ No newline at end of file
+@Slf4j
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${nutriflow.scheduler.pool-size:4}")
+    private int poolSize;
+
+    @Value("${nutriflow.scheduler.await-termination-seconds:30}")
+    private int awaitTerminationSeconds;
+
+    @Value("${nutriflow.mail.async.pool-size:4}")
+    private int emailPoolSize;
+
+    @Value("${nutriflow.mail.async.queue-capacity:500}")
+    private int emailQueueCapacity;
+
+    /**
+     * Shared by @Scheduled jobs and manual job triggers. Spring's default is a single thread,
+     * where a slow cleanup delays every other job.
+     *
+     * In virtual-thread mode each run starts a new virtual thread; fixed-delay jobs still run on
+     * the single trigger thread, so they must stay short (OTP audit flush, Redis stats refresh).
+     */
+    @Bean
+    public TaskScheduler taskScheduler() {
+        if (virtualThreads) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("job-");
+            scheduler.setTaskTerminationTimeout(awaitTerminationSeconds * 1000L);
+            scheduler.setErrorHandler(t -> log.error("❌ [SCHEDULER] Job failed: {}", t.getMessage(), t));
+            log.info("🧵 [SCHEDULER] Jobs run on virtual threads");
+            return scheduler;
+        }
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("job-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(awaitTerminationSeconds);
+        scheduler.setErrorHandler(t -> log.error("❌ [SCHEDULER] Job failed: {}", t.getMessage(), t));
+        return scheduler;
+    }
+
+    /**
+     * The scheduler above is an Executor too, which makes Boot back off from its default @Async
+     * executor; declare that one explicitly (still configured by spring.task.execution.*) so
+     * background listeners keep their own pool instead of competing with jobs.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder threadPoolBuilder,
+                                                     SimpleAsyncTaskExecutorBuilder simpleBuilder) {
+        if (virtualThreads) {
+            return simpleBuilder.virtualThreads(true).build();
+        }
+        return threadPoolBuilder.build();
+    }
+
+    /**
+     * Bounded pool for OTP emails, so a registration spike cannot pile up threads blocked on SMTP.
+     * Stays on platform threads in virtual-thread mode: the bound is the point. A full queue rejects
+     * the task and {@code EmailService} answers 503, so the client requests a new code.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor emailExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(emailPoolSize);
+        executor.setMaxPoolSize(emailPoolSize);
+        executor.setQueueCapacity(emailQueueCapacity);
+        executor.setThreadNamePrefix("email-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+
+        Gauge.builder("nutriflow.mail.async.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("nutriflow.mail.async.queue", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setTaskScheduler(taskScheduler());
+    }
+}
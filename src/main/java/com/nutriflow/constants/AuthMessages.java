@@ -17,6 +17,7 @@ public class AuthMessages {
     public static final String OTP_VERIFIED_SUCCESS = "Your account has been successfully verified!";
     public static final String INVALID_OTP = "Verification code is invalid or has expired.";
     public static final String WRONG_OTP = "Incorrect verification code.";
+    public static final String OTP_ATTEMPTS_EXCEEDED = "Too many incorrect attempts. Please request a new verification code.";
     public static final String USER_NOT_FOUND = "User not found.";
 
     // ============= LOGIN =============
@@ -29,6 +30,7 @@ public class AuthMessages {
     public static final String TOKEN_REFRESH_SUCCESS = "Token refresh successful.";
     public static final String INVALID_REFRESH_TOKEN = "Refresh token is invalid!";
     public static final String TOKEN_MISMATCH = "Refresh token mismatch!";
+    public static final String REFRESH_TOKEN_REUSED = "Refresh token has already been used. Please log in again.";
 
     // ============= ERRORS =============
     public static final String ADMIN_NOT_FOUND = "Admin not found: ";
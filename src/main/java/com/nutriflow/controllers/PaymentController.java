@@ -1,9 +1,10 @@
 package com.nutriflow.controllers;
 
 import com.nutriflow.dto.response.PaymentResponse;
+import com.nutriflow.exceptions.PaymentGatewayException;
+import com.nutriflow.exceptions.WebhookProcessingException;
 import com.nutriflow.security.SecurityUser;
 import com.nutriflow.services.PaymentService;
-import com.stripe.exception.StripeException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -37,9 +38,9 @@ public class PaymentController {
             // Returning the object in JSON format
             return ResponseEntity.ok(response);
 
-        } catch (StripeException e) {
-            log.error("Stripe error: {}", e.getMessage());
-            return ResponseEntity.badRequest().body("Error creating payment: " + e.getMessage());
+        } catch (PaymentGatewayException e) {
+            log.error("Payment gateway error: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
@@ -56,8 +57,11 @@ public class PaymentController {
 
         try {
             paymentService.handleStripeWebhook(payload, sigHeader);
-            log.info("Webhook processed successfully");
-            return ResponseEntity.ok("Webhook processed");
+            log.info("Webhook accepted");
+            return ResponseEntity.ok("Webhook accepted");
+        } catch (WebhookProcessingException e) {
+            log.error("Webhook rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Webhook error: " + e.getMessage());
         } catch (Exception e) {
             log.error("Webhook error: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body("Webhook error: " + e.getMessage());
@@ -77,6 +77,17 @@ public class UserController {
         return ResponseEntity.ok("Your subscription has been cancelled.");
     }
 
+    // Turn automatic renewal charges on or off
+    @PutMapping("/subscription/auto-renew")
+    public ResponseEntity<String> setAutoRenew(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam boolean enabled) {
+        userService.setAutoRenew(userDetails.getUsername(), enabled);
+        return ResponseEntity.ok(enabled
+                ? "Your subscription will be renewed automatically."
+                : "Automatic renewal has been turned off.");
+    }
+
     // 8. Delivery Details
     @GetMapping("/deliveries")
     public ResponseEntity<List<DeliveryDetailResponse>> getMyDeliveries(
@@ -0,0 +1,47 @@
+package com.nutriflow.controllers.admin;
+
+import com.nutriflow.dto.response.DeliveryArchiveResponse;
+import com.nutriflow.services.DeliveryArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/archives")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+public class ArchiveController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final DeliveryArchiveService deliveryArchiveService;
+
+    @GetMapping("/deliveries")
+    public ResponseEntity<List<DeliveryArchiveResponse>> listDeliveryArchives() {
+        return ResponseEntity.ok(deliveryArchiveService.listArchives());
+    }
+
+    /**
+     * Streams one archived month (format: yyyy-MM) straight from disk.
+     */
+    @GetMapping("/deliveries/{month}")
+    public ResponseEntity<StreamingResponseBody> streamDeliveryArchive(
+            @PathVariable YearMonth month,
+            @RequestParam(defaultValue = "false") boolean compressed) {
+        StreamingResponseBody body = deliveryArchiveService.openArchive(month, compressed);
+        String fileName = "deliveries-" + month + (compressed ? ".ndjson.gz" : ".ndjson");
+
+        return ResponseEntity.ok()
+                .contentType(compressed ? GZIP : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+}
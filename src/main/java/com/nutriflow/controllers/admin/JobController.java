@@ -0,0 +1,54 @@
+package com.nutriflow.controllers.admin;
+
+import com.nutriflow.dto.response.JobResponse;
+import com.nutriflow.dto.response.JobRunResponse;
+import com.nutriflow.dto.response.JobStatsResponse;
+import com.nutriflow.services.JobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/jobs")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+public class JobController {
+
+    private final JobService jobService;
+
+    @GetMapping
+    public ResponseEntity<List<JobResponse>> listJobs() {
+        return ResponseEntity.ok(jobService.listJobs());
+    }
+
+    /**
+     * Queues a run in the background and returns its id at once (202 Accepted).
+     */
+    @PostMapping("/{name}/runs")
+    public ResponseEntity<JobRunResponse> triggerJob(@PathVariable String name) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobService.trigger(name));
+    }
+
+    @GetMapping("/{name}/runs")
+    public ResponseEntity<List<JobRunResponse>> getRecentRuns(
+            @PathVariable String name,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(jobService.getRecentRuns(name, Math.min(limit, 200)));
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<JobRunResponse> getRun(@PathVariable Long runId) {
+        return ResponseEntity.ok(jobService.getRun(runId));
+    }
+
+    @GetMapping("/{name}/stats")
+    public ResponseEntity<JobStatsResponse> getStats(
+            @PathVariable String name,
+            @RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(jobService.getStats(name, days));
+    }
+}
@@ -0,0 +1,24 @@
+package com.nutriflow.controllers.admin;
+
+import com.nutriflow.dto.response.RedisStatsResponse;
+import com.nutriflow.services.RedisStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/redis")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+public class RedisStatsController {
+
+    private final RedisStatsService redisStatsService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<RedisStatsResponse> getStats() {
+        return ResponseEntity.ok(redisStatsService.getStats());
+    }
+}
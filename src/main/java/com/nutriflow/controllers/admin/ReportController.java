@@ -0,0 +1,62 @@
+package com.nutriflow.controllers.admin;
+
+import com.nutriflow.enums.ReportFormat;
+import com.nutriflow.enums.ReportType;
+import com.nutriflow.exceptions.BusinessException;
+import com.nutriflow.services.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/admin/reports")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+public class ReportController {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv; charset=UTF-8");
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ReportService reportService;
+
+    /**
+     * Streams a report (subscriptions, payments, caterer-deliveries, activity-logs) as CSV or XLSX.
+     * The period is [from, to); without dates the last 30 days up to today are used.
+     */
+    @GetMapping("/{type}")
+    public ResponseEntity<StreamingResponseBody> streamReport(
+            @PathVariable String type,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ReportType reportType = parse(ReportType.class, type);
+        ReportFormat reportFormat = parse(ReportFormat.class, format);
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(30);
+
+        StreamingResponseBody body = reportService.stream(reportType, reportFormat, start, end);
+        String fileName = reportService.fileName(reportType, reportFormat, start, end);
+
+        return ResponseEntity.ok()
+                .contentType(reportFormat == ReportFormat.XLSX ? XLSX : CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> enumType, String value) {
+        try {
+            return Enum.valueOf(enumType, value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Unknown " + enumType.getSimpleName() + ": " + value);
+        }
+    }
+}
@@ -1,13 +1,14 @@
 package com.nutriflow.controllers.admin;
 
+import com.nutriflow.dto.response.JobResponse;
+import com.nutriflow.dto.response.JobRunResponse;
+import com.nutriflow.entities.Money;
 import com.nutriflow.entities.SubscriptionEntity;
 import com.nutriflow.enums.SubscriptionStatus;
 import com.nutriflow.repositories.SubscriptionRepository;
 import com.nutriflow.repositories.UserRepository;
-import com.nutriflow.scheduler.DatabaseCleanupScheduler;
-import com.nutriflow.scheduler.RedisCleanupScheduler;
-import com.nutriflow.scheduler.SubscriptionScheduler;
 import com.nutriflow.services.EmailNotificationService;
+import com.nutriflow.services.JobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -23,9 +24,7 @@ import java.time.LocalDate;
 @Slf4j
 public class SchedulerController {
 
-    private final DatabaseCleanupScheduler databaseCleanupScheduler;
-    private final SubscriptionScheduler subscriptionScheduler;
-    private final RedisCleanupScheduler redisCleanupScheduler;
+    private final JobService jobService;
     private final SubscriptionRepository subscriptionRepository;
     private final EmailNotificationService emailNotificationService;
     private final UserRepository userRepository;
@@ -34,71 +33,52 @@ public class SchedulerController {
 
     @GetMapping("/status")
     public ResponseEntity<String> getSchedulerStatus() {
-        return ResponseEntity.ok(
-                "✅ Scheduler Service Active\n\n" +
-                        "📋 Available schedulers:\n" +
-                        "1. Database Cleanup (1st of every month at 03:00)\n" +
-                        "2. Subscription Deactivation (Every day at 01:00)\n" +
-                        "3. Redis OTP Cleanup (Every hour)\n" +
-                        "4. Redis Token Cleanup (Every day at 04:00)\n" +
-                        "5. Redis Stats (Every 6 hours)\n" +
-                        "6. Subscription Expiration Warning (Every day at 10:00)\n" +
-                        "7. Weekly Subscription Report (Monday at 09:00)"
-        );
+        StringBuilder status = new StringBuilder("✅ Scheduler Service Active\n\n📋 Available jobs:\n");
+        int index = 1;
+        for (JobResponse job : jobService.listJobs()) {
+            status.append(index++).append(". ").append(job.getName()).append(" (").append(job.getSchedule()).append(")");
+            if (job.getLastRun() != null) {
+                status.append(" | Last run: ").append(job.getLastRun().getStatus())
+                        .append(" at ").append(job.getLastRun().getRequestedAt());
+            }
+            status.append("\n");
+        }
+        return ResponseEntity.ok(status.toString());
     }
 
     // ==================== DATABASE CLEANUP ====================
 
     @PostMapping("/database-cleanup")
     public ResponseEntity<String> testDatabaseCleanup() {
-        try {
-            log.info("📋 Manual database cleanup test started");
-            databaseCleanupScheduler.cleanupOldDeliveries();
-            return ResponseEntity.ok("✅ Database cleanup executed successfully");
-        } catch (Exception e) {
-            log.error("❌ Database cleanup error", e);
-            return ResponseEntity.status(500).body("❌ Error: " + e.getMessage());
-        }
+        return triggerJob("delivery-archive");
     }
 
     // ==================== SUBSCRIPTION DEACTIVATION ====================
 
     @PostMapping("/subscription-deactivate")
     public ResponseEntity<String> testSubscriptionDeactivate() {
-        try {
-            log.info("📋 Manual subscription deactivation test started");
-            subscriptionScheduler.deactivateExpiredSubscriptions();
-            return ResponseEntity.ok("✅ Subscription deactivation executed successfully");
-        } catch (Exception e) {
-            log.error("❌ Subscription deactivation error", e);
-            return ResponseEntity.status(500).body("❌ Error: " + e.getMessage());
-        }
+        return triggerJob("subscription-expiry");
     }
 
     @PostMapping("/test-subscription-warning")
     public ResponseEntity<String> testSubscriptionWarning() {
-        try {
-            log.info("📋 Manual subscription warning test started");
-            subscriptionScheduler.notifyUpcomingExpirations();
-            return ResponseEntity.ok("✅ Subscription warning executed successfully");
-        } catch (Exception e) {
-            log.error("❌ Subscription warning error", e);
-            return ResponseEntity.status(500).body("❌ Error: " + e.getMessage());
-        }
+        return triggerJob("subscription-expiry-warning");
     }
 
     // ==================== REDIS ====================
 
     @PostMapping("/redis-stats")
     public ResponseEntity<String> testRedisStats() {
-        try {
-            log.info("📋 Manual Redis stats test started");
-            redisCleanupScheduler.logRedisStatistics();
-            return ResponseEntity.ok("✅ Redis stats executed successfully");
-        } catch (Exception e) {
-            log.error("❌ Redis stats error", e);
-            return ResponseEntity.status(500).body("❌ Error: " + e.getMessage());
-        }
+        return triggerJob("redis-stats");
+    }
+
+    /**
+     * Jobs run in the background; the run can be followed under /api/v1/admin/jobs/runs/{id}
+     */
+    private ResponseEntity<String> triggerJob(String jobName) {
+        log.info("📋 Manual {} run requested", jobName);
+        JobRunResponse run = jobService.trigger(jobName);
+        return ResponseEntity.accepted().body("✅ " + jobName + " queued | Run ID: " + run.getId());
     }
 
     // ==================== EMAIL TESTS ====================
@@ -153,7 +133,7 @@ public class SchedulerController {
             if (existingSub.isPresent()) {
                 var sub = existingSub.get();
                 sub.setPlanName("Premium Test");
-                sub.setPrice(15.0);
+                sub.setPrice(Money.azn(1500));
                 sub.setStatus(SubscriptionStatus.ACTIVE);
                 sub.setStartDate(LocalDate.now());
                 sub.setEndDate(LocalDate.now().plusDays(30));
@@ -166,7 +146,7 @@ public class SchedulerController {
                 var subscription = SubscriptionEntity.builder()
                         .user(testUser)
                         .planName("Premium Test")
-                        .price(15.0)
+                        .price(Money.azn(1500))
                         .status(SubscriptionStatus.ACTIVE)
                         .startDate(LocalDate.now())
                         .endDate(LocalDate.now().plusDays(30))
@@ -201,7 +181,7 @@ public class SchedulerController {
             if (existingSub.isPresent()) {
                 var sub = existingSub.get();
                 sub.setPlanName("Premium Test - Expiring");
-                sub.setPrice(15.0);
+                sub.setPrice(Money.azn(1500));
                 sub.setStatus(SubscriptionStatus.ACTIVE);
                 sub.setStartDate(LocalDate.now());
                 sub.setEndDate(LocalDate.now().plusDays(7)); // ✅ 7 days
@@ -214,7 +194,7 @@ public class SchedulerController {
                 var subscription = SubscriptionEntity.builder()
                         .user(testUser)
                         .planName("Premium Test - Expiring")
-                        .price(15.0)
+                        .price(Money.azn(1500))
                         .status(SubscriptionStatus.ACTIVE)
                         .startDate(LocalDate.now())
                         .endDate(LocalDate.now().plusDays(7))
@@ -249,7 +229,7 @@ public class SchedulerController {
             if (existingSub.isPresent()) {
                 var sub = existingSub.get();
                 sub.setPlanName("Premium Test - Expired");
-                sub.setPrice(15.0);
+                sub.setPrice(Money.azn(1500));
                 sub.setStatus(SubscriptionStatus.ACTIVE); // Still active
                 sub.setStartDate(LocalDate.now().minusDays(8));
                 sub.setEndDate(LocalDate.now().minusDays(1)); // Expired yesterday
@@ -262,7 +242,7 @@ public class SchedulerController {
                 var subscription = SubscriptionEntity.builder()
                         .user(testUser)
                         .planName("Premium Test - Expired")
-                        .price(15.0)
+                        .price(Money.azn(1500))
                         .status(SubscriptionStatus.ACTIVE)
                         .startDate(LocalDate.now().minusDays(8))
                         .endDate(LocalDate.now().minusDays(1))
@@ -0,0 +1,37 @@
+package com.nutriflow.controllers.admin;
+
+import com.nutriflow.dto.response.StripeEventResponse;
+import com.nutriflow.enums.StripeEventStatus;
+import com.nutriflow.services.StripeEventService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/stripe-events")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+public class StripeEventController {
+
+    private final StripeEventService stripeEventService;
+
+    @GetMapping
+    public ResponseEntity<List<StripeEventResponse>> listEvents(
+            @RequestParam(defaultValue = "FAILED") StripeEventStatus status,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(stripeEventService.listEvents(status, Math.min(limit, 500)));
+    }
+
+    /**
+     * Queues a FAILED or PROCESSED event for processing again (202 Accepted); the worker picks it up
+     * shortly. 409 if the event is still pending or being processed.
+     */
+    @PostMapping("/{eventId}/replay")
+    public ResponseEntity<StripeEventResponse> replayEvent(@PathVariable String eventId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(stripeEventService.replay(eventId));
+    }
+}
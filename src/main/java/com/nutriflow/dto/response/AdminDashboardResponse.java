@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -17,7 +19,7 @@ public class AdminDashboardResponse {
     private long totalDietitians;
     private long totalCaterers;
     private long activeSubscriptions;
-    private Double totalRevenue;
+    private BigDecimal totalRevenue;
     private long totalDeliveries;
     private long successfulDeliveries;
     private long failedDeliveries;
@@ -25,6 +27,6 @@ public class AdminDashboardResponse {
     private long approvedMenus;
     private long rejectedMenus;
     private long newUsersThisMonth;
-    private Map<String, Double> chartData;
+    private Map<String, BigDecimal> chartData;
 
 }
\ No newline at end of file
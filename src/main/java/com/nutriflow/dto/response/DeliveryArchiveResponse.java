@@ -0,0 +1,25 @@
+package com.nutriflow.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryArchiveResponse {
+
+    private String month;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Long maxId;
+    private long rowCount;
+    private long sizeBytes;
+    private LocalDateTime archivedAt;
+
+}
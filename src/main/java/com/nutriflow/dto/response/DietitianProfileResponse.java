@@ -1,10 +1,14 @@
 package com.nutriflow.dto.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class DietitianProfileResponse {
 
     private Long id;
@@ -0,0 +1,18 @@
+package com.nutriflow.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobResponse {
+
+    private String name;
+    private String schedule;
+    private JobRunResponse lastRun;
+
+}
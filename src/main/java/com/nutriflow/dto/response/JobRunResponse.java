@@ -0,0 +1,30 @@
+package com.nutriflow.dto.response;
+
+import com.nutriflow.enums.JobRunStatus;
+import com.nutriflow.enums.JobTrigger;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRunResponse {
+
+    private Long id;
+    private String jobName;
+    private JobTrigger trigger;
+    private JobRunStatus status;
+    private String instanceId;
+    private LocalDateTime requestedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private Long affectedRows;
+    private String error;
+
+}
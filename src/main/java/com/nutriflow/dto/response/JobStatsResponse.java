@@ -0,0 +1,31 @@
+package com.nutriflow.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobStatsResponse {
+
+    private String jobName;
+    private LocalDateTime since;
+
+    // Finished runs (SUCCEEDED or FAILED) since the cutoff
+    private long runs;
+    private long failures;
+
+    // Duration percentiles in milliseconds, null without runs
+    private Double p50Ms;
+    private Double p90Ms;
+    private Double p99Ms;
+    private Long maxMs;
+
+    private Double avgAffectedRows;
+
+}
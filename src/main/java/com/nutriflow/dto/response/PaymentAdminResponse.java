@@ -2,6 +2,7 @@ package com.nutriflow.dto.response;
 
 import lombok.Builder;
 import lombok.Data;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -9,7 +10,7 @@ import java.time.LocalDateTime;
 public class PaymentAdminResponse {
 
     private Long id;
-    private Double amount;
+    private BigDecimal amount;
     private String currency;
     private String status;
     private LocalDateTime paymentDate;
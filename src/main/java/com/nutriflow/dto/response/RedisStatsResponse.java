@@ -0,0 +1,38 @@
+package com.nutriflow.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedisStatsResponse {
+
+    // Maintained counters
+    private long liveOtps;
+    private long liveRefreshFamilies;
+    private long otpsIssuedToday;
+    private long otpsVerifiedToday;
+    private long otpsLockedToday;
+    private long distinctOtpEmailsToday;
+    private long refreshFamiliesCreatedToday;
+    private long refreshTokenReuseToday;
+
+    // INFO memory
+    private long usedMemoryBytes;
+    private long usedMemoryPeakBytes;
+    private long maxMemoryBytes;
+    private double memoryFragmentationRatio;
+
+    // INFO keyspace: database -> key count
+    private Map<String, Long> keysPerDatabase;
+
+    private LocalDateTime generatedAt;
+
+}
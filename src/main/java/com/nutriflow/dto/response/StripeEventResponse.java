@@ -0,0 +1,27 @@
+package com.nutriflow.dto.response;
+
+import com.nutriflow.enums.StripeEventStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StripeEventResponse {
+
+    private String id;
+    private String type;
+    private StripeEventStatus status;
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime stripeCreatedAt;
+    private LocalDateTime receivedAt;
+    private LocalDateTime processedAt;
+
+}
@@ -4,6 +4,7 @@ import com.nutriflow.enums.SubscriptionStatus;
 import com.nutriflow.enums.UserStatus;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Getter
@@ -24,11 +25,12 @@ public class SubscriptionInfoResponse {
 
     // Subscription info
     private String planName;
-    private Double price;
+    private BigDecimal price;
     private SubscriptionStatus status;
     private LocalDate startDate;
     private LocalDate endDate;
     private long daysRemaining;
     private long monthsRemaining;
     private boolean isActive;
+    private boolean autoRenew;
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.nutriflow.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read-only row of the {@code accounts} view: one entry per admin, dietitian, caterer and user.
+ * Used to resolve an email to its role, id, active flag and password hash in a single query.
+ * Writes still go through the role-specific entities.
+ */
+@Entity
+@Immutable
+@Table(name = "accounts")
+@Getter
+@NoArgsConstructor
+public class AccountEntity {
+
+    @Id
+    @Column(name = "account_key")
+    private String accountKey;
+
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "email")
+    private String email;
+
+    /** Role name; admins resolve to SUPER_ADMIN or ADMIN */
+    @Column(name = "role")
+    private String role;
+
+    @Column(name = "password_hash")
+    private String passwordHash;
+
+    @Column(name = "active")
+    private boolean active;
+
+    /** Lookup order when the same email exists in several tables: admin, dietitian, caterer, user */
+    @Column(name = "priority")
+    private int priority;
+
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
+    @Column(name = "company_name")
+    private String companyName;
+
+    @Column(name = "phone")
+    private String phone;
+
+    @Column(name = "specialization")
+    private String specialization;
+
+    /** CatererStatus for caterers, UserStatus for users, null otherwise */
+    @Column(name = "status")
+    private String status;
+}
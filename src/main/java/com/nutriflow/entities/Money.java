@@ -0,0 +1,67 @@
+package com.nutriflow.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * Amount of money as a whole number of minor units (e.g. qepik) in an ISO 4217 currency.
+ * Arithmetic on minor units is exact; {@link #toMajor()} is for display only.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@EqualsAndHashCode
+public class Money {
+
+    public static final String AZN = "AZN";
+
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    private Money(long amountMinor, String currency) {
+        this.amountMinor = amountMinor;
+        this.currency = Currency.getInstance(currency).getCurrencyCode();
+    }
+
+    public static Money of(long amountMinor, String currency) {
+        return new Money(amountMinor, currency);
+    }
+
+    public static Money azn(long amountMinor) {
+        return new Money(amountMinor, AZN);
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more decimals than the currency allows
+     */
+    public static Money ofMajor(BigDecimal amount, String currency) {
+        int fractionDigits = Currency.getInstance(currency).getDefaultFractionDigits();
+        return new Money(amount.movePointRight(fractionDigits).longValueExact(), currency);
+    }
+
+    public BigDecimal toMajor() {
+        return BigDecimal.valueOf(amountMinor, Currency.getInstance(currency).getDefaultFractionDigits());
+    }
+
+    public Money plus(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+        return new Money(Math.addExact(amountMinor, other.amountMinor), currency);
+    }
+
+    @Override
+    public String toString() {
+        return toMajor().toPlainString() + " " + currency;
+    }
+}
@@ -15,15 +15,15 @@ import java.time.LocalDateTime;
 @Builder
 public class PaymentEntity extends BaseEntity {
 
-    @OneToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "subscription_id", nullable = false, unique = true)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subscription_id", nullable = false)
     private SubscriptionEntity subscription;
 
     @Column(name = "provider", nullable = false)
     private String provider; // E.g: "BANK_CARD", "CASH"
 
-    @Column(name = "amount", nullable = false)
-    private Double amount;
+    @Embedded
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
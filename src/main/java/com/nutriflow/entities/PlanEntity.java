@@ -0,0 +1,33 @@
+package com.nutriflow.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "plans")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlanEntity extends BaseEntity {
+
+    @Column(name = "code", nullable = false, unique = true, length = 30)
+    private String code; // E.g: "PREMIUM"
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    @Embedded
+    @AttributeOverride(name = "amountMinor", column = @Column(name = "price_minor", nullable = false))
+    private Money price;
+
+    @Column(name = "duration_months", nullable = false)
+    private int durationMonths;
+
+    @Column(name = "active", nullable = false)
+    private boolean active;
+}
@@ -4,8 +4,13 @@ import com.nutriflow.enums.SubscriptionStatus;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Entity
-@Table(name = "subscriptions")
+@Table(name = "subscriptions", indexes = {
+        @Index(name = "idx_subscription_status_end_date", columnList = "status, end_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,8 +25,9 @@ public class SubscriptionEntity extends BaseEntity {
     @Column(name = "plan_name", nullable = false)
     private String planName;
 
-    @Column(name = "price", nullable = false)
-    private Double price;
+    @Embedded
+    @AttributeOverride(name = "amountMinor", column = @Column(name = "price_minor", nullable = false))
+    private Money price;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
@@ -33,7 +39,20 @@ public class SubscriptionEntity extends BaseEntity {
     @Column(name = "end_date", nullable = false)
     private java.time.LocalDate endDate;
 
-    @OneToOne(mappedBy = "subscription", cascade = CascadeType.ALL, orphanRemoval = true)
-    private PaymentEntity payment;
+    @Column(name = "plan_code", length = 30)
+    private String planCode;
+
+    @Column(name = "auto_renew", nullable = false)
+    @Builder.Default
+    private boolean autoRenew = true;
+
+    // Payment provider's customer holding the saved payment method; null until the first checkout completes
+    @Column(name = "billing_customer_ref")
+    private String billingCustomerRef;
+
+    // The first checkout payment, then one per renewal
+    @OneToMany(mappedBy = "subscription", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Builder.Default
+    private List<PaymentEntity> payments = new ArrayList<>();
 
 }
\ No newline at end of file
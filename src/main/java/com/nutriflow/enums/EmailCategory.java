@@ -0,0 +1,9 @@
+package com.nutriflow.enums;
+
+public enum EmailCategory {
+    SUBSCRIPTION_EXPIRATION_WARNING,
+    SUBSCRIPTION_EXPIRED,
+    WEEKLY_REPORT,
+    VERIFICATION_CODE,      // OTP email; never stored in the outbox
+    PASSWORD_RESET          // OTP email; never stored in the outbox
+}
@@ -0,0 +1,8 @@
+package com.nutriflow.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,   // Waiting for its next attempt
+    SENDING,   // Claimed by a worker
+    SENT,
+    FAILED     // Gave up after the last attempt or a permanent error
+}
@@ -0,0 +1,9 @@
+package com.nutriflow.enums;
+
+public enum JobRunStatus {
+    QUEUED,      // Manual trigger accepted, waiting for a scheduler thread
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    SKIPPED      // Lock held by another instance or the job already ran within its window
+}
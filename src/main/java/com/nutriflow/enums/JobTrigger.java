@@ -0,0 +1,6 @@
+package com.nutriflow.enums;
+
+public enum JobTrigger {
+    SCHEDULED,   // Cron or startup
+    MANUAL       // Admin endpoint
+}
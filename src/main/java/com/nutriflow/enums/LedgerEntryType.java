@@ -0,0 +1,6 @@
+package com.nutriflow.enums;
+
+public enum LedgerEntryType {
+    PAYMENT,    // Successful payment, positive amount
+    REFUND      // Money returned, negative amount
+}
@@ -0,0 +1,6 @@
+package com.nutriflow.enums;
+
+public enum ReportFormat {
+    CSV,
+    XLSX
+}
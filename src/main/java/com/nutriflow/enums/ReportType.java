@@ -0,0 +1,8 @@
+package com.nutriflow.enums;
+
+public enum ReportType {
+    SUBSCRIPTIONS,          // Subscriptions overlapping the period, with their users
+    PAYMENTS,               // Payments created in the period
+    CATERER_DELIVERIES,     // Deliveries per caterer and day, by status
+    ACTIVITY_LOGS           // Audit trail entries of the period
+}
@@ -0,0 +1,8 @@
+package com.nutriflow.enums;
+
+public enum StripeEventStatus {
+    PENDING,        // Stored, waiting for (another) processing attempt
+    PROCESSING,     // Claimed by a worker
+    PROCESSED,      // Handled (or nothing to do for its type)
+    FAILED          // Gave up after the last attempt; replay manually
+}
@@ -0,0 +1,5 @@
+package com.nutriflow.enums;
+
+public enum SubscriptionNotificationType {
+    EXPIRATION_WARNING   // Sent once when the end date enters the warning window
+}
@@ -0,0 +1,34 @@
+package com.nutriflow.events;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Published whenever an account changes in a way that affects issued tokens
+ * or anything cached about its identity.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class AccountChangedEvent {
+
+    public enum Reason {
+        DEACTIVATED,
+        DELETED,
+        PASSWORD_CHANGED,
+        EMAIL_CHANGED,
+        PROFILE_UPDATED
+    }
+
+    /** Email the account was known by before the change (the JWT subject) */
+    private final String email;
+    private final Reason reason;
+
+    /**
+     * @return true if tokens issued before this change must no longer be accepted
+     */
+    public boolean revokesTokens() {
+        return reason != Reason.PROFILE_UPDATED;
+    }
+}
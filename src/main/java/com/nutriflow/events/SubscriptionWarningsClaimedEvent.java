@@ -0,0 +1,30 @@
+package com.nutriflow.events;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published inside the transaction that claims a chunk of expiration warnings in the notification
+ * ledger. Synchronous listeners take part in that transaction (e.g. writing outbox emails).
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class SubscriptionWarningsClaimedEvent {
+
+    private final List<ClaimedWarning> warnings;
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class ClaimedWarning {
+        private final Long subscriptionId;
+        private final LocalDate endDate;
+        private final String email;
+        private final String firstName;
+    }
+}
@@ -0,0 +1,30 @@
+package com.nutriflow.events;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that switches a chunk of subscriptions to EXPIRED.
+ * Synchronous listeners take part in that transaction (e.g. writing outbox emails).
+ * Carries everything the notification needs, so listeners do not load entities.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class SubscriptionsExpiredEvent {
+
+    private final List<ExpiredSubscription> subscriptions;
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class ExpiredSubscription {
+        private final Long subscriptionId;
+        private final Long userId;
+        private final String email;
+        private final String firstName;
+    }
+}
@@ -0,0 +1,15 @@
+package com.nutriflow.exceptions;
+
+/**
+ * The payment provider rejected a request or could not be reached
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
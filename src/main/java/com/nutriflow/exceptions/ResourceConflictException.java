@@ -0,0 +1,12 @@
+package com.nutriflow.exceptions;
+
+/**
+ * The resource is in a state that does not allow the request right now
+ */
+public class ResourceConflictException extends RuntimeException {
+
+    public ResourceConflictException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.nutriflow.helpers;
+
+import com.nutriflow.entities.AccountEntity;
+import com.nutriflow.enums.Role;
+import com.nutriflow.repositories.AdminRepository;
+import com.nutriflow.repositories.CatererRepository;
+import com.nutriflow.repositories.DietitianRepository;
+import com.nutriflow.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Helper class for writing a password hash to the table that owns an account.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountPasswordHelper {
+
+    private final AdminRepository adminRepository;
+    private final DietitianRepository dietitianRepository;
+    private final CatererRepository catererRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Updates the password with a single UPDATE on the owning table.
+     *
+     * @param account         Row from the accounts view
+     * @param encodedPassword New password hash
+     */
+    @Transactional
+    public void updatePassword(AccountEntity account, String encodedPassword) {
+        String role = account.getRole();
+
+        if (Role.ADMIN.name().equals(role) || Role.SUPER_ADMIN.name().equals(role)) {
+            adminRepository.updatePassword(account.getAccountId(), encodedPassword);
+        } else if (Role.DIETITIAN.name().equals(role)) {
+            dietitianRepository.updatePassword(account.getAccountId(), encodedPassword);
+        } else if (Role.CATERER.name().equals(role)) {
+            catererRepository.updatePassword(account.getAccountId(), encodedPassword);
+        } else {
+            userRepository.updatePassword(account.getAccountId(), encodedPassword);
+        }
+        log.info("Password updated: role={}, email={}", role, account.getEmail());
+    }
+}
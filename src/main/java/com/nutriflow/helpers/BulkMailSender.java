@@ -0,0 +1,156 @@
+package com.nutriflow.helpers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends many messages over few SMTP connections.
+ *
+ * {@link JavaMailSender#send(MimeMessage...)} opens one transport, sends every message over it and
+ * closes it, so a chunk of nutriflow.mail.bulk.messages-per-connection messages costs one connect,
+ * TLS handshake and login instead of one per message. Chunks run in parallel on a fixed pool of
+ * nutriflow.mail.bulk.connections threads; the pool also caps the SMTP connections a node opens,
+ * however many callers send at once.
+ */
+@Component
+@Slf4j
+@SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+public class BulkMailSender {
+
+    private final JavaMailSender mailSender;
+    private final ExecutorService connectionPool;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer connectionTimer;
+
+    @Value("${nutriflow.mail.bulk.messages-per-connection:50}")
+    private int messagesPerConnection;
+
+    public BulkMailSender(JavaMailSender mailSender,
+                          MeterRegistry meterRegistry,
+                          @Value("${nutriflow.mail.bulk.connections:4}") int connections) {
+        this.mailSender = mailSender;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.connectionPool = Executors.newFixedThreadPool(connections, runnable -> {
+            Thread thread = new Thread(runnable, "smtp-connection-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // rate(nutriflow.mail.bulk.messages{result="sent"}) is the messages-per-second figure
+        this.sentCounter = Counter.builder("nutriflow.mail.bulk.messages").tag("result", "sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("nutriflow.mail.bulk.messages").tag("result", "failed").register(meterRegistry);
+        this.connectionTimer = Timer.builder("nutriflow.mail.bulk.connection")
+                .description("Time spent on one SMTP connection, from connect to close")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends all messages and waits until every chunk is done.
+     *
+     * @return Failures by position in {@code messages}; empty if the server accepted everything.
+     *         Messages that could not be built fail with {@link MailPreparationException}.
+     */
+    public Map<Integer, Exception> send(List<SimpleMailMessage> messages) throws InterruptedException {
+        Map<Integer, Exception> failures = new ConcurrentHashMap<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>(messages.size());
+        List<Integer> positions = new ArrayList<>(messages.size());
+
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                mimeMessages.add(toMimeMessage(messages.get(i)));
+                positions.add(i);
+            } catch (MessagingException | IllegalArgumentException e) {
+                failures.put(i, new MailPreparationException("Could not build message: " + e.getMessage(), e));
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < mimeMessages.size(); from += messagesPerConnection) {
+            int to = Math.min(from + messagesPerConnection, mimeMessages.size());
+            List<MimeMessage> chunk = mimeMessages.subList(from, to);
+            List<Integer> chunkPositions = positions.subList(from, to);
+            chunks.add(connectionPool.submit(() -> sendChunk(chunk, chunkPositions, failures)));
+        }
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (ExecutionException e) {
+                // sendChunk records its own failures
+                log.error("SMTP chunk failed unexpectedly: {}", e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        int sent = messages.size() - failures.size();
+        sentCounter.increment(sent);
+        failedCounter.increment(failures.size());
+
+        double seconds = Math.max((System.nanoTime() - startNanos) / 1_000_000_000.0, 0.001);
+        log.info("📨 [MAIL] Bulk send finished | Sent: {} | Failed: {} | Connections: {} | Rate: {} msg/s",
+                sent, failures.size(), chunks.size(), Math.round(sent / seconds));
+        return failures;
+    }
+
+    private void sendChunk(List<MimeMessage> chunk, List<Integer> positions, Map<Integer, Exception> failures) {
+        Timer.Sample sample = Timer.start();
+        try {
+            mailSender.send(chunk.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (int i = 0; i < chunk.size(); i++) {
+                // Without per-message details the connection itself failed, so nothing was sent
+                Exception failure = failedMessages.isEmpty() ? e : failedMessages.get(chunk.get(i));
+                if (failure != null) {
+                    failures.put(positions.get(i), failure);
+                }
+            }
+        } catch (Exception e) {
+            // Authentication or connection failure before the first message
+            for (Integer position : positions) {
+                failures.put(position, e);
+            }
+        } finally {
+            sample.stop(connectionTimer);
+        }
+    }
+
+    private MimeMessage toMimeMessage(SimpleMailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, StandardCharsets.UTF_8.name());
+        helper.setFrom(message.getFrom());
+        helper.setTo(message.getTo());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getText());
+        return mimeMessage;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionPool.shutdownNow();
+    }
+}
@@ -0,0 +1,116 @@
+package com.nutriflow.helpers;
+
+import com.nutriflow.services.PaymentGateway;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Open checkout sessions per user in Redis.
+ *
+ * Layout (prefix = nutriflow.redis.prefix.checkout):
+ *   session:&lt;userId&gt;   URL of the user's open session, expiring shortly before the session does
+ *   pending:&lt;userId&gt;   expiry and idempotency key of the session being created, for a short window
+ *
+ * Requests racing before the first session is cached share the pending idempotency key and the
+ * session expiry stored with it, so they send identical requests and the gateway returns one
+ * session to all of them instead of creating one each.
+ */
+@Component
+@Slf4j
+public class CheckoutSessionCache {
+
+    private static final String SESSION = "session:";
+    private static final String PENDING = "pending:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${nutriflow.redis.prefix.checkout:CHECKOUT:}")
+    private String checkoutPrefix;
+
+    // Margin so a cached URL is never handed out moments before the session expires
+    @Value("${nutriflow.payments.checkout.expiry-margin-seconds:60}")
+    private long expiryMarginSeconds;
+
+    @Value("${nutriflow.payments.checkout.idempotency-window-seconds:60}")
+    private long idempotencyWindowSeconds;
+
+    // Stripe accepts 30 minutes to 24 hours
+    @Value("${nutriflow.payments.checkout.session-ttl-minutes:30}")
+    private long sessionTtlMinutes;
+
+    public CheckoutSessionCache(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public Optional<String> findUrl(Long userId) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(checkoutPrefix + SESSION + userId));
+    }
+
+    /**
+     * Idempotency key and session expiry for creating the user's next session: new ones, or the
+     * ones a concurrent request already claimed.
+     */
+    public PendingCheckout pendingCheckout(Long userId) {
+        String key = checkoutPrefix + PENDING + userId;
+        Duration window = Duration.ofSeconds(idempotencyWindowSeconds);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            // The window is added so the expiry is still far enough ahead when the last sharer sends it
+            Instant expiresAt = Instant.now().plus(Duration.ofMinutes(sessionTtlMinutes)).plus(window);
+            PendingCheckout candidate = new PendingCheckout("checkout-" + userId + "-" + UUID.randomUUID(),
+                    Instant.ofEpochSecond(expiresAt.getEpochSecond()));
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, candidate.encode(), window))) {
+                return candidate;
+            }
+            String existing = redisTemplate.opsForValue().get(key);
+            if (existing != null) {
+                return PendingCheckout.decode(existing);
+            }
+            // The pending key expired between SET NX and GET; claim a fresh one
+        }
+        throw new IllegalStateException("Could not claim a checkout idempotency key for user " + userId);
+    }
+
+    public void store(Long userId, PaymentGateway.CheckoutSession session) {
+        Duration ttl = Duration.between(Instant.now(), session.getExpiresAt()).minusSeconds(expiryMarginSeconds);
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        redisTemplate.opsForValue().set(checkoutPrefix + SESSION + userId, session.getUrl(), ttl);
+    }
+
+    /**
+     * Forgets the user's session, e.g. once it has been paid.
+     */
+    public void evict(Long userId) {
+        redisTemplate.delete(List.of(checkoutPrefix + SESSION + userId, checkoutPrefix + PENDING + userId));
+        log.debug("Checkout session cache evicted for user {}", userId);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class PendingCheckout {
+        private final String idempotencyKey;
+        private final Instant expiresAt;
+
+        // <expiry epoch seconds>:<idempotency key>
+        String encode() {
+            return expiresAt.getEpochSecond() + ":" + idempotencyKey;
+        }
+
+        static PendingCheckout decode(String value) {
+            int separator = value.indexOf(':');
+            return new PendingCheckout(value.substring(separator + 1),
+                    Instant.ofEpochSecond(Long.parseLong(value.substring(0, separator))));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.nutriflow.helpers;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Fences the database writes of cluster-locked jobs with their lease's fencing token.
+ *
+ * {@link #check(RedisLeaseLock.Lease)} runs inside the guarded transaction and advances the job's
+ * {@code job_fences} row to the lease's token; it fails if a newer token has already written. The
+ * row stays locked until the transaction ends, so a holder paused past its lease either commits
+ * before the next holder's first guarded write or is rolled back, whatever Redis said meanwhile.
+ */
+@Component
+public class JobFence {
+
+    private static final String ADVANCE_SQL =
+            "INSERT INTO job_fences (job_name, fencing_token, updated_at) VALUES (?, ?, now()) " +
+            "ON CONFLICT (job_name) DO UPDATE SET fencing_token = EXCLUDED.fencing_token, updated_at = now() " +
+            "WHERE job_fences.fencing_token <= EXCLUDED.fencing_token";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobFence(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @param lease Lease the write is done under; null (lock disabled) skips the check
+     * @throws IllegalStateException if a newer lease of the same job has already written
+     */
+    public void check(RedisLeaseLock.Lease lease) {
+        if (lease == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Fence check for " + lease.getName() + " must run inside the guarded transaction");
+        }
+        if (jdbcTemplate.update(ADVANCE_SQL, lease.getName(), lease.getFencingToken()) == 0) {
+            throw new IllegalStateException("Lease " + lease.getName() + " (fencingToken=" + lease.getFencingToken()
+                    + ") was superseded by a newer holder, rolling back");
+        }
+    }
+
+    /**
+     * Checks the lease held by the calling thread.
+     */
+    public void checkCurrent() {
+        check(RedisLeaseLock.currentLease());
+    }
+}
@@ -0,0 +1,113 @@
+package com.nutriflow.helpers;
+
+import com.nutriflow.aspect.ClusterLocked;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Registry of all background jobs: every bean method annotated with {@link ClusterLocked}, keyed
+ * by its lock name. Jobs are invoked through the bean's proxy, so manual runs take the same
+ * cluster lock and are recorded the same way as scheduled ones.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobRegistry implements SmartInitializingSingleton {
+
+    private final ApplicationContext applicationContext;
+    private final Map<String, RegisteredJob> jobs = new TreeMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null || !type.getPackageName().startsWith("com.nutriflow")) {
+                continue;
+            }
+            ReflectionUtils.doWithMethods(ClassUtils.getUserClass(type), method -> {
+                ClusterLocked clusterLocked = method.getAnnotation(ClusterLocked.class);
+                if (clusterLocked != null && method.getParameterCount() == 0) {
+                    register(clusterLocked.name(), beanName, method);
+                }
+            });
+        }
+        log.info("📋 [JOBS] {} job(s) registered: {}", jobs.size(), jobs.keySet());
+    }
+
+    public Collection<RegisteredJob> getJobs() {
+        return Collections.unmodifiableCollection(jobs.values());
+    }
+
+    public Optional<RegisteredJob> find(String name) {
+        return Optional.ofNullable(jobs.get(name));
+    }
+
+    private void register(String name, String beanName, Method method) {
+        RegisteredJob previous = jobs.put(name, new RegisteredJob(name, beanName, method, describeSchedule(method)));
+        if (previous != null) {
+            throw new IllegalStateException("Duplicate job name " + name + " on " + previous.getMethod() + " and " + method);
+        }
+    }
+
+    private static String describeSchedule(Method method) {
+        Scheduled scheduled = AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class);
+        if (scheduled != null) {
+            if (!scheduled.cron().isEmpty()) {
+                return "cron " + scheduled.cron();
+            }
+            if (!scheduled.fixedDelayString().isEmpty() || scheduled.fixedDelay() >= 0) {
+                return "fixed delay " + (scheduled.fixedDelayString().isEmpty() ? scheduled.fixedDelay() + "ms" : scheduled.fixedDelayString());
+            }
+            if (!scheduled.fixedRateString().isEmpty() || scheduled.fixedRate() >= 0) {
+                return "fixed rate " + (scheduled.fixedRateString().isEmpty() ? scheduled.fixedRate() + "ms" : scheduled.fixedRateString());
+            }
+        }
+        EventListener eventListener = AnnotatedElementUtils.findMergedAnnotation(method, EventListener.class);
+        if (eventListener != null && Arrays.asList(eventListener.classes()).contains(ApplicationReadyEvent.class)) {
+            return "on startup";
+        }
+        return "manual";
+    }
+
+    @Getter
+    public class RegisteredJob {
+        private final String name;
+        private final String beanName;
+        private final Method method;
+        private final String schedule;
+
+        private RegisteredJob(String name, String beanName, Method method, String schedule) {
+            this.name = name;
+            this.beanName = beanName;
+            this.method = method;
+            this.schedule = schedule;
+        }
+
+        /**
+         * Runs the job on the calling thread, through the bean's proxy.
+         */
+        public void invoke() {
+            Object bean = applicationContext.getBean(beanName);
+            ReflectionUtils.invokeMethod(AopUtils.selectInvocableMethod(method, bean.getClass()), bean);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.nutriflow.helpers;
+
+/**
+ * Per-thread state of the job run being recorded in {@code job_runs}.
+ *
+ * Jobs catch and log their own exceptions, so they report outcome details through the static
+ * methods here; outside a recorded run (e.g. a job method called directly) these do nothing.
+ */
+public final class JobRunContext {
+
+    private static final ThreadLocal<JobRunContext> CURRENT = new ThreadLocal<>();
+
+    private final Long runId;
+    private final boolean manual;
+    private boolean started;
+    private long affectedRows;
+    private boolean affectedRowsReported;
+    private Exception failure;
+
+    private JobRunContext(Long runId, boolean manual) {
+        this.runId = runId;
+        this.manual = manual;
+    }
+
+    /**
+     * Adds to the number of rows (or keys, emails ...) the current run changed.
+     */
+    public static void addAffectedRows(long rows) {
+        JobRunContext context = CURRENT.get();
+        if (context != null) {
+            context.affectedRows += rows;
+            context.affectedRowsReported = true;
+        }
+    }
+
+    /**
+     * Marks the current run as failed after the job handled the exception itself.
+     */
+    public static void recordFailure(Exception e) {
+        JobRunContext context = CURRENT.get();
+        if (context != null && context.failure == null) {
+            context.failure = e;
+        }
+    }
+
+    /**
+     * True while a manually triggered run executes on this thread.
+     */
+    public static boolean isManualTrigger() {
+        JobRunContext context = CURRENT.get();
+        return context != null && context.manual;
+    }
+
+    /**
+     * Binds an already inserted (QUEUED) manual run to this thread, before the job is invoked.
+     */
+    public static void bindManual(long runId) {
+        CURRENT.set(new JobRunContext(runId, true));
+    }
+
+    /**
+     * Claims the context for a starting run: the bound manual run, or a new scheduled run.
+     *
+     * @return null if a run is already being recorded on this thread (nested job call)
+     */
+    public static JobRunContext begin() {
+        JobRunContext context = CURRENT.get();
+        if (context == null) {
+            context = new JobRunContext(null, false);
+            CURRENT.set(context);
+        } else if (context.started) {
+            return null;
+        }
+        context.started = true;
+        return context;
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public boolean isManual() {
+        return manual;
+    }
+
+    public Long getAffectedRows() {
+        return affectedRowsReported ? affectedRows : null;
+    }
+
+    public Exception getFailure() {
+        return failure;
+    }
+}
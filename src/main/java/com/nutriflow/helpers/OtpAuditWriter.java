@@ -0,0 +1,153 @@
+package com.nutriflow.helpers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes the {@code otps} audit trail in the background.
+ *
+ * Redis is the source of truth for OTPs; this table is only a history of issued and used codes.
+ * Events are buffered in a bounded queue and flushed in JDBC batches, so registration and
+ * verification never wait for Postgres. If the queue is full the event is dropped and counted.
+ */
+@Component
+@Slf4j
+public class OtpAuditWriter {
+
+    private static final String SUPERSEDE_SQL =
+            "UPDATE otps SET is_used = true, updated_at = ? WHERE email = ? AND is_used = false";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO otps (code, email, expires_at, is_used, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String MARK_USED_SQL =
+            "UPDATE otps SET is_used = true, updated_at = ? WHERE email = ? AND code = ? AND is_used = false";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AuditEvent> queue;
+    private final Counter droppedCounter;
+
+    @Value("${nutriflow.otp.audit.batch-size:500}")
+    private int batchSize;
+
+    public OtpAuditWriter(DataSource dataSource,
+                          MeterRegistry meterRegistry,
+                          @Value("${nutriflow.otp.audit.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.droppedCounter = Counter.builder("nutriflow.otp.audit.dropped").register(meterRegistry);
+        Gauge.builder("nutriflow.otp.audit.queue", queue, Collection::size).register(meterRegistry);
+    }
+
+    public void recordIssued(String email, String code, LocalDateTime expiresAt) {
+        enqueue(new AuditEvent(EventType.ISSUED, email, code, expiresAt, LocalDateTime.now()));
+    }
+
+    public void recordUsed(String email, String code) {
+        enqueue(new AuditEvent(EventType.USED, email, code, null, LocalDateTime.now()));
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (!queue.offer(event)) {
+            droppedCounter.increment();
+            log.warn("OTP audit queue full, event dropped: type={}, email={}", event.getType(), event.getEmail());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${nutriflow.otp.audit.flush-interval-ms:2000}")
+    public void flush() {
+        List<AuditEvent> batch = new ArrayList<>();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                writeBatch(batch);
+            } catch (Exception e) {
+                // Audit rows are best effort; the OTP itself already lives in Redis
+                log.error("OTP audit batch failed, {} events lost: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Applies one drained batch with three statements: supersede older codes of every email that got a
+     * new one, insert the new codes, then mark used codes. Codes issued and superseded or used within
+     * the same batch are inserted with their final state.
+     */
+    private void writeBatch(List<AuditEvent> batch) {
+        Map<String, AuditEvent> latestIssued = new HashMap<>();
+        Set<String> usedInBatch = new HashSet<>();
+        List<AuditEvent> issued = new ArrayList<>();
+        List<AuditEvent> used = new ArrayList<>();
+
+        for (AuditEvent event : batch) {
+            if (event.getType() == EventType.ISSUED) {
+                latestIssued.put(event.getEmail(), event);
+                issued.add(event);
+            } else {
+                usedInBatch.add(event.getEmail() + ':' + event.getCode());
+                used.add(event);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        if (!latestIssued.isEmpty()) {
+            List<Object[]> supersede = new ArrayList<>(latestIssued.size());
+            latestIssued.keySet().forEach(email -> supersede.add(new Object[]{now, email}));
+            jdbcTemplate.batchUpdate(SUPERSEDE_SQL, supersede);
+
+            List<Object[]> inserts = new ArrayList<>(issued.size());
+            for (AuditEvent event : issued) {
+                boolean isUsed = latestIssued.get(event.getEmail()) != event
+                        || usedInBatch.contains(event.getEmail() + ':' + event.getCode());
+                Timestamp createdAt = Timestamp.valueOf(event.getOccurredAt());
+                inserts.add(new Object[]{event.getCode(), event.getEmail(),
+                        Timestamp.valueOf(event.getExpiresAt()), isUsed, createdAt, createdAt});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+
+        if (!used.isEmpty()) {
+            List<Object[]> updates = new ArrayList<>(used.size());
+            used.forEach(event -> updates.add(new Object[]{now, event.getEmail(), event.getCode()}));
+            jdbcTemplate.batchUpdate(MARK_USED_SQL, updates);
+        }
+
+        log.debug("OTP audit batch written: issued={}, used={}", issued.size(), used.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private enum EventType {
+        ISSUED, USED
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class AuditEvent {
+        private final EventType type;
+        private final String email;
+        private final String code;
+        private final LocalDateTime expiresAt;
+        private final LocalDateTime occurredAt;
+    }
+}
@@ -1,88 +1,115 @@
 package com.nutriflow.helpers;
 
-import com.nutriflow.entities.OtpEntity;
+import com.nutriflow.constants.AuthMessages;
 import com.nutriflow.exceptions.InvalidOtpException;
-import com.nutriflow.repositories.OtpRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Helper class for OTP operations.
  * OTP generation, saving, validation and cleanup logic.
+ *
+ * Redis is the source of truth: every OTP is a hash {code, attempts} with a TTL.
+ * The {@code otps} table is only an audit trail, written in the background by {@link OtpAuditWriter}.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class OtpHelper {
 
-    private final OtpRepository otpRepository;
+    private static final String FIELD_CODE = "code";
+    private static final String FIELD_ATTEMPTS = "attempts";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private final RedisTemplate<String, String> redisTemplate;
+    private final OtpAuditWriter otpAuditWriter;
+    private final RedisStatsRecorder redisStatsRecorder;
+    private final RedisScript<Long> verifyScript;
 
     private static final int OTP_EXPIRY_MINUTES = 5;
 
+    @Value("${nutriflow.otp.max-attempts:5}")
+    private int maxAttempts;
+
+    public OtpHelper(RedisTemplate<String, String> redisTemplate,
+                     OtpAuditWriter otpAuditWriter,
+                     RedisStatsRecorder redisStatsRecorder) {
+        this.redisTemplate = redisTemplate;
+        this.otpAuditWriter = otpAuditWriter;
+        this.redisStatsRecorder = redisStatsRecorder;
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/otp-verify.lua")));
+        script.setResultType(Long.class);
+        this.verifyScript = script;
+    }
+
     /**
      * Generates a secure 6-digit OTP.
      *
      * @return OTP string
      */
     public String generateOtp() {
-        SecureRandom random = new SecureRandom();
-        int code = 100000 + random.nextInt(900000);
+        int code = 100000 + RANDOM.nextInt(900000);
         return String.valueOf(code);
     }
 
     /**
-     * Creates a new OTP, saves it to Redis and DB.
-     * Invalidates any previous OTP for the same email.
+     * Creates a new OTP and replaces any previous OTP for the same email.
+     * The replace, attempt counter reset and TTL go to Redis as one pipelined MULTI/EXEC.
      *
      * @param email     User email
      * @param otpPrefix Redis key prefix
      * @return Generated OTP
      */
-    @Transactional
     public String createAndSaveOtp(String email, String otpPrefix) {
         log.info("Creating new OTP for: {}", email);
 
-        // 1. Köhnə OTP-ni Redis-dən sil
-        redisTemplate.delete(otpPrefix + email);
-
-        // 2. Köhnə OTP-ni DB-də used et
-        otpRepository.findLatestByEmail(email).ifPresent(otp -> {
-            otp.setUsed(true);
-            otpRepository.save(otp);
-            log.info("Old OTP marked as used: {}", email);
-        });
-
-        // 3. Yeni OTP yarat
         String otp = generateOtp();
-
-        // 4. Redis-ə yaz
-        redisTemplate.opsForValue().set(otpPrefix + email, otp, OTP_EXPIRY_MINUTES, TimeUnit.MINUTES);
+        String key = otpPrefix + email;
+        Map<String, String> fields = Map.of(FIELD_CODE, otp, FIELD_ATTEMPTS, "0");
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES);
+        long expiresAtMillis = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(OTP_EXPIRY_MINUTES);
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.multi();
+                ops.delete(key);
+                ops.opsForHash().putAll(key, fields);
+                ops.expire(key, OTP_EXPIRY_MINUTES, TimeUnit.MINUTES);
+                redisStatsRecorder.otpIssued(ops, email, expiresAtMillis);
+                ops.exec();
+                return null;
+            }
+        });
         log.info("OTP written to Redis (TTL={}min): {}", OTP_EXPIRY_MINUTES, email);
 
-        // 5. DB-yə yaz
-        OtpEntity otpEntity = OtpEntity.builder()
-                .email(email)
-                .code(otp)
-                .expiresAt(LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES))
-                .isUsed(false)
-                .build();
-        otpRepository.save(otpEntity);
-        log.info("OTP saved to DB: {}", email);
+        otpAuditWriter.recordIssued(email, otp, expiresAt);
 
         return otp;
     }
 
     /**
-     * Validates OTP from Redis.
-     * Throws exception if invalid or expired.
+     * Validates OTP from Redis and counts failed attempts.
+     * After {@code nutriflow.otp.max-attempts} failures the OTP is deleted and a new one must be requested.
      *
      * @param email     User email
      * @param otpCode   OTP entered by user
@@ -91,39 +118,58 @@ public class OtpHelper {
     public void validateOtp(String email, String otpCode, String otpPrefix) {
         log.info("Validating OTP for: {}", email);
 
-        String storedOtp = redisTemplate.opsForValue().get(otpPrefix + email);
+        Long result = redisTemplate.execute(verifyScript, List.of(otpPrefix + email),
+                String.valueOf(otpCode), String.valueOf(maxAttempts));
+        long status = result == null ? -2 : result;
 
-        if (storedOtp == null) {
+        if (status == -2) {
             log.warn("OTP not found in Redis (may have expired): {}", email);
-            throw new InvalidOtpException("Verification code is invalid or has expired.");
+            throw new InvalidOtpException(AuthMessages.INVALID_OTP);
         }
 
-        if (!storedOtp.equals(otpCode)) {
+        if (status == -1) {
+            log.warn("OTP attempt limit reached, code invalidated - Email: {}", email);
+            pipelined(ops -> redisStatsRecorder.otpLocked(ops, email));
+            throw new InvalidOtpException(AuthMessages.OTP_ATTEMPTS_EXCEEDED);
+        }
+
+        if (status == 0) {
             log.warn("Incorrect OTP entered - Email: {}", email);
-            throw new InvalidOtpException("Incorrect verification code.");
+            throw new InvalidOtpException(AuthMessages.WRONG_OTP);
         }
 
         log.info("OTP validated successfully: {}", email);
     }
 
     /**
-     * Marks OTP as used in DB and deletes from Redis.
+     * Deletes the OTP from Redis and records its use in the audit trail.
      *
      * @param email     User email
      * @param otpCode   OTP code
      * @param otpPrefix Redis key prefix
      */
-    @Transactional
     public void markOtpAsUsed(String email, String otpCode, String otpPrefix) {
-        // DB-də used et
-        otpRepository.findByEmailAndCode(email, otpCode).ifPresent(otp -> {
-            otp.setUsed(true);
-            otpRepository.save(otp);
-            log.info("OTP marked as used in DB: {}", email);
+        String key = otpPrefix + email;
+        pipelined(ops -> {
+            ops.delete(key);
+            redisStatsRecorder.otpVerified(ops, email);
         });
-
-        // Redis-dən sil
-        redisTemplate.delete(otpPrefix + email);
         log.info("OTP deleted from Redis: {}", email);
+
+        otpAuditWriter.recordUsed(email, otpCode);
+    }
+
+    /**
+     * Sends the given commands as one pipeline.
+     */
+    private void pipelined(Consumer<RedisOperations<String, String>> commands) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.nutriflow.helpers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed pool of daemon threads draining a database-backed queue.
+ *
+ * Every worker loops: process a batch, and sleep for the poll interval only when the batch came
+ * back short of a full one, or after a failure such as the database being unavailable. Batches are
+ * claimed with SKIP LOCKED by the caller, so workers on this and other nodes never overlap.
+ */
+@Slf4j
+public class PollingWorkerPool {
+
+    /**
+     * Processes one batch for the given worker.
+     */
+    @FunctionalInterface
+    public interface BatchProcessor {
+        /**
+         * @return Number of claimed items
+         */
+        int process(String workerId) throws Exception;
+    }
+
+    private final String threadPrefix;
+    private final String logTag;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final BatchProcessor processor;
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+
+    private volatile boolean running;
+    private ExecutorService pool;
+
+    /**
+     * @param threadPrefix Worker thread name prefix, e.g. mail-outbox
+     * @param logTag       Tag of the owning worker's log lines, e.g. OUTBOX
+     */
+    public PollingWorkerPool(String threadPrefix, String logTag, int workers, int batchSize, long pollIntervalMs,
+                             BatchProcessor processor) {
+        this.threadPrefix = threadPrefix;
+        this.logTag = logTag;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.processor = processor;
+    }
+
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, threadPrefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            pool.submit(this::runWorker);
+        }
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        if (pool != null) {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void runWorker() {
+        String workerId = instanceId + "/" + Thread.currentThread().getName();
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                if (processor.process(workerId) < batchSize) {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Database unavailable etc. - back off and try again
+                log.warn("❌ [{}] Worker {} failed: {}", logTag, workerId, e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
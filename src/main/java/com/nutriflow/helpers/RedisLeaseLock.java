@@ -0,0 +1,174 @@
+package com.nutriflow.helpers;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide lease lock in Redis.
+ *
+ * Layout (prefix = nutriflow.redis.prefix.lock):
+ *   &lt;name&gt;            holder value "&lt;fencing token&gt;:&lt;instance id&gt;", with the lease as TTL
+ *   fence:&lt;name&gt;      INCR counter; every acquisition gets a strictly larger fencing token
+ *   last-run:&lt;name&gt;   marker of the last successful run, used for run-once windows
+ *
+ * A lease is renewed in the background every third of its length while its holder runs. If a
+ * renewal fails the lease is marked lost; long jobs call {@link #checkCurrentLease()} between
+ * steps so a stalled holder stops before doing work a newer holder may already be doing. That
+ * check is only as current as the last renewal, so database writes are additionally fenced with
+ * the token by {@link JobFence}.
+ */
+@Component
+@Slf4j
+public class RedisLeaseLock {
+
+    private static final ThreadLocal<Lease> CURRENT_LEASE = new ThreadLocal<>();
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisScript<Long> renewScript;
+    private final RedisScript<Long> releaseScript;
+    private final ScheduledExecutorService renewalExecutor;
+    private final String instanceId;
+
+    @Value("${nutriflow.redis.prefix.lock:LOCK:}")
+    private String lockPrefix;
+
+    public RedisLeaseLock(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.renewScript = script("redis/lock-renew.lua");
+        this.releaseScript = script("redis/lock-release.lua");
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.renewalExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Tries to take the lease without waiting.
+     *
+     * @return the lease, or empty if another instance holds it
+     */
+    public Optional<Lease> tryAcquire(String name, Duration leaseTime) {
+        String key = lockPrefix + name;
+        Long fencingToken = redisTemplate.opsForValue().increment(lockPrefix + "fence:" + name);
+        String value = fencingToken + ":" + instanceId;
+
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, leaseTime))) {
+            return Optional.empty();
+        }
+
+        Lease lease = new Lease(name, key, value, fencingToken == null ? 0 : fencingToken);
+        long period = Math.max(leaseTime.toMillis() / 3, 1);
+        lease.renewal = renewalExecutor.scheduleAtFixedRate(() -> renew(lease, leaseTime), period, period, TimeUnit.MILLISECONDS);
+        CURRENT_LEASE.set(lease);
+
+        log.debug("Lease acquired: name={}, fencingToken={}", name, lease.getFencingToken());
+        return Optional.of(lease);
+    }
+
+    public void release(Lease lease) {
+        CURRENT_LEASE.remove();
+        lease.renewal.cancel(false);
+        try {
+            Long released = redisTemplate.execute(releaseScript, List.of(lease.key), lease.value);
+            if (released == null || released == 0) {
+                log.warn("Lease {} (fencingToken={}) had already expired when released", lease.getName(), lease.getFencingToken());
+            }
+        } catch (Exception e) {
+            // The lease expires on its own
+            log.warn("Could not release lease {}: {}", lease.getName(), e.getMessage());
+        }
+    }
+
+    public boolean hasRunWithin(String name) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(lockPrefix + "last-run:" + name));
+    }
+
+    public void markRun(String name, Duration window) {
+        redisTemplate.opsForValue().set(lockPrefix + "last-run:" + name, instanceId, window);
+    }
+
+    /**
+     * @return Lease held by the calling thread, or null outside a lease
+     */
+    public static Lease currentLease() {
+        return CURRENT_LEASE.get();
+    }
+
+    /**
+     * Fails fast if the calling thread runs under a lease that has been lost.
+     * Does nothing outside a lease (manual or single-instance calls).
+     */
+    public static void checkCurrentLease() {
+        Lease lease = CURRENT_LEASE.get();
+        if (lease != null && lease.lost) {
+            throw new IllegalStateException("Lease " + lease.getName() + " (fencingToken=" + lease.getFencingToken()
+                    + ") was lost, stopping");
+        }
+    }
+
+    private void renew(Lease lease, Duration leaseTime) {
+        try {
+            Long renewed = redisTemplate.execute(renewScript, List.of(lease.key), lease.value,
+                    String.valueOf(leaseTime.toMillis()));
+            if (renewed == null || renewed == 0) {
+                lease.lost = true;
+                lease.renewal.cancel(false);
+                log.error("Lease {} (fencingToken={}) lost: it expired or was taken over", lease.getName(), lease.getFencingToken());
+            }
+        } catch (Exception e) {
+            // Keep trying until the lease runs out; the next successful renewal restores it
+            log.warn("Lease {} renewal failed: {}", lease.getName(), e.getMessage());
+        }
+    }
+
+    private static RedisScript<Long> script(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewalExecutor.shutdownNow();
+    }
+
+    public static class Lease {
+        @Getter
+        private final String name;
+        private final String key;
+        private final String value;
+        @Getter
+        private final long fencingToken;
+        @Getter
+        private volatile boolean lost;
+        private volatile ScheduledFuture<?> renewal;
+
+        private Lease(String name, String key, String value, long fencingToken) {
+            this.name = name;
+            this.key = key;
+            this.value = value;
+            this.fencingToken = fencingToken;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.nutriflow.helpers;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the Redis keyspace counters read by the statistics endpoint.
+ *
+ * The methods only queue commands on the operations they are given, so callers add them to a
+ * pipeline or MULTI they already send; recording a statistic never costs an extra round trip.
+ *
+ * Layout (prefix = nutriflow.redis.prefix.stats):
+ *   otp:live / rt:live        sorted sets, member = email / family id, score = expiry in epoch millis
+ *   &lt;counter&gt;:&lt;yyyy-MM-dd&gt;    daily INCR counters, kept for {@value #DAILY_RETENTION_DAYS} days
+ *   otp:emails:&lt;yyyy-MM-dd&gt;   HyperLogLog of distinct emails that requested an OTP
+ */
+@Component
+public class RedisStatsRecorder {
+
+    public static final String LIVE_OTPS = "otp:live";
+    public static final String LIVE_FAMILIES = "rt:live";
+    public static final String OTP_ISSUED = "otp:issued";
+    public static final String OTP_VERIFIED = "otp:verified";
+    public static final String OTP_LOCKED = "otp:locked";
+    public static final String OTP_EMAILS = "otp:emails";
+    public static final String FAMILIES_CREATED = "rt:created";
+    public static final String TOKEN_REUSE = "rt:reuse";
+
+    private static final int DAILY_RETENTION_DAYS = 8;
+
+    @Value("${nutriflow.redis.prefix.stats:STATS:}")
+    private String statsPrefix;
+
+    public void otpIssued(RedisOperations<String, String> ops, String email, long expiresAtMillis) {
+        ops.opsForZSet().add(key(LIVE_OTPS), email, expiresAtMillis);
+        increment(ops, OTP_ISSUED);
+        String emailsKey = dailyKey(OTP_EMAILS, LocalDate.now());
+        ops.opsForHyperLogLog().add(emailsKey, email);
+        ops.expire(emailsKey, DAILY_RETENTION_DAYS, TimeUnit.DAYS);
+    }
+
+    public void otpVerified(RedisOperations<String, String> ops, String email) {
+        ops.opsForZSet().remove(key(LIVE_OTPS), email);
+        increment(ops, OTP_VERIFIED);
+    }
+
+    public void otpLocked(RedisOperations<String, String> ops, String email) {
+        ops.opsForZSet().remove(key(LIVE_OTPS), email);
+        increment(ops, OTP_LOCKED);
+    }
+
+    public void familyCreated(RedisOperations<String, String> ops, String familyId, long expiresAtMillis) {
+        ops.opsForZSet().add(key(LIVE_FAMILIES), familyId, expiresAtMillis);
+        increment(ops, FAMILIES_CREATED);
+    }
+
+    public void familiesRevoked(RedisOperations<String, String> ops, Object... familyIds) {
+        if (familyIds.length > 0) {
+            ops.opsForZSet().remove(key(LIVE_FAMILIES), familyIds);
+        }
+    }
+
+    public void tokenReuse(RedisOperations<String, String> ops, String familyId) {
+        familiesRevoked(ops, familyId);
+        increment(ops, TOKEN_REUSE);
+    }
+
+    public String key(String name) {
+        return statsPrefix + name;
+    }
+
+    public String dailyKey(String name, LocalDate date) {
+        return statsPrefix + name + ":" + date;
+    }
+
+    private void increment(RedisOperations<String, String> ops, String counter) {
+        String key = dailyKey(counter, LocalDate.now());
+        ops.opsForValue().increment(key);
+        ops.expire(key, DAILY_RETENTION_DAYS, TimeUnit.DAYS);
+    }
+}
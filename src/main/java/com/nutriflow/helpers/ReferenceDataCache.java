@@ -0,0 +1,62 @@
+package com.nutriflow.helpers;
+
+import com.nutriflow.dto.response.DietitianProfileResponse;
+import com.nutriflow.events.AccountChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.function.Supplier;
+
+/**
+ * Two-level caches for hot reference reads. Values are read-only snapshots, never JPA entities, so a
+ * hit costs no database round trip; callers that change data load the entity themselves.
+ *
+ *   dietitian-profiles  email -> profile of the dietitian with that email
+ *   active-caterer      id of the caterer assigned to new subscriptions, used through a reference
+ *                       (getReferenceById), which needs no query either
+ */
+@Component
+public class ReferenceDataCache {
+
+    private static final String ACTIVE_CATERER_KEY = "current";
+
+    private final TwoLevelCacheManager.TwoLevelCache<DietitianProfileResponse> dietitianProfiles;
+    private final TwoLevelCacheManager.TwoLevelCache<Long> activeCaterer;
+
+    public ReferenceDataCache(TwoLevelCacheManager cacheManager) {
+        this.dietitianProfiles = cacheManager.create("dietitian-profiles", DietitianProfileResponse.class);
+        this.activeCaterer = cacheManager.create("active-caterer", Long.class);
+    }
+
+    public DietitianProfileResponse dietitianProfile(String email, Supplier<DietitianProfileResponse> loader) {
+        return dietitianProfiles.get(email, loader);
+    }
+
+    public void evictDietitianProfile(String email) {
+        dietitianProfiles.evict(email);
+    }
+
+    public Long activeCatererId(Supplier<Long> loader) {
+        return activeCaterer.get(ACTIVE_CATERER_KEY, loader);
+    }
+
+    public void evictActiveCaterer() {
+        activeCaterer.evict(ACTIVE_CATERER_KEY);
+    }
+
+    /**
+     * Every change to a dietitian account (profile, email, status, deletion) drops its profile; a
+     * deactivated or deleted caterer may be the one handed to new subscriptions.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        AccountChangedEvent.Reason reason = event.getReason();
+        if (reason != AccountChangedEvent.Reason.PASSWORD_CHANGED) {
+            evictDietitianProfile(event.getEmail());
+        }
+        if (reason == AccountChangedEvent.Reason.DEACTIVATED || reason == AccountChangedEvent.Reason.DELETED) {
+            evictActiveCaterer();
+        }
+    }
+}
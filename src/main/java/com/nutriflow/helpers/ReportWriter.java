@@ -0,0 +1,28 @@
+package com.nutriflow.helpers;
+
+import com.nutriflow.enums.ReportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Row-by-row report output. Implementations keep at most a bounded window of rows in memory.
+ * {@link #close()} finishes the document but leaves the target stream open.
+ */
+public interface ReportWriter extends AutoCloseable {
+
+    void writeHeader(List<String> columns) throws IOException;
+
+    void writeRow(Object[] values) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static ReportWriter open(ReportFormat format, OutputStream out) {
+        return switch (format) {
+            case CSV -> new CsvReportWriter(out);
+            case XLSX -> new XlsxReportWriter(out);
+        };
+    }
+}
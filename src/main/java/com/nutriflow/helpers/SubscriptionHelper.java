@@ -4,6 +4,7 @@ import com.nutriflow.entities.*;
 import com.nutriflow.enums.CatererStatus;
 import com.nutriflow.enums.SubscriptionStatus;
 import com.nutriflow.enums.UserStatus;
+import com.nutriflow.events.AccountChangedEvent;
 import com.nutriflow.exceptions.ResourceNotAvailableException;
 import com.nutriflow.repositories.CatererRepository;
 import com.nutriflow.repositories.DietitianRepository;
@@ -12,6 +13,7 @@ import com.nutriflow.repositories.UserRepository;
 import com.nutriflow.utils.DateUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +34,8 @@ public class SubscriptionHelper {
     private final DietitianRepository dietitianRepository;
     private final CatererRepository catererRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * Creates a new subscription for a user.
@@ -43,7 +47,7 @@ public class SubscriptionHelper {
      * @return Created subscription
      */
     @Transactional
-    public SubscriptionEntity createSubscription(UserEntity user, String planName, Double price, int durationMonths) {
+    public SubscriptionEntity createSubscription(UserEntity user, String planName, Money price, int durationMonths) {
         log.info("Creating new subscription: UserId={}, Plan={}, Price={}", user.getId(), planName, price);
 
         // Check if user already has a subscription
@@ -106,13 +110,19 @@ public class SubscriptionHelper {
     public CatererEntity assignCaterer(UserEntity user) {
         log.info("Assigning caterer for user: UserId={}", user.getId());
 
-        CatererEntity caterer = catererRepository.findFirstByStatus(CatererStatus.ACTIVE)
-                .orElseThrow(() -> new ResourceNotAvailableException("No active caterer found"));
+        Long catererId = referenceDataCache.activeCatererId(() -> catererRepository.findFirstByStatus(CatererStatus.ACTIVE)
+                .map(CatererEntity::getId)
+                .orElse(null));
+        if (catererId == null) {
+            throw new ResourceNotAvailableException("No active caterer found");
+        }
 
+        // Only the foreign key is needed, a reference avoids loading the caterer row
+        CatererEntity caterer = catererRepository.getReferenceById(catererId);
         user.setCaterer(caterer);
         userRepository.save(user);
 
-        log.info("Caterer assigned: CatererId={}, Name={}", caterer.getId(), caterer.getName());
+        log.info("Caterer assigned: CatererId={}", catererId);
 
         return caterer;
     }
@@ -127,7 +137,7 @@ public class SubscriptionHelper {
      * @param durationMonths  Duration
      */
     @Transactional
-    public SubscriptionEntity finalizeSubscriptionWithResources(UserEntity user, String planName, Double price, int durationMonths) {
+    public SubscriptionEntity finalizeSubscriptionWithResources(UserEntity user, String planName, Money price, int durationMonths) {
         log.info("========== SUBSCRIPTION FINALIZATION STARTED ==========");
         log.info("UserId: {}, Plan: {}, Price: {}", user.getId(), planName, price);
 
@@ -146,6 +156,7 @@ public class SubscriptionHelper {
             user.setSubscription(subscription); // <-- This line is critical!
 
             userRepository.save(user);
+            eventPublisher.publishEvent(new AccountChangedEvent(user.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
             log.info("========== SUBSCRIPTION FINALIZATION COMPLETED ==========");
             log.info("SubscriptionId: {}, DietitianId: {}, CatererId: {}",
@@ -171,6 +182,7 @@ public class SubscriptionHelper {
 
         user.setStatus(UserStatus.EXPIRED);
         userRepository.save(user);
+        eventPublisher.publishEvent(new AccountChangedEvent(user.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         log.info("Subscription cancelled and user transitioned to EXPIRED status");
     }
@@ -198,6 +210,7 @@ public class SubscriptionHelper {
 
         user.setStatus(UserStatus.ACTIVE);
         userRepository.save(user);
+        eventPublisher.publishEvent(new AccountChangedEvent(user.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         log.info("Subscription renewed. New EndDate: {}", newEndDate);
     }
@@ -0,0 +1,174 @@
+package com.nutriflow.helpers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nutriflow.config.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Creates two-level caches: a bounded Caffeine cache per node (L1) in front of Redis (L2).
+ *
+ * Evicting a key deletes it from Redis and publishes "&lt;cache&gt;|&lt;key&gt;" on the invalidation
+ * channel; every node, including the sender, drops the key from its L1. Redis being unavailable
+ * only turns L2 into a miss, reads then fall through to the loader.
+ *
+ * Values must be immutable snapshots (ids, DTOs), never JPA entities: they are shared between
+ * requests and serialized to JSON for Redis.
+ */
+@Component
+@Slf4j
+public class TwoLevelCacheManager implements MessageListener {
+
+    private static final char SEPARATOR = '|';
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final CacheProperties properties;
+    private final Map<String, TwoLevelCache<?>> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisTemplate<String, String> redisTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                CacheProperties properties,
+                                RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        listenerContainer.addMessageListener(this, new ChannelTopic(properties.getInvalidationChannel()));
+    }
+
+    public <V> TwoLevelCache<V> create(String name, Class<V> type) {
+        CacheProperties.Spec spec = properties.spec(name);
+        Cache<String, V> local = Caffeine.newBuilder()
+                .maximumSize(spec.getMaxSize())
+                .expireAfterWrite(spec.getLocalTtl())
+                .recordStats()
+                .build();
+        // L1: cache.gets{result=hit|miss}, cache.evictions, cache.size under cache=<name>
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name);
+
+        TwoLevelCache<V> cache = new TwoLevelCache<>(name, type, local, spec);
+        caches.put(name, cache);
+        log.info("Two-level cache initialized: name={}, maxSize={}, localTtl={}, redisTtl={}",
+                name, spec.getMaxSize(), spec.getLocalTtl(), spec.getRedisTtl());
+        return cache;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return;
+        }
+        TwoLevelCache<?> cache = caches.get(body.substring(0, separator));
+        if (cache != null) {
+            cache.local.invalidate(body.substring(separator + 1));
+        }
+    }
+
+    public class TwoLevelCache<V> {
+
+        private final String name;
+        private final Class<V> type;
+        private final Cache<String, V> local;
+        private final CacheProperties.Spec spec;
+        private final Counter redisHits;
+        private final Counter redisMisses;
+
+        private TwoLevelCache(String name, Class<V> type, Cache<String, V> local, CacheProperties.Spec spec) {
+            this.name = name;
+            this.type = type;
+            this.local = local;
+            this.spec = spec;
+            this.redisHits = Counter.builder("nutriflow.cache.redis").tag("cache", name).tag("result", "hit")
+                    .register(meterRegistry);
+            this.redisMisses = Counter.builder("nutriflow.cache.redis").tag("cache", name).tag("result", "miss")
+                    .register(meterRegistry);
+        }
+
+        /**
+         * @param loader Database lookup used when both levels miss; a null result is not cached
+         * @return Cached or freshly loaded value, or null
+         */
+        public V get(String key, Supplier<V> loader) {
+            if (!properties.isEnabled()) {
+                return loader.get();
+            }
+
+            V value = local.getIfPresent(key);
+            if (value != null) {
+                return value;
+            }
+
+            value = readRedis(key);
+            if (value != null) {
+                redisHits.increment();
+                local.put(key, value);
+                return value;
+            }
+            redisMisses.increment();
+
+            value = loader.get();
+            if (value != null) {
+                local.put(key, value);
+                writeRedis(key, value);
+            }
+            return value;
+        }
+
+        /**
+         * Drops the key on every node. Call after the change has committed, otherwise another node
+         * can reload the old row in between.
+         */
+        public void evict(String key) {
+            local.invalidate(key);
+            try {
+                redisTemplate.delete(redisKey(key));
+                redisTemplate.convertAndSend(properties.getInvalidationChannel(), name + SEPARATOR + key);
+            } catch (Exception e) {
+                // Other nodes fall back to their local TTL
+                log.warn("Cache invalidation not broadcast: cache={}, key={}, error={}", name, key, e.getMessage());
+            }
+        }
+
+        private V readRedis(String key) {
+            try {
+                String json = redisTemplate.opsForValue().get(redisKey(key));
+                return json == null ? null : objectMapper.readValue(json, type);
+            } catch (Exception e) {
+                log.debug("Redis cache read failed: cache={}, key={}, error={}", name, key, e.getMessage());
+                return null;
+            }
+        }
+
+        private void writeRedis(String key, V value) {
+            try {
+                redisTemplate.opsForValue().set(redisKey(key), objectMapper.writeValueAsString(value), spec.getRedisTtl());
+            } catch (Exception e) {
+                log.debug("Redis cache write failed: cache={}, key={}, error={}", name, key, e.getMessage());
+            }
+        }
+
+        private String redisKey(String key) {
+            return properties.getKeyPrefix() + name + ":" + key;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.nutriflow.utils.LoggingUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Map;
 
@@ -137,8 +138,8 @@ public class AdminMapper {
 
         return PaymentAdminResponse.builder()
                 .id(payment.getId())
-                .amount(payment.getAmount())
-                .currency("AZN")
+                .amount(payment.getAmount() != null ? payment.getAmount().toMajor() : null)
+                .currency(payment.getAmount() != null ? payment.getAmount().getCurrency() : null)
                 .status(payment.getStatus() != null ? payment.getStatus().name() : null)
                 .paymentDate(payment.getPaymentDate())
                 .transactionId(payment.getTransactionRef())
@@ -282,7 +283,7 @@ public class AdminMapper {
             long totalDietitians,
             long totalCaterers,
             long activeSubscriptions,
-            Double totalRevenue,
+            BigDecimal totalRevenue,
             long totalDeliveries,
             long successfulDeliveries,
             long failedDeliveries,
@@ -290,7 +291,7 @@ public class AdminMapper {
             long approvedMenus,
             long rejectedMenus,
             long newUsersThisMonth,
-            Map<String, Double> chartData) {
+            Map<String, BigDecimal> chartData) {
 
         return AdminDashboardResponse.builder()
                 .totalUsers(totalUsers)
@@ -319,8 +320,8 @@ public class AdminMapper {
     /**
      * Formats newData (main results) for dashboard logs.
      */
-    public String formatDashboardResultLog(Double revenue, long userCount) {
-        return String.format("Revenue: %.2f AZN, Users: %d", revenue, userCount);
+    public String formatDashboardResultLog(Money revenue, long userCount) {
+        return String.format("Revenue: %s, Users: %d", revenue, userCount);
     }
 
     public String formatUserAssignmentOldData(UserEntity user) {
@@ -187,13 +187,14 @@ public class UserMapper {
                 .email(user.getEmail())
                 .userStatus(user.getStatus())
                 .planName(subscription.getPlanName())
-                .price(subscription.getPrice())
+                .price(subscription.getPrice() != null ? subscription.getPrice().toMajor() : null)
                 .status(subscription.getStatus())
                 .startDate(subscription.getStartDate())
                 .endDate(endDate)
                 .daysRemaining(daysRemaining)
                 .monthsRemaining(monthsRemaining)
                 .isActive(isActive)
+                .autoRenew(subscription.isAutoRenew())
                 .build();
     }
 
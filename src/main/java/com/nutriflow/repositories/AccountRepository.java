@@ -0,0 +1,18 @@
+package com.nutriflow.repositories;
+
+import com.nutriflow.entities.AccountEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AccountRepository extends JpaRepository<AccountEntity, String> {
+
+    /**
+     * Resolves an email across all account tables in one indexed lookup
+     */
+    Optional<AccountEntity> findFirstByEmailOrderByPriorityAsc(String email);
+
+    boolean existsByEmail(String email);
+}
@@ -5,6 +5,9 @@ import com.nutriflow.enums.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -26,4 +29,11 @@ public interface AdminRepository extends JpaRepository<AdminEntity, Long> {
     List<AdminEntity> findAllByRole(Role role);
 
     Page<AdminEntity> findAllByIsSuperAdminFalse(Pageable pageable);
+
+    /**
+     * Single-statement password update used by password reset
+     */
+    @Modifying
+    @Query("UPDATE AdminEntity e SET e.password = :password, e.updatedAt = CURRENT_TIMESTAMP WHERE e.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
@@ -5,6 +5,9 @@ import com.nutriflow.enums.CatererStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -17,4 +20,11 @@ public interface CatererRepository extends JpaRepository<CatererEntity, Long> {
     boolean existsByEmail(String email);
     // Search by company name
     Page<CatererEntity> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    /**
+     * Single-statement password update used by password reset
+     */
+    @Modifying
+    @Query("UPDATE CatererEntity e SET e.password = :password, e.updatedAt = CURRENT_TIMESTAMP WHERE e.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
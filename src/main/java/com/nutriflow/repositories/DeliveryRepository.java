@@ -4,11 +4,9 @@ import com.nutriflow.entities.DeliveryEntity;
 import com.nutriflow.entities.MenuBatchEntity;
 import com.nutriflow.enums.DeliveryStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Date;
@@ -50,11 +48,6 @@ public interface DeliveryRepository extends JpaRepository<DeliveryEntity, Long>
     // Full delivery history for a user
     List<DeliveryEntity> findAllByUserId(Long userId);
 
-    @Modifying
-    @Transactional
-    @Query("DELETE FROM DeliveryEntity d WHERE d.date < :oneYearAgo")
-    int deleteOldDeliveries(@Param("oneYearAgo") LocalDate oneYearAgo);
-
     boolean existsByUserIdAndBatchIdAndDate(Long userId, Long batchId, LocalDate date);
     List<DeliveryEntity> findByUserIdAndStatus(Long userId, DeliveryStatus status);
     List<DeliveryEntity> findAllByBatchId(Long batchId);
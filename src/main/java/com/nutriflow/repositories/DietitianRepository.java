@@ -4,6 +4,7 @@ import com.nutriflow.entities.DietitianEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -30,4 +31,11 @@ public interface DietitianRepository extends JpaRepository<DietitianEntity, Long
             "LOWER(d.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(d.specialization) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<DietitianEntity> searchDietitians(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Single-statement password update used by password reset
+     */
+    @Modifying
+    @Query("UPDATE DietitianEntity e SET e.password = :password, e.updatedAt = CURRENT_TIMESTAMP WHERE e.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
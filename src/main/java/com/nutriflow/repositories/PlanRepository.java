@@ -0,0 +1,14 @@
+package com.nutriflow.repositories;
+
+import com.nutriflow.entities.PlanEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PlanRepository extends JpaRepository<PlanEntity, Long> {
+    Optional<PlanEntity> findByCode(String code);
+
+    Optional<PlanEntity> findByCodeAndActiveTrue(String code); // Plans offered at checkout
+}
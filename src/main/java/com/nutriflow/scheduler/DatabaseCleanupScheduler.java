@@ -1,8 +1,14 @@
 package com.nutriflow.scheduler;
 
+import com.nutriflow.aspect.ClusterLocked;
+import com.nutriflow.helpers.JobRunContext;
 import com.nutriflow.repositories.DeliveryRepository;
+import com.nutriflow.services.DeliveryArchiveService;
+import com.nutriflow.services.EmailOutboxService;
+import com.nutriflow.services.StripeEventService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,23 +23,37 @@ import java.time.LocalDateTime;
 public class DatabaseCleanupScheduler {
 
     private final DeliveryRepository deliveryRepository;
+    private final DeliveryArchiveService deliveryArchiveService;
+    private final EmailOutboxService emailOutboxService;
+    private final StripeEventService stripeEventService;
+
+    @Value("${nutriflow.mail.outbox.retention-days:14}")
+    private int outboxRetentionDays;
+
+    @Value("${nutriflow.stripe.events.retention-days:30}")
+    private int stripeEventRetentionDays;
 
     /**
-     * Deletes old delivery records
+     * Archives and then deletes old delivery records
      *
      * Schedule: On the 1st of every month at 03:00
-     * Deletes: Delivery records older than 1 year
+     * Archives: Delivery records older than 1 year, one compressed file per month
+     * Deletes: Only rows whose archive file was written and verified, in bounded chunks
+     *
+     * NOTE: Not @Transactional on purpose - the archive cursor and every delete chunk
+     * run in their own short transactions.
      */
     @Scheduled(cron = "0 0 3 1 * ?")
-    @Transactional
+    @ClusterLocked(name = "delivery-archive", leaseSeconds = 300, runOnceWithinSeconds = 3600)
     public void cleanupOldDeliveries() {
         LocalDate oneYearAgo = LocalDate.now().minusYears(1);
         LocalDateTime startTime = LocalDateTime.now();
 
-        log.info("🗑️ [CLEANUP] Old delivery cleanup started | Cutoff date: {}", oneYearAgo);
+        log.info("🗑️ [CLEANUP] Old delivery archive + cleanup started | Cutoff date: {}", oneYearAgo);
 
         try {
-            int deletedCount = deliveryRepository.deleteOldDeliveries(oneYearAgo);
+            int deletedCount = deliveryArchiveService.archiveAndPurge(oneYearAgo);
+            JobRunContext.addAffectedRows(deletedCount);
 
             long durationMs = java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
 
@@ -41,11 +61,59 @@ public class DatabaseCleanupScheduler {
                     deletedCount, durationMs);
 
         } catch (Exception e) {
+            JobRunContext.recordFailure(e);
             log.error("❌ [CLEANUP] Error occurred during cleanup: {}", e.getMessage(), e);
             // TODO: Send notification to admin
         }
     }
 
+    /**
+     * Deletes delivered outbox emails
+     *
+     * Schedule: Every day at 03:30
+     * Deletes: SENT rows older than nutriflow.mail.outbox.retention-days; FAILED rows are kept for inspection
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    @ClusterLocked(name = "email-outbox-purge", runOnceWithinSeconds = 3600)
+    public void purgeSentEmails() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(outboxRetentionDays);
+
+        try {
+            int deletedCount = emailOutboxService.purgeSent(cutoff);
+            JobRunContext.addAffectedRows(deletedCount);
+
+            log.info("✅ [CLEANUP] Outbox cleanup completed | Deleted emails: {} | Cutoff: {}", deletedCount, cutoff);
+
+        } catch (Exception e) {
+            JobRunContext.recordFailure(e);
+            log.error("❌ [CLEANUP] Error occurred during outbox cleanup: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes processed Stripe webhook events
+     *
+     * Schedule: Every day at 03:45
+     * Deletes: PROCESSED rows older than nutriflow.stripe.events.retention-days, well past Stripe's
+     * 3-day redelivery window; FAILED rows are kept for replay
+     */
+    @Scheduled(cron = "0 45 3 * * ?")
+    @ClusterLocked(name = "stripe-events-purge", runOnceWithinSeconds = 3600)
+    public void purgeProcessedStripeEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(stripeEventRetentionDays);
+
+        try {
+            int deletedCount = stripeEventService.purgeProcessed(cutoff);
+            JobRunContext.addAffectedRows(deletedCount);
+
+            log.info("✅ [CLEANUP] Stripe event cleanup completed | Deleted events: {} | Cutoff: {}", deletedCount, cutoff);
+
+        } catch (Exception e) {
+            JobRunContext.recordFailure(e);
+            log.error("❌ [CLEANUP] Error occurred during Stripe event cleanup: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Logs database statistics (for monitoring)
      *
@@ -53,6 +121,7 @@ public class DatabaseCleanupScheduler {
      */
     @Scheduled(cron = "0 0 2 * * ?")
     @Transactional(readOnly = true)
+    @ClusterLocked(name = "database-stats", runOnceWithinSeconds = 3600)
     public void logDatabaseStatistics() {
         log.info("📊 [STATS] Checking database statistics...");
 
@@ -63,6 +132,7 @@ public class DatabaseCleanupScheduler {
             log.info("📊 [STATS] Total Deliveries: {}", totalDeliveries);
 
         } catch (Exception e) {
+            JobRunContext.recordFailure(e);
             log.error("❌ [STATS] Error while checking statistics: {}", e.getMessage(), e);
         }
     }
@@ -0,0 +1,129 @@
+package com.nutriflow.scheduler;
+
+import com.nutriflow.enums.EmailCategory;
+import com.nutriflow.helpers.BulkMailSender;
+import com.nutriflow.helpers.PollingWorkerPool;
+import com.nutriflow.services.EmailOutboxService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of workers delivering the email outbox.
+ *
+ * Every worker claims a batch, sends it through {@link BulkMailSender} and records the outcome;
+ * the loop itself lives in {@link PollingWorkerPool}. Claims never overlap (SKIP LOCKED), so
+ * throughput scales with nutriflow.mail.outbox.workers per node and with the number of nodes, up
+ * to the SMTP connections the bulk sender allows and what the server accepts. Pointing
+ * spring.mail.host/port at a local SMTP stand-in (e.g. GreenMail) exercises the whole path.
+ */
+@Component
+@Slf4j
+public class EmailOutboxWorker {
+
+    private final EmailOutboxService emailOutboxService;
+    private final BulkMailSender bulkMailSender;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${nutriflow.mail.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${nutriflow.mail.outbox.workers:2}")
+    private int workers;
+
+    @Value("${nutriflow.mail.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${nutriflow.mail.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private PollingWorkerPool workerPool;
+
+    public EmailOutboxWorker(EmailOutboxService emailOutboxService,
+                             BulkMailSender bulkMailSender,
+                             MeterRegistry meterRegistry) {
+        this.emailOutboxService = emailOutboxService;
+        this.bulkMailSender = bulkMailSender;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("📭 [OUTBOX] Email outbox workers disabled");
+            return;
+        }
+
+        workerPool = new PollingWorkerPool("mail-outbox", "OUTBOX", workers, batchSize, pollIntervalMs, this::processBatch);
+        workerPool.start();
+
+        log.info("📬 [OUTBOX] {} email outbox worker(s) started | Batch size: {}", workers, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (workerPool != null) {
+            workerPool.stop();
+        }
+    }
+
+    /**
+     * Sends the claimed batch in one bulk call, so it shares a few SMTP connections.
+     *
+     * @return Number of claimed emails
+     */
+    private int processBatch(String workerId) throws InterruptedException {
+        List<EmailOutboxService.OutboxEmail> batch = emailOutboxService.claimBatch(workerId, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Exception> failures = bulkMailSender.send(batch.stream().map(this::toMessage).toList());
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutboxService.OutboxEmail email = batch.get(i);
+            Exception failure = failures.get(i);
+            if (failure == null) {
+                sentIds.add(email.getId());
+                outcome(email.getCategory(), "sent").increment();
+            } else {
+                boolean permanent = failure instanceof MailParseException || failure instanceof MailPreparationException;
+                boolean retrying = emailOutboxService.markFailed(email, failure.getMessage(), permanent);
+                outcome(email.getCategory(), retrying ? "retry" : "failed").increment();
+            }
+        }
+        emailOutboxService.markSent(sentIds);
+
+        log.debug("[OUTBOX] Worker {} processed {} email(s), sent {}", workerId, batch.size(), sentIds.size());
+        return batch.size();
+    }
+
+    private SimpleMailMessage toMessage(EmailOutboxService.OutboxEmail email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(email.getSender());
+        message.setTo(email.getRecipient());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+
+    private Counter outcome(EmailCategory category, String result) {
+        return Counter.builder("nutriflow.mail.outbox")
+                .tag("category", category.name())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,26 +1,38 @@
 package com.nutriflow.scheduler;
 
-import lombok.RequiredArgsConstructor;
+import com.nutriflow.aspect.ClusterLocked;
+import com.nutriflow.dto.response.RedisStatsResponse;
+import com.nutriflow.helpers.JobRunContext;
+import com.nutriflow.helpers.RedisLeaseLock;
+import com.nutriflow.services.RedisStatsService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Scheduled tasks for Redis cache cleanup.
  *
- * Cleans up expired or unused cache data.
+ * Cleans up expired or unused cache data. The keyspace is walked with cursor-based SCAN
+ * (never KEYS, which blocks the server), TTL checks and deletes are pipelined per batch,
+ * and every run stops once its time budget is spent; the next run simply starts over.
  */
 @Component
 @Slf4j
 public class RedisCleanupScheduler {
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisStatsService redisStatsService;
 
     @Value("${nutriflow.redis.prefix.otp:OTP:}")
     private String otpPrefix;
@@ -28,9 +40,22 @@ public class RedisCleanupScheduler {
     @Value("${nutriflow.redis.prefix.refresh-token:RT:}")
     private String refreshTokenPrefix;
 
+    // COUNT hint per SCAN call: how much work the server does per cursor step
+    @Value("${nutriflow.redis.cleanup.scan-count:500}")
+    private int scanCount;
+
+    // Keys per pipelined TTL check / delete round trip
+    @Value("${nutriflow.redis.cleanup.batch-size:200}")
+    private int batchSize;
+
+    @Value("${nutriflow.redis.cleanup.time-budget-ms:2000}")
+    private long timeBudgetMs;
+
     // Using @Qualifier to specify which bean to use
-    public RedisCleanupScheduler(@Qualifier("objectRedisTemplate") RedisTemplate<String, Object> redisTemplate) {
+    public RedisCleanupScheduler(@Qualifier("objectRedisTemplate") RedisTemplate<String, Object> redisTemplate,
+                                 RedisStatsService redisStatsService) {
         this.redisTemplate = redisTemplate;
+        this.redisStatsService = redisStatsService;
     }
 
     /**
@@ -41,36 +66,19 @@ public class RedisCleanupScheduler {
      * NOTE: Redis TTL handles expiry on its own, but manual cleanup is good practice
      */
     @Scheduled(cron = "0 0 * * * ?")
+    @ClusterLocked(name = "redis-otp-cleanup", runOnceWithinSeconds = 600)
     public void cleanupExpiredOtps() {
-        LocalDateTime startTime = LocalDateTime.now();
-
         log.info("🗑️ [REDIS-CLEANUP] OTP cleanup started");
 
         try {
-            Set<String> otpKeys = redisTemplate.keys(otpPrefix + "*");
-
-            if (otpKeys == null || otpKeys.isEmpty()) {
-                log.info("✅ [REDIS-CLEANUP] No OTPs found to clean up");
-                return;
-            }
-
-            int expiredCount = 0;
-            for (String key : otpKeys) {
-                Long ttl = redisTemplate.getExpire(key);
-
-                // If TTL is -2 (key does not exist) or -1 (TTL not set)
-                if (ttl != null && ttl < 0) {
-                    redisTemplate.delete(key);
-                    expiredCount++;
-                }
-            }
-
-            long durationMs = java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
-
-            log.info("✅ [REDIS-CLEANUP] OTP cleanup completed | Deleted: {} | Duration: {}ms",
-                    expiredCount, durationMs);
+            CleanupResult result = purgeKeysWithoutTtl(otpPrefix);
+            JobRunContext.addAffectedRows(result.deleted);
+            log.info("✅ [REDIS-CLEANUP] OTP cleanup {} | Scanned: {} | Deleted: {} | Duration: {}ms",
+                    result.completed ? "completed" : "stopped at time budget",
+                    result.scanned, result.deleted, result.durationMs);
 
         } catch (Exception e) {
+            JobRunContext.recordFailure(e);
             log.error("❌ [REDIS-CLEANUP] Error during OTP cleanup: {}", e.getMessage(), e);
         }
     }
@@ -81,35 +89,19 @@ public class RedisCleanupScheduler {
      * Schedule: Every day at 04:00
      */
     @Scheduled(cron = "0 0 4 * * ?")
+    @ClusterLocked(name = "redis-token-cleanup", runOnceWithinSeconds = 3600)
     public void cleanupExpiredRefreshTokens() {
-        LocalDateTime startTime = LocalDateTime.now();
-
         log.info("🗑️ [REDIS-CLEANUP] Refresh Token cleanup started");
 
         try {
-            Set<String> tokenKeys = redisTemplate.keys(refreshTokenPrefix + "*");
-
-            if (tokenKeys == null || tokenKeys.isEmpty()) {
-                log.info("✅ [REDIS-CLEANUP] No tokens found to clean up");
-                return;
-            }
-
-            int expiredCount = 0;
-            for (String key : tokenKeys) {
-                Long ttl = redisTemplate.getExpire(key);
-
-                if (ttl != null && ttl < 0) {
-                    redisTemplate.delete(key);
-                    expiredCount++;
-                }
-            }
-
-            long durationMs = java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
-
-            log.info("✅ [REDIS-CLEANUP] Refresh Token cleanup completed | Deleted: {} | Duration: {}ms",
-                    expiredCount, durationMs);
+            CleanupResult result = purgeKeysWithoutTtl(refreshTokenPrefix);
+            JobRunContext.addAffectedRows(result.deleted);
+            log.info("✅ [REDIS-CLEANUP] Refresh Token cleanup {} | Scanned: {} | Deleted: {} | Duration: {}ms",
+                    result.completed ? "completed" : "stopped at time budget",
+                    result.scanned, result.deleted, result.durationMs);
 
         } catch (Exception e) {
+            JobRunContext.recordFailure(e);
             log.error("❌ [REDIS-CLEANUP] Error during token cleanup: {}", e.getMessage(), e);
         }
     }
@@ -118,23 +110,98 @@ public class RedisCleanupScheduler {
      * Redis memory usage statistics
      *
      * Schedule: Every 6 hours
+     *
+     * Reads the maintained counters and INFO, never the keyspace itself.
      */
     @Scheduled(cron = "0 0 */6 * * ?")
+    @ClusterLocked(name = "redis-stats", runOnceWithinSeconds = 3600)
     public void logRedisStatistics() {
         log.info("📊 [REDIS-STATS] Checking Redis statistics...");
 
         try {
-            Set<String> allOtpKeys = redisTemplate.keys(otpPrefix + "*");
-            Set<String> allTokenKeys = redisTemplate.keys(refreshTokenPrefix + "*");
-
-            int otpCount = (allOtpKeys != null) ? allOtpKeys.size() : 0;
-            int tokenCount = (allTokenKeys != null) ? allTokenKeys.size() : 0;
+            RedisStatsResponse stats = redisStatsService.getStats();
 
-            log.info("📊 [REDIS-STATS] OTP Keys: {} | Token Keys: {} | Total: {}",
-                    otpCount, tokenCount, otpCount + tokenCount);
+            log.info("📊 [REDIS-STATS] Live OTPs: {} | Live token families: {} | Keys: {} | Used memory: {} bytes",
+                    stats.getLiveOtps(), stats.getLiveRefreshFamilies(),
+                    stats.getKeysPerDatabase(), stats.getUsedMemoryBytes());
 
         } catch (Exception e) {
+            JobRunContext.recordFailure(e);
             log.error("❌ [REDIS-STATS] Statistics error: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Scans {@code prefix*} and deletes keys that have no TTL (-1). Keys that vanished between
+     * SCAN and the TTL check (-2) are skipped.
+     */
+    private CleanupResult purgeKeysWithoutTtl(String prefix) {
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + timeBudgetMs * 1_000_000;
+        CleanupResult result = new CleanupResult();
+        List<String> batch = new ArrayList<>(batchSize);
+
+        try (Cursor<String> cursor = redisTemplate.scan(scanOptions(prefix))) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                result.scanned++;
+                if (batch.size() >= batchSize) {
+                    RedisLeaseLock.checkCurrentLease();
+                    result.deleted += deleteWithoutTtl(batch);
+                    batch.clear();
+                    if (System.nanoTime() > deadline) {
+                        result.durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+                        return result;
+                    }
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            result.deleted += deleteWithoutTtl(batch);
+        }
+
+        result.completed = true;
+        result.durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        return result;
+    }
+
+    /**
+     * One pipelined round trip for the TTLs of the whole batch, one DEL for the keys without TTL.
+     */
+    private int deleteWithoutTtl(List<String> keys) {
+        List<Object> ttls = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                keys.forEach(ops::getExpire);
+                return null;
+            }
+        });
+
+        List<String> toDelete = new ArrayList<>();
+        for (int i = 0; i < keys.size() && i < ttls.size(); i++) {
+            Object ttl = ttls.get(i);
+            if (ttl instanceof Number number && number.longValue() == -1) {
+                toDelete.add(keys.get(i));
+            }
+        }
+
+        if (toDelete.isEmpty()) {
+            return 0;
+        }
+        Long deleted = redisTemplate.delete(toDelete);
+        return deleted == null ? 0 : deleted.intValue();
+    }
+
+    private ScanOptions scanOptions(String prefix) {
+        return ScanOptions.scanOptions().match(prefix + "*").count(scanCount).build();
+    }
+
+    private static class CleanupResult {
+        private long scanned;
+        private int deleted;
+        private long durationMs;
+        private boolean completed;
+    }
+}
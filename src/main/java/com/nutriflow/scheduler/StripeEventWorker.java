@@ -0,0 +1,107 @@
+package com.nutriflow.scheduler;
+
+import com.nutriflow.helpers.PollingWorkerPool;
+import com.nutriflow.services.PaymentService;
+import com.nutriflow.services.StripeEventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Processes stored Stripe webhook events in the background.
+ *
+ * Each event runs in its own transaction together with marking it PROCESSED, so an event's
+ * business changes and its status commit or roll back as one. A failed event is retried with
+ * backoff; after the last attempt it stays FAILED until an admin replays it.
+ */
+@Component
+@Slf4j
+public class StripeEventWorker {
+
+    private final StripeEventService stripeEventService;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${nutriflow.stripe.events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${nutriflow.stripe.events.workers:1}")
+    private int workers;
+
+    @Value("${nutriflow.stripe.events.batch-size:20}")
+    private int batchSize;
+
+    @Value("${nutriflow.stripe.events.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private PollingWorkerPool workerPool;
+
+    public StripeEventWorker(StripeEventService stripeEventService,
+                             PaymentService paymentService,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.stripeEventService = stripeEventService;
+        this.paymentService = paymentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("📭 [STRIPE-EVENTS] Stripe event workers disabled");
+            return;
+        }
+
+        workerPool = new PollingWorkerPool("stripe-events", "STRIPE-EVENTS", workers, batchSize, pollIntervalMs,
+                this::processBatch);
+        workerPool.start();
+
+        log.info("📬 [STRIPE-EVENTS] {} Stripe event worker(s) started", workers);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (workerPool != null) {
+            workerPool.stop();
+        }
+    }
+
+    /**
+     * @return Number of claimed events
+     */
+    private int processBatch(String workerId) {
+        List<StripeEventService.StoredEvent> batch = stripeEventService.claimBatch(workerId, batchSize);
+        for (StripeEventService.StoredEvent event : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    paymentService.processStripeEvent(event.getPayload());
+                    stripeEventService.markProcessed(event.getId());
+                });
+                outcome(event.getType(), "processed").increment();
+                log.info("✅ [STRIPE-EVENTS] Event processed: EventId={}, Type={}", event.getId(), event.getType());
+            } catch (Exception e) {
+                boolean retrying = stripeEventService.markFailed(event, e.getMessage());
+                outcome(event.getType(), retrying ? "retry" : "failed").increment();
+            }
+        }
+        return batch.size();
+    }
+
+    private Counter outcome(String type, String result) {
+        return Counter.builder("nutriflow.stripe.events")
+                .tag("type", type)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,35 +1,59 @@
 package com.nutriflow.scheduler;
 
-import com.nutriflow.entities.SubscriptionEntity;
+import com.nutriflow.aspect.ClusterLocked;
+import com.nutriflow.enums.ReportFormat;
+import com.nutriflow.enums.ReportType;
 import com.nutriflow.enums.SubscriptionStatus;
+import com.nutriflow.helpers.JobRunContext;
 import com.nutriflow.repositories.SubscriptionRepository;
 import com.nutriflow.services.EmailNotificationService;
+import com.nutriflow.services.ReportService;
+import com.nutriflow.services.SubscriptionExpiryService;
+import com.nutriflow.services.SubscriptionNotificationService;
+import com.nutriflow.services.SubscriptionRenewalService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class SubscriptionScheduler {
 
+    private static final List<ReportType> WEEKLY_REPORTS =
+            List.of(ReportType.SUBSCRIPTIONS, ReportType.PAYMENTS, ReportType.CATERER_DELIVERIES);
+
     private final SubscriptionRepository subscriptionRepository;
     private final EmailNotificationService emailNotificationService;
+    private final SubscriptionExpiryService subscriptionExpiryService;
+    private final SubscriptionNotificationService subscriptionNotificationService;
+    private final SubscriptionRenewalService subscriptionRenewalService;
+    private final ReportService reportService;
+
+    @Value("${nutriflow.reports.weekly.format:XLSX}")
+    private ReportFormat weeklyReportFormat;
 
     /**
      * ✅ NEW: Check past dates when backend starts
      * If the backend was down for a long time, send missed notifications
      */
     @EventListener(ApplicationReadyEvent.class)
-    @Transactional
+    @ClusterLocked(name = "subscription-startup-check", leaseSeconds = 120, runOnceWithinSeconds = 3600)
     public void onStartup() {
         log.info("🚀 [STARTUP] Backend started, checking past notifications...");
 
@@ -37,141 +61,126 @@ public class SubscriptionScheduler {
             // Deactivate expired subscriptions
             deactivateExpiredSubscriptions();
 
-            // Send emails to subscriptions with 7 or fewer days remaining
-            checkAndNotifyUpcomingExpirations();
+            // Send missed warnings to subscriptions with 7 or fewer days remaining
+            notifyUpcomingExpirations();
 
         } catch (Exception e) {
+            JobRunContext.recordFailure(e);
             log.error("❌ [STARTUP] Error during startup check: {}", e.getMessage(), e);
         }
     }
 
     /**
-     * Deactivates expired subscriptions
-     * Every day at 01:00 + on backend startup
+     * Charges and extends auto-renewing subscriptions ending within the next few days
+     * Every day at 00:30, before the expiry run
+     *
+     * NOTE: Not @Transactional on purpose - every chunk commits on its own. Declined
+     * periods are retried by the next nights while the subscription is still due.
      */
-    @Scheduled(cron = "0 0 1 * * ?")
-    @Transactional
-    public void deactivateExpiredSubscriptions() {
+    @Scheduled(cron = "0 30 0 * * ?")
+    @ClusterLocked(name = "subscription-renewal", leaseSeconds = 300, runOnceWithinSeconds = 3600)
+    public void renewDueSubscriptions() {
         LocalDateTime startTime = LocalDateTime.now();
-        LocalDate today = LocalDate.now();
 
-        log.info("🔄 [SUBSCRIPTION] Checking for expired subscriptions started");
+        log.info("💳 [SUBSCRIPTION-RENEWAL] Renewal of due subscriptions started");
 
         try {
-            List<SubscriptionEntity> expiredSubscriptions = subscriptionRepository
-                    .findByStatusAndEndDateBefore(SubscriptionStatus.ACTIVE, today);
-
-            if (expiredSubscriptions.isEmpty()) {
-                log.info("✅ [SUBSCRIPTION] No expired subscriptions found");
-                return;
-            }
+            SubscriptionRenewalService.RenewalSummary summary = subscriptionRenewalService.renewDueSubscriptions(LocalDate.now());
+            JobRunContext.addAffectedRows(summary.getRenewed());
 
-            int deactivatedCount = 0;
-            for (SubscriptionEntity subscription : expiredSubscriptions) {
-                subscription.setStatus(SubscriptionStatus.EXPIRED);
-                subscriptionRepository.save(subscription);
-                deactivatedCount++;
+            long durationMs = java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
 
-                log.info("⚠️ [SUBSCRIPTION] Subscription deactivated | User ID: {} | End Date: {}",
-                        subscription.getUser().getId(), subscription.getEndDate());
+            log.info("✅ [SUBSCRIPTION-RENEWAL] Renewal completed | Renewed: {} | Declined: {} | Errors: {} | Needs review: {} | Duration: {}ms",
+                    summary.getRenewed(), summary.getDeclined(), summary.getErrors(), summary.getNeedsReview(), durationMs);
 
-                // Send email
-                emailNotificationService.sendSubscriptionExpiredNotification(subscription);
-            }
+        } catch (Exception e) {
+            JobRunContext.recordFailure(e);
+            log.error("❌ [SUBSCRIPTION-RENEWAL] Error during renewal: {}", e.getMessage(), e);
+        }
+    }
 
-            long durationMs = java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
+    /**
+     * Resolves renewal charges whose outcome was unknown, by looking them up at the gateway
+     * Every 5 minutes, so nothing waits for the next nightly run
+     */
+    @Scheduled(cron = "0 */5 * * * ?")
+    @ClusterLocked(name = "subscription-renewal-reconcile", leaseSeconds = 120, runOnceWithinSeconds = 240)
+    public void reconcileRenewalCharges() {
+        try {
+            int resolved = subscriptionRenewalService.reconcileUnknownCharges();
+            JobRunContext.addAffectedRows(resolved);
 
-            log.info("✅ [SUBSCRIPTION] Deactivation completed | Deactivated: {} | Duration: {}ms",
-                    deactivatedCount, durationMs);
+            if (resolved > 0) {
+                log.info("✅ [SUBSCRIPTION-RENEWAL] Unknown charges reconciled | Resolved: {}", resolved);
+            }
 
         } catch (Exception e) {
-            log.error("❌ [SUBSCRIPTION] Error during deactivation: {}", e.getMessage(), e);
+            JobRunContext.recordFailure(e);
+            log.error("❌ [SUBSCRIPTION-RENEWAL] Error during charge reconciliation: {}", e.getMessage(), e);
         }
     }
 
     /**
-     * ✅ NEW: Check subscriptions with 7 or fewer days remaining
-     * Runs on startup
+     * Deactivates expired subscriptions
+     * Every day at 01:00 + on backend startup
+     *
+     * NOTE: Not @Transactional on purpose - every chunk commits on its own and
+     * expiry emails are sent in the background.
      */
-    @Transactional(readOnly = true)
-    public void checkAndNotifyUpcomingExpirations() {
-        LocalDate today = LocalDate.now();
-        LocalDate sevenDaysLater = today.plusDays(7);
+    @Scheduled(cron = "0 0 1 * * ?")
+    @ClusterLocked(name = "subscription-expiry", runOnceWithinSeconds = 3600)
+    public void deactivateExpiredSubscriptions() {
+        LocalDateTime startTime = LocalDateTime.now();
 
-        log.info("📧 [SUBSCRIPTION] Checking upcoming expirations (0-7 days)");
+        log.info("🔄 [SUBSCRIPTION] Checking for expired subscriptions started");
 
         try {
-            // Find all subscriptions expiring within 0-7 days
-            List<SubscriptionEntity> upcomingExpirations = subscriptionRepository
-                    .findAll()
-                    .stream()
-                    .filter(s -> s.getStatus() == SubscriptionStatus.ACTIVE)
-                    .filter(s -> s.getEndDate().isAfter(today) &&
-                            !s.getEndDate().isAfter(sevenDaysLater))
-                    .toList();
-
-            if (upcomingExpirations.isEmpty()) {
-                log.info("✅ [SUBSCRIPTION] No subscriptions expiring within 7 days");
-                return;
-            }
-
-            for (SubscriptionEntity subscription : upcomingExpirations) {
-                long daysLeft = java.time.temporal.ChronoUnit.DAYS.between(today, subscription.getEndDate());
+            int deactivatedCount = subscriptionExpiryService.expireDueSubscriptions(LocalDate.now());
+            JobRunContext.addAffectedRows(deactivatedCount);
 
-                log.info("📧 [SUBSCRIPTION] Sending warning | User: {} | {} days remaining | End Date: {}",
-                        subscription.getUser().getEmail(), daysLeft, subscription.getEndDate());
-
-                emailNotificationService.sendSubscriptionExpirationWarning(subscription);
-            }
+            long durationMs = java.time.Duration.between(startTime, LocalDateTime.now()).toMillis();
 
-            log.info("✅ [SUBSCRIPTION] Warnings sent | Total: {}",
-                    upcomingExpirations.size());
+            log.info("✅ [SUBSCRIPTION] Deactivation completed | Deactivated: {} | Duration: {}ms",
+                    deactivatedCount, durationMs);
 
         } catch (Exception e) {
-            log.error("❌ [SUBSCRIPTION] Error during warning: {}", e.getMessage(), e);
+            JobRunContext.recordFailure(e);
+            log.error("❌ [SUBSCRIPTION] Error during deactivation: {}", e.getMessage(), e);
         }
     }
 
     /**
-     * Warning for upcoming subscription expirations (exactly 7 days remaining)
-     * Every day at 10:00
+     * Expiration warnings for subscriptions ending within the next 7 days
+     * Every day at 10:00 + on backend startup
+     *
+     * NOTE: Every warning is recorded in the notification ledger, so a missed day is
+     * caught up by the next sweep and nothing is sent twice.
      */
     @Scheduled(cron = "0 0 10 * * ?")
-    @Transactional(readOnly = true)
+    @ClusterLocked(name = "subscription-expiry-warning", runOnceWithinSeconds = 3600)
     public void notifyUpcomingExpirations() {
-        LocalDate sevenDaysLater = LocalDate.now().plusDays(7);
-
-        log.info("📧 [SUBSCRIPTION] Checking expiring subscriptions (exactly 7 days)");
+        log.info("📧 [SUBSCRIPTION] Checking upcoming expirations (1-7 days)");
 
         try {
-            List<SubscriptionEntity> expiringSubscriptions = subscriptionRepository
-                    .findByStatusAndEndDate(SubscriptionStatus.ACTIVE, sevenDaysLater);
-
-            if (expiringSubscriptions.isEmpty()) {
-                log.info("✅ [SUBSCRIPTION] No subscriptions expiring in exactly 7 days");
-                return;
-            }
-
-            for (SubscriptionEntity subscription : expiringSubscriptions) {
-                log.info("📧 [SUBSCRIPTION] Sending warning | User: {} | End Date: {}",
-                        subscription.getUser().getEmail(), subscription.getEndDate());
-
-                emailNotificationService.sendSubscriptionExpirationWarning(subscription);
-            }
+            int claimedCount = subscriptionNotificationService.sendExpirationWarnings(LocalDate.now());
+            JobRunContext.addAffectedRows(claimedCount);
 
-            log.info("✅ [SUBSCRIPTION] Warnings sent | Total: {}",
-                    expiringSubscriptions.size());
+            log.info("✅ [SUBSCRIPTION] Warnings queued | Total: {}", claimedCount);
 
         } catch (Exception e) {
+            JobRunContext.recordFailure(e);
             log.error("❌ [SUBSCRIPTION] Error during warning: {}", e.getMessage(), e);
         }
     }
 
     /**
      * Subscription statistics (every week)
+     * Last week's subscriptions, payments and caterer deliveries are attached as report files.
+     *
+     * NOTE: Not read-only - without attachments the report is written to the email outbox.
      */
     @Scheduled(cron = "0 0 9 * * MON")
-    @Transactional(readOnly = true)
+    @ClusterLocked(name = "subscription-weekly-report", runOnceWithinSeconds = 3600)
     public void generateWeeklySubscriptionReport() {
         log.info("📊 [SUBSCRIPTION-REPORT] Preparing weekly report...");
 
@@ -184,10 +193,39 @@ public class SubscriptionScheduler {
                     activeCount, expiredCount, cancelledCount,
                     activeCount + expiredCount + cancelledCount);
 
-            emailNotificationService.sendWeeklyReportToAdmin(activeCount, expiredCount, cancelledCount);
+            // Previous Monday to this Monday, exclusive
+            LocalDate to = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            LocalDate from = to.minusWeeks(1);
+            Map<String, Path> attachments = new LinkedHashMap<>();
+            try {
+                try {
+                    for (ReportType type : WEEKLY_REPORTS) {
+                        Path file = reportService.writeToFile(type, weeklyReportFormat, from, to);
+                        attachments.put(reportService.fileName(type, weeklyReportFormat, from, to), file);
+                    }
+                } catch (Exception e) {
+                    // The counts still go out; a partial set of attachments would be misleading
+                    log.error("❌ [SUBSCRIPTION-REPORT] Report files could not be written, sending the report without them: {}",
+                            e.getMessage(), e);
+                    attachments.values().forEach(SubscriptionScheduler::deleteQuietly);
+                    attachments.clear();
+                }
+                emailNotificationService.sendWeeklyReportToAdmin(activeCount, expiredCount, cancelledCount, attachments);
+            } finally {
+                attachments.values().forEach(SubscriptionScheduler::deleteQuietly);
+            }
 
         } catch (Exception e) {
+            JobRunContext.recordFailure(e);
             log.error("❌ [SUBSCRIPTION-REPORT] Error while preparing report: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("⚠️ [SUBSCRIPTION-REPORT] Could not delete report file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.nutriflow.security;
+
+import com.nutriflow.entities.AccountEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Identity and profile fields needed to issue tokens and build auth responses.
+ * Cached with the refresh token family so refreshes do not touch the database.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSummary {
+
+    private Long accountId;
+    private String email;
+    private String role;
+    private boolean active;
+    private String firstName;
+    private String lastName;
+    private String companyName;
+    private String phone;
+    private String specialization;
+    private String status;
+
+    public static AccountSummary from(AccountEntity account) {
+        return AccountSummary.builder()
+                .accountId(account.getAccountId())
+                .email(account.getEmail())
+                .role(account.getRole())
+                .active(account.isActive())
+                .firstName(account.getFirstName())
+                .lastName(account.getLastName())
+                .companyName(account.getCompanyName())
+                .phone(account.getPhone())
+                .specialization(account.getSpecialization())
+                .status(account.getStatus())
+                .build();
+    }
+
+    public SecurityUser toSecurityUser() {
+        return new SecurityUser(accountId, email, null, role, active);
+    }
+}
@@ -1,14 +1,7 @@
 package com.nutriflow.security;
 
-import com.nutriflow.entities.AdminEntity;
-import com.nutriflow.entities.CatererEntity;
-import com.nutriflow.entities.DietitianEntity;
-import com.nutriflow.enums.CatererStatus;
-import com.nutriflow.enums.Role;
-import com.nutriflow.repositories.AdminRepository;
-import com.nutriflow.repositories.CatererRepository;
-import com.nutriflow.repositories.DietitianRepository;
-import com.nutriflow.repositories.UserRepository;
+import com.nutriflow.entities.AccountEntity;
+import com.nutriflow.repositories.AccountRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,71 +14,41 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
-    private final AdminRepository adminRepository;
-    private final DietitianRepository dietitianRepository;
-    private final CatererRepository catererRepository;
+    private final AccountRepository accountRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        log.info("Loading user details (loadUserByUsername): {}", email);
-
-        // 1. Admin check
-        var admin = adminRepository.findByEmail(email);
-        if (admin.isPresent()) {
-            log.info("Email found in Admin table: {}", email);
-            AdminEntity a = admin.get();
-            if (!a.isActive()) {
-                log.warn("Access denied: Admin is inactive - {}", email);
-                throw new UsernameNotFoundException("Admin has been deactivated: " + email);
-            }
-            String adminRole = a.isSuperAdmin() ? Role.SUPER_ADMIN.name() : Role.ADMIN.name();
-            return new SecurityUser(a.getId(), a.getEmail(), a.getPassword(),
-                    adminRole, true);
-        }
-
-        // 2. Dietitian check
-        var diet = dietitianRepository.findByEmail(email);
-        if (diet.isPresent()) {
-            log.info("Email found in Dietitian table: {}", email);
-            DietitianEntity d = diet.get();
-            if (!d.isActive()) {
-                log.warn("Access denied: Dietitian is inactive - {}", email);
-                throw new UsernameNotFoundException("Dietitian has been deactivated: " + email);
-            }
-            return new SecurityUser(d.getId(), d.getEmail(), d.getPassword(),
-                    d.getRole().name(), true);
-        }
+        return principalCache.get(email, this::loadFromDatabase);
+    }
 
-        // 3. Caterer check
-        var caterer = catererRepository.findByEmail(email);
-        if (caterer.isPresent()) {
-            log.info("Email found in Caterer table: {}", email);
-            CatererEntity c = caterer.get();
-            boolean isActive = c.getStatus() != null && c.getStatus().equals(CatererStatus.ACTIVE);
-            if (!isActive) {
-                log.warn("Access denied: Caterer is not active - Status: {}, Email: {}", c.getStatus(), email);
-                throw new UsernameNotFoundException("Caterer has been deactivated: " + email);
-            }
-            return new SecurityUser(c.getId(), c.getEmail(), c.getPassword(),
-                    c.getRole().name(), true);
-        }
+    private SecurityUser loadFromDatabase(String email) {
+        log.info("Loading user details (loadUserByUsername): {}", email);
 
-        // 4. User check
-        log.debug("Not found in other roles, checking User table: {}", email);
-        var user = userRepository.findByEmail(email)
+        // Single lookup across admins, dietitians, caterers and users
+        AccountEntity account = accountRepository.findFirstByEmailOrderByPriorityAsc(email)
                 .orElseThrow(() -> {
                     log.error("Login failed: Email not found in any table - {}", email);
                     return new UsernameNotFoundException("Email not found in the system: " + email);
                 });
 
-        if (!user.isEmailVerified()) {
-            log.warn("Access denied: User's email is not verified - {}", email);
-            throw new UsernameNotFoundException("User has been deactivated: " + email);
+        if (!account.isActive()) {
+            log.warn("Access denied: {} account is not active - {}", account.getRole(), email);
+            throw new UsernameNotFoundException("Account has been deactivated: " + email);
         }
 
-        log.info("User found successfully and SecurityUser object created: {}", email);
-        return new SecurityUser(user.getId(), user.getEmail(), user.getPassword(),
-                user.getRole().name(), true);
+        log.info("Account found successfully and SecurityUser object created: {} ({})", email, account.getRole());
+        return toSecurityUser(account);
+    }
+
+    /**
+     * Builds the principal from an already loaded directory row.
+     *
+     * @param account Row from the accounts view
+     * @return SecurityUser with the account's id, role and password hash
+     */
+    public static SecurityUser toSecurityUser(AccountEntity account) {
+        return new SecurityUser(account.getAccountId(), account.getEmail(), account.getPasswordHash(),
+                account.getRole(), account.isActive());
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,14 @@
 package com.nutriflow.security;
 
+import com.nutriflow.exceptions.InvalidTokenException;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,10 +22,22 @@ import java.io.IOException;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String AUTH_MODE_STATELESS = "stateless";
+
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * database  - principal is reloaded from the database on every request (default)
+     * stateless - principal is built from the token's identity claims; account changes
+     *             are enforced through the Redis revocation list
+     */
+    @Value("${nutriflow.security.auth-mode:database}")
+    private String authMode;
 
     @Override
     protected void doFilterInternal(
@@ -33,6 +49,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             final String authHeader = request.getHeader("Authorization");
             final String jwt;
+            final Claims claims;
             final String userEmail;
 
             // Check Authorization header
@@ -44,9 +61,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Extract JWT token (substring)
             jwt = authHeader.substring(7);
 
-            // Try to extract username
+            // Verify the token once; the claims are reused for every check below
             try {
-                userEmail = jwtService.extractUsername(jwt);
+                claims = jwtService.parseToken(jwt);
+                userEmail = claims.getSubject();
             } catch (InvalidTokenException e) {
                 // Invalid token - continue
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -57,12 +75,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             // If username exists and authentication has not been set yet
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                boolean stateless = AUTH_MODE_STATELESS.equalsIgnoreCase(authMode);
+
+                if (isRevoked(userEmail, claims, stateless)) {
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.setContentType("application/json");
+                    response.getWriter().write("{\"error\": \"Token has been revoked\"}");
+                    return;
+                }
+
+                // Stateless mode: verified claims are enough, no identity query
+                UserDetails userDetails = stateless ? jwtService.toSecurityUser(claims) : null;
+
                 try {
-                    // Try to load user details
-                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                    // Try to load user details (database mode, or tokens issued without identity claims)
+                    if (userDetails == null) {
+                        userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                    }
 
                     // Check if token is valid
-                    if (jwtService.isTokenValid(jwt, userDetails)) {
+                    if (jwtService.isTokenValid(claims, userDetails)) {
                         UsernamePasswordAuthenticationToken authToken =
                                 new UsernamePasswordAuthenticationToken(
                                         userDetails,
@@ -90,4 +122,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             response.getWriter().write("{\"error\": \"Authentication error\"}");
         }
     }
+
+    /**
+     * In stateless mode the revocation list is the only guard, so a Redis failure rejects the request.
+     * In database mode the account is reloaded anyway, so a Redis failure is only logged.
+     */
+    private boolean isRevoked(String email, Claims claims, boolean stateless) {
+        try {
+            return tokenRevocationService.isRevoked(email, claims.getIssuedAt());
+        } catch (RuntimeException e) {
+            log.error("Revocation check failed: {}", e.getMessage());
+            if (stateless) {
+                throw e;
+            }
+            return false;
+        }
+    }
 }
\ No newline at end of file
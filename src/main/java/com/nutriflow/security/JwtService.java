@@ -4,6 +4,7 @@ import com.nutriflow.exceptions.InvalidTokenException;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -21,6 +22,13 @@ import java.util.stream.Collectors;
 @Slf4j // Added for logging
 public class JwtService {
 
+    // Identity claims carried by access tokens so requests can be authenticated without a database lookup
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_SUPER_ADMIN = "superAdmin";
+    // Refresh token family; the token's own id is the standard jti claim
+    public static final String CLAIM_FAMILY_ID = "fid";
+
     @Value("${nutriflow.jwt.secret}")
     private String secretKey;
 
@@ -30,10 +38,37 @@ public class JwtService {
     @Value("${nutriflow.jwt.refresh-token.expiration}")
     private long refreshExpiration;
 
+    // Built once at startup: decoding the secret and building the parser on every call is wasted work
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        log.info("JWT signing key and parser initialized");
+    }
+
+    /**
+     * Verifies the signature and expiration of a token exactly once and returns its claims.
+     * Callers should reuse the returned claims instead of parsing the same token again.
+     *
+     * @param token Raw JWT
+     * @return Validated claims
+     * @throws InvalidTokenException if the token is expired, malformed or has an invalid signature
+     */
+    public Claims parseToken(String token) {
+        return extractAllClaims(token);
+    }
+
     public String extractUsername(String token) {
         log.debug("Extracting username from token...");
         try {
             return extractClaim(token, Claims::getSubject);
+        } catch (InvalidTokenException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error while extracting username: {}", e.getMessage());
             throw new InvalidTokenException("Could not extract username from token: " + e.getMessage());
@@ -53,12 +88,54 @@ public class JwtService {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList()));
 
+        if (userDetails instanceof SecurityUser securityUser) {
+            extraClaims.put(CLAIM_USER_ID, securityUser.getId());
+            extraClaims.put(CLAIM_ROLE, securityUser.getRole());
+            extraClaims.put(CLAIM_SUPER_ADMIN, securityUser.isSuperAdmin());
+        }
+
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
-        log.info("Generating new Refresh Token: {}", userDetails.getUsername());
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+    /**
+     * Builds the principal from verified access token claims.
+     *
+     * @param claims Claims returned by {@link #parseToken(String)}
+     * @return SecurityUser, or null if the token predates identity claims
+     */
+    public SecurityUser toSecurityUser(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return new SecurityUser(userId.longValue(), claims.getSubject(), null, role, true);
+    }
+
+    /**
+     * Builds a refresh token that belongs to a rotation family.
+     *
+     * @param email     Subject
+     * @param familyId  Family the token belongs to
+     * @param tokenId   Unique id of this token (jti), compared on rotation
+     * @param expiresAt Absolute expiry of the family
+     * @return Signed refresh token
+     */
+    public String generateRefreshToken(String email, String familyId, String tokenId, Date expiresAt) {
+        log.info("Generating new Refresh Token: {}", email);
+        return Jwts
+                .builder()
+                .claim(CLAIM_FAMILY_ID, familyId)
+                .setId(tokenId)
+                .setSubject(email)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(expiresAt)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
     }
 
     private String buildToken(
@@ -72,27 +149,37 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        log.debug("Checking token validity: {}", userDetails.getUsername());
         try {
-            final String username = extractUsername(token);
-            boolean isValid = (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-            if (!isValid) {
-                log.warn("Token is invalid: Username mismatch or expired. User: {}", userDetails.getUsername());
-            }
-            return isValid;
+            return isTokenValid(extractAllClaims(token), userDetails);
         } catch (Exception e) {
             log.error("Error occurred while validating token: {}", e.getMessage());
             return false;
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expiration = extractExpiration(token);
+    /**
+     * Checks already verified claims against the loaded user, without parsing the token again.
+     *
+     * @param claims      Claims returned by {@link #parseToken(String)}
+     * @param userDetails Loaded user
+     * @return true if the token belongs to the user and has not expired
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        log.debug("Checking token validity: {}", userDetails.getUsername());
+        boolean isValid = userDetails.getUsername().equals(claims.getSubject()) && !isTokenExpired(claims);
+        if (!isValid) {
+            log.warn("Token is invalid: Username mismatch or expired. User: {}", userDetails.getUsername());
+        }
+        return isValid;
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
         boolean isExpired = expiration.before(new Date());
         if (isExpired) {
             log.warn("Token has expired. Expiration date: {}", expiration);
@@ -100,17 +187,10 @@ public class JwtService {
         return isExpired;
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
     private Claims extractAllClaims(String token) {
         log.trace("Parsing JWT Claims...");
         try {
-            return Jwts
-                    .parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
+            return jwtParser
                     .parseClaimsJws(token)
                     .getBody();
         } catch (ExpiredJwtException e) {
@@ -130,9 +210,4 @@ public class JwtService {
             throw new InvalidTokenException("JWT claim is empty");
         }
     }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
\ No newline at end of file
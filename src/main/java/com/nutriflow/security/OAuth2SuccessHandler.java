@@ -7,15 +7,12 @@ import com.nutriflow.repositories.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
 
 @Component
 @RequiredArgsConstructor
@@ -23,13 +20,7 @@ public class OAuth2SuccessHandler extends SimpleUrlAuthenticationSuccessHandler
 
     private final UserRepository userRepository;
     private final JwtService jwtService;
-    private final RedisTemplate<String, String> redisTemplate;
-
-    @Value("${nutriflow.jwt.refresh-token.expiration}")
-    private long refreshExpiration;
-
-    @Value("${nutriflow.redis.prefix.refresh-token}")
-    private String refreshTokenPrefix;
+    private final RefreshTokenStore refreshTokenStore;
 
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
@@ -54,25 +45,22 @@ public class OAuth2SuccessHandler extends SimpleUrlAuthenticationSuccessHandler
                     return userRepository.save(newUser);
                 });
 
-        SecurityUser securityUser = new SecurityUser(
-                user.getId(),
-                user.getEmail(),
-                user.getPassword(),
-                user.getRole().name(),
-                user.isEmailVerified()
-        );
+        AccountSummary summary = AccountSummary.builder()
+                .accountId(user.getId())
+                .email(user.getEmail())
+                .role(user.getRole().name())
+                .active(user.isEmailVerified())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .phone(user.getPhoneNumber())
+                .status(user.getStatus().name())
+                .build();
 
         // 2. Generate tokens
-        String accessToken = jwtService.generateToken(securityUser);
-        String refreshToken = jwtService.generateRefreshToken(securityUser);
-
-        // 3. Store Refresh Token in Redis
-        redisTemplate.opsForValue().set(
-                refreshTokenPrefix + securityUser.getUsername(),
-                refreshToken,
-                refreshExpiration,
-                TimeUnit.MILLISECONDS
-        );
+        String accessToken = jwtService.generateToken(summary.toSecurityUser());
+
+        // 3. Start a refresh token family in Redis
+        String refreshToken = refreshTokenStore.createFamily(summary);
 
         // 4. Flow Control
         String targetUrl = determineTargetUrl(user, accessToken, refreshToken);
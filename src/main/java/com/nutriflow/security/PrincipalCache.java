@@ -0,0 +1,69 @@
+package com.nutriflow.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nutriflow.events.AccountChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, TTL-based in-memory cache of {@link SecurityUser} keyed by email.
+ * Only successfully loaded principals are cached; inactive or unknown accounts always hit the database.
+ * Entries are evicted as soon as an account change commits, the TTL only bounds staleness
+ * for changes made outside the application.
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private final Cache<String, SecurityUser> cache;
+    private final boolean enabled;
+
+    public PrincipalCache(MeterRegistry meterRegistry,
+                          @Value("${nutriflow.security.principal-cache.enabled:true}") boolean enabled,
+                          @Value("${nutriflow.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${nutriflow.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size under cache=principals
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+        log.info("Principal cache initialized: enabled={}, maxSize={}, ttl={}s", enabled, maxSize, ttlSeconds);
+    }
+
+    /**
+     * @param email  Account email
+     * @param loader Database lookup used on a miss; exceptions propagate and nothing is cached
+     * @return Cached or freshly loaded principal
+     */
+    public SecurityUser get(String email, Function<String, SecurityUser> loader) {
+        if (!enabled) {
+            return loader.apply(email);
+        }
+        return cache.get(email, loader);
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+        log.debug("Principal evicted from cache: {}", email);
+    }
+
+    /**
+     * Evicts after commit so a concurrent request cannot reload the pre-change row into the cache.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        evict(event.getEmail());
+    }
+}
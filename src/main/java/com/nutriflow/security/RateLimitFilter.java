@@ -0,0 +1,197 @@
+package com.nutriflow.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriflow.config.RateLimitProperties;
+import com.nutriflow.config.RateLimitProperties.Bucket;
+import com.nutriflow.config.RateLimitProperties.EndpointLimit;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Throttles the public auth endpoints before any database, hashing or mail work happens.
+ * Every request is charged against a bucket per client IP and, when the request names an
+ * email (JSON body or {@code email} parameter), a bucket per email. Redis failures fail open.
+ *
+ * The IP bucket is keyed on {@link HttpServletRequest#getRemoteAddr()}, never on forwarding headers
+ * a client can set. Behind a load balancer, set {@code server.forward-headers-strategy=native} and
+ * list the balancers in {@code server.tomcat.remoteip.internal-proxies}; the remote address is then
+ * taken from X-Forwarded-For only when the request came through one of them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH_PREFIX = "/api/v1/auth/";
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final RedisRateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !"POST".equalsIgnoreCase(request.getMethod())
+                || resolveEndpoint(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String endpoint = resolveEndpoint(request);
+        EndpointLimit limit = properties.getEndpoints().get(endpoint);
+
+        // Body is read once here and replayed to the controller
+        HttpServletRequest effectiveRequest = request;
+        String email = request.getParameter("email");
+        if (email == null && limit.getEmail() != null && isJson(request)) {
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            effectiveRequest = cached;
+            email = extractEmail(cached.body);
+        }
+
+        List<String> keys = new ArrayList<>(2);
+        List<Bucket> buckets = new ArrayList<>(2);
+        if (limit.getIp() != null) {
+            keys.add(properties.getKeyPrefix() + endpoint + ":ip:" + request.getRemoteAddr());
+            buckets.add(limit.getIp());
+        }
+        if (limit.getEmail() != null && email != null && !email.isBlank()) {
+            keys.add(properties.getKeyPrefix() + endpoint + ":email:" + email.trim().toLowerCase(Locale.ROOT));
+            buckets.add(limit.getEmail());
+        }
+
+        long retryAfterMillis = 0;
+        if (!keys.isEmpty()) {
+            try {
+                retryAfterMillis = rateLimiter.tryConsume(keys, buckets);
+            } catch (RuntimeException e) {
+                log.warn("Rate limit check skipped (Redis unavailable): {}", e.getMessage());
+            }
+        }
+
+        if (retryAfterMillis > 0) {
+            long retryAfterSeconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+            log.warn("Rate limit exceeded: endpoint={}, keys={}, retryAfter={}s", endpoint, keys, retryAfterSeconds);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\": \"Too many requests, please try again later\"}");
+            return;
+        }
+
+        filterChain.doFilter(effectiveRequest, response);
+    }
+
+    private String resolveEndpoint(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(AUTH_PATH_PREFIX)) {
+            return null;
+        }
+        String endpoint = path.substring(AUTH_PATH_PREFIX.length());
+        return properties.getEndpoints().containsKey(endpoint) ? endpoint : null;
+    }
+
+    private boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private String extractEmail(byte[] body) {
+        if (body.length == 0 || body.length > MAX_BODY_BYTES) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(body).get("email");
+            return node != null && node.isTextual() ? node.asText() : null;
+        } catch (IOException e) {
+            // Malformed JSON is rejected by the controller; only the IP bucket applies
+            return null;
+        }
+    }
+
+    /**
+     * Request wrapper that buffers the body so it can be inspected and then replayed.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream source = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return source.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The whole body is already in memory, so it is available and complete at once
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return source.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return source.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.nutriflow.security;
+
+import com.nutriflow.config.RateLimitProperties.Bucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token buckets stored in Redis and updated by a single Lua script,
+ * so concurrent requests on any instance see one consistent budget.
+ */
+@Component
+@Slf4j
+public class RedisRateLimiter {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisScript<List<Long>> tokenBucketScript;
+
+    public RedisRateLimiter(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.tokenBucketScript = tokenBucketScript();
+    }
+
+    /**
+     * Takes one token from every bucket, or from none if any of them is empty.
+     *
+     * @param keys    Redis keys of the buckets
+     * @param buckets Limits, in the same order as the keys
+     * @return 0 if allowed, otherwise milliseconds until a retry can succeed
+     */
+    public long tryConsume(List<String> keys, List<Bucket> buckets) {
+        List<String> args = new ArrayList<>(buckets.size() * 2);
+        for (Bucket bucket : buckets) {
+            args.add(String.valueOf(bucket.getCapacity()));
+            args.add(String.valueOf(bucket.getRefillPerMinute() / 60_000d));
+        }
+
+        List<Long> result = redisTemplate.execute(tokenBucketScript, keys, args.toArray());
+        if (result == null || result.size() < 2) {
+            return 0;
+        }
+        boolean allowed = result.get(0) == 1L;
+        return allowed ? 0 : Math.max(1L, result.get(1));
+    }
+
+    // The script returns {allowed, retryAfterMillis}; Redis turns Lua numbers into Long
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Long>> tokenBucketScript() {
+        DefaultRedisScript<List<Long>> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/token-bucket.lua")));
+        script.setResultType((Class<List<Long>>) (Class<?>) List.class);
+        return script;
+    }
+}
@@ -0,0 +1,295 @@
+package com.nutriflow.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriflow.constants.AuthMessages;
+import com.nutriflow.events.AccountChangedEvent;
+import com.nutriflow.exceptions.InvalidTokenException;
+import com.nutriflow.helpers.RedisStatsRecorder;
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Refresh token families in Redis.
+ *
+ * Layout (prefix = nutriflow.redis.prefix.refresh-token):
+ *   family:&lt;fid&gt;            hash: email, current (jti of the only valid token), expiresAt, cachedAt, profile (JSON)
+ *   account:&lt;email&gt;         set of the account's family ids, used to revoke everything at once
+ *   profile-changed:&lt;email&gt; epoch millis of the last profile change, compared with cachedAt
+ *
+ * Every refresh rotates the token with a compare-and-set script; presenting an already rotated
+ * token revokes the whole family. A successful rotation returns the cached profile, so a
+ * refresh normally costs one Redis round trip and no database query.
+ */
+@Service
+@Slf4j
+public class RefreshTokenStore {
+
+    private static final String FIELD_EMAIL = "email";
+    private static final String FIELD_CURRENT = "current";
+    private static final String FIELD_EXPIRES_AT = "expiresAt";
+    private static final String FIELD_CACHED_AT = "cachedAt";
+    private static final String FIELD_PROFILE = "profile";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final JwtService jwtService;
+    private final RedisStatsRecorder redisStatsRecorder;
+    private final RedisScript<List<Object>> rotateScript;
+
+    @Value("${nutriflow.redis.prefix.refresh-token}")
+    private String refreshTokenPrefix;
+
+    // Upper bound on how long a cached profile is trusted, for changes made outside the application
+    @Value("${nutriflow.jwt.refresh-token.profile-max-age-seconds:900}")
+    private long profileMaxAgeSeconds;
+
+    public RefreshTokenStore(RedisTemplate<String, String> redisTemplate,
+                             ObjectMapper objectMapper,
+                             JwtService jwtService,
+                             RedisStatsRecorder redisStatsRecorder) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.jwtService = jwtService;
+        this.redisStatsRecorder = redisStatsRecorder;
+        this.rotateScript = rotateScript();
+    }
+
+    // The script returns {status, profileChangedAt, field, value, ...} of mixed reply types
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Object>> rotateScript() {
+        DefaultRedisScript<List<Object>> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/refresh-rotate.lua")));
+        script.setResultType((Class<List<Object>>) (Class<?>) List.class);
+        return script;
+    }
+
+    /**
+     * Starts a new family after login and returns its first refresh token.
+     *
+     * @param summary Freshly loaded account summary
+     * @return Signed refresh token
+     */
+    public String createFamily(AccountSummary summary) {
+        String familyId = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        long ttl = jwtService.getRefreshExpiration();
+        long expiresAt = now + ttl;
+
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FIELD_EMAIL, summary.getEmail());
+        fields.put(FIELD_CURRENT, tokenId);
+        fields.put(FIELD_EXPIRES_AT, String.valueOf(expiresAt));
+        fields.put(FIELD_CACHED_AT, String.valueOf(now));
+        fields.put(FIELD_PROFILE, writeProfile(summary));
+
+        String familyKey = familyKey(familyId);
+        String accountKey = accountKey(summary.getEmail());
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForHash().putAll(familyKey, fields);
+                ops.expire(familyKey, ttl, TimeUnit.MILLISECONDS);
+                ops.opsForSet().add(accountKey, familyId);
+                ops.expire(accountKey, ttl, TimeUnit.MILLISECONDS);
+                redisStatsRecorder.familyCreated(ops, familyId, expiresAt);
+                return null;
+            }
+        });
+
+        log.info("Refresh token family created: email={}, family={}", summary.getEmail(), familyId);
+        return jwtService.generateRefreshToken(summary.getEmail(), familyId, tokenId, new Date(expiresAt));
+    }
+
+    /**
+     * Rotates the presented refresh token.
+     *
+     * @param claims Verified refresh token claims (must carry a family id)
+     * @return New refresh token with the cached profile
+     * @throws InvalidTokenException if the family is gone or the token was already used
+     */
+    public Rotation rotate(Claims claims) {
+        String familyId = claims.get(JwtService.CLAIM_FAMILY_ID, String.class);
+        String email = claims.getSubject();
+        String newTokenId = UUID.randomUUID().toString();
+
+        List<Object> result = redisTemplate.execute(rotateScript,
+                List.of(familyKey(familyId), profileChangedKey(email)),
+                String.valueOf(claims.getId()), newTokenId);
+
+        long status = (result == null || result.isEmpty()) ? 0 : ((Number) result.get(0)).longValue();
+        if (status == -1) {
+            log.warn("Refresh token reuse detected, family revoked: email={}, family={}", email, familyId);
+            pipelined(ops -> redisStatsRecorder.tokenReuse(ops, familyId));
+            throw new InvalidTokenException(AuthMessages.REFRESH_TOKEN_REUSED);
+        }
+        if (status != 1) {
+            throw new InvalidTokenException(AuthMessages.INVALID_REFRESH_TOKEN);
+        }
+
+        String profileChangedAt = String.valueOf(result.get(1));
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 2; i + 1 < result.size(); i += 2) {
+            fields.put(String.valueOf(result.get(i)), String.valueOf(result.get(i + 1)));
+        }
+
+        long cachedAt = Long.parseLong(fields.get(FIELD_CACHED_AT));
+        boolean changed = !profileChangedAt.isEmpty() && Long.parseLong(profileChangedAt) >= cachedAt;
+        boolean expired = System.currentTimeMillis() - cachedAt > profileMaxAgeSeconds * 1000;
+
+        Date expiresAt = new Date(Long.parseLong(fields.get(FIELD_EXPIRES_AT)));
+        String refreshToken = jwtService.generateRefreshToken(email, familyId, newTokenId, expiresAt);
+
+        return new Rotation(familyId, refreshToken, readProfile(fields.get(FIELD_PROFILE)), changed || expired);
+    }
+
+    /**
+     * Replaces the cached profile of a family after it was reloaded from the database.
+     */
+    public void updateProfile(String familyId, AccountSummary summary) {
+        String familyKey = familyKey(familyId);
+        Map<String, String> fields = Map.of(
+                FIELD_PROFILE, writeProfile(summary),
+                FIELD_CACHED_AT, String.valueOf(System.currentTimeMillis()));
+        // Only update a family that still exists, never recreate it without a TTL
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(familyKey))) {
+            redisTemplate.opsForHash().putAll(familyKey, fields);
+        }
+    }
+
+    public void revokeFamily(String familyId) {
+        pipelined(ops -> {
+            ops.delete(familyKey(familyId));
+            redisStatsRecorder.familiesRevoked(ops, familyId);
+        });
+    }
+
+    /**
+     * Revokes every refresh token of an account, including a pre-family token stored under the plain email key.
+     */
+    public void revokeAll(String email) {
+        String accountKey = accountKey(email);
+        Set<String> familyIds = redisTemplate.opsForSet().members(accountKey);
+
+        List<String> keys = new ArrayList<>();
+        keys.add(accountKey);
+        keys.add(legacyKey(email));
+        if (familyIds != null) {
+            familyIds.forEach(id -> keys.add(familyKey(id)));
+        }
+        pipelined(ops -> {
+            ops.delete(keys);
+            if (familyIds != null) {
+                redisStatsRecorder.familiesRevoked(ops, familyIds.toArray());
+            }
+        });
+        log.info("Refresh token families revoked: email={}, families={}", email, familyIds == null ? 0 : familyIds.size());
+    }
+
+    /**
+     * Marks every cached profile of the account as outdated; the next refresh reloads it once.
+     */
+    public void markProfileChanged(String email) {
+        redisTemplate.opsForValue().set(profileChangedKey(email), String.valueOf(System.currentTimeMillis()),
+                jwtService.getRefreshExpiration(), TimeUnit.MILLISECONDS);
+    }
+
+    // ============== LEGACY TOKENS ==============
+
+    /**
+     * Checks a refresh token issued before families existed (stored as a plain string per email)
+     * and consumes it, so it can be exchanged for a new family exactly once.
+     */
+    public boolean consumeLegacyToken(String email, String token) {
+        String key = legacyKey(email);
+        String stored = redisTemplate.opsForValue().get(key);
+        if (stored == null || !stored.equals(token)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(redisTemplate.delete(key));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        if (event.getReason() == AccountChangedEvent.Reason.PROFILE_UPDATED) {
+            markProfileChanged(event.getEmail());
+        }
+    }
+
+    /**
+     * Sends the given commands as one pipeline.
+     */
+    private void pipelined(Consumer<RedisOperations<String, String>> commands) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
+    }
+
+    private String writeProfile(AccountSummary summary) {
+        try {
+            return objectMapper.writeValueAsString(summary);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize account summary", e);
+        }
+    }
+
+    private AccountSummary readProfile(String json) {
+        try {
+            return objectMapper.readValue(json, AccountSummary.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidTokenException(AuthMessages.INVALID_REFRESH_TOKEN);
+        }
+    }
+
+    private String familyKey(String familyId) {
+        return refreshTokenPrefix + "family:" + familyId;
+    }
+
+    private String accountKey(String email) {
+        return refreshTokenPrefix + "account:" + email;
+    }
+
+    private String profileChangedKey(String email) {
+        return refreshTokenPrefix + "profile-changed:" + email;
+    }
+
+    private String legacyKey(String email) {
+        return refreshTokenPrefix + email;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Rotation {
+        private final String familyId;
+        private final String refreshToken;
+        private final AccountSummary summary;
+        /** True if the cached profile must be reloaded before answering */
+        private final boolean profileOutdated;
+    }
+}
@@ -0,0 +1,76 @@
+package com.nutriflow.security;
+
+import com.nutriflow.events.AccountChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis-backed revocation list for access tokens.
+ * Stores one key per account holding the revocation time; every token issued
+ * before that time is rejected. The key lives as long as an access token, so
+ * the list never grows beyond the accounts changed within that window.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RefreshTokenStore refreshTokenStore;
+
+    @Value("${nutriflow.jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${nutriflow.redis.prefix.revoked:REVOKED:}")
+    private String revokedPrefix;
+
+    /**
+     * Revokes every access and refresh token issued to the account so far.
+     *
+     * @param email JWT subject of the account
+     */
+    public void revokeAll(String email) {
+        long revokedAt = Instant.now().getEpochSecond();
+        redisTemplate.opsForValue().set(revokedPrefix + email, String.valueOf(revokedAt),
+                jwtExpiration, TimeUnit.MILLISECONDS);
+        refreshTokenStore.revokeAll(email);
+        log.info("🔒 [REVOKE] Tokens revoked: email={}, revokedAt={}", email, revokedAt);
+    }
+
+    /**
+     * Single Redis GET: checks whether a token was issued before the account's revocation time.
+     * JWT issue times have second precision, so a token issued within the same second
+     * as the revocation is still accepted.
+     *
+     * @param email    JWT subject
+     * @param issuedAt Token issue time
+     * @return true if the token must be rejected
+     */
+    public boolean isRevoked(String email, Date issuedAt) {
+        String revokedAt = redisTemplate.opsForValue().get(revokedPrefix + email);
+        if (revokedAt == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.toInstant().getEpochSecond() < Long.parseLong(revokedAt);
+    }
+
+    /**
+     * Runs before the account change commits: if Redis is unavailable the change is
+     * rolled back instead of leaving old tokens valid.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        if (event.revokesTokens()) {
+            revokeAll(event.getEmail());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.nutriflow.services;
+
+import com.nutriflow.dto.response.DeliveryArchiveResponse;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+public interface DeliveryArchiveService {
+    int archiveAndPurge(LocalDate cutoff);
+    List<DeliveryArchiveResponse> listArchives();
+    StreamingResponseBody openArchive(YearMonth month, boolean compressed);
+}
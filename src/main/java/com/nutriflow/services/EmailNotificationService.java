@@ -1,95 +1,144 @@
 package com.nutriflow.services;
 
 import com.nutriflow.entities.SubscriptionEntity;
-import com.nutriflow.repositories.SubscriptionRepository;
+import com.nutriflow.enums.EmailCategory;
+import com.nutriflow.events.SubscriptionWarningsClaimedEvent;
+import com.nutriflow.events.SubscriptionsExpiredEvent;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-
+import java.util.Map;
+
+/**
+ * Builds notification emails and writes them to the email outbox. The rows join the caller's
+ * transaction and are delivered by {@code EmailOutboxWorker}.
+ *
+ * The only exception is the weekly report with file attachments: the files exist on the local
+ * disk of the node that wrote them, so that email is sent directly over SMTP.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
 public class EmailNotificationService {
 
-    private final JavaMailSender mailSender;
-
+    private static final String SENDER = "tural57535@gmail.com";
+    private static final String ADMIN_EMAIL = "tural57535@gmail.com";
 
-    // ✅ Add if repository is needed (not required in this service)
-    // private final SubscriptionRepository subscriptionRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final JavaMailSender mailSender;
 
     /**
      * Subscription expiration warning - 7 days remaining
      */
     public void sendSubscriptionExpirationWarning(SubscriptionEntity subscription) {
-        try {
-            String userEmail = subscription.getUser().getEmail();
-            String userName = subscription.getUser().getFirstName();
-            String endDate = subscription.getEndDate()
-                    .format(DateTimeFormatter.ofPattern("dd MMMM yyyy"));
+        emailOutboxService.enqueue(expirationWarning(subscription.getUser().getEmail(),
+                subscription.getUser().getFirstName(), subscription.getEndDate()));
 
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom("tural57535@gmail.com");
-            message.setTo(userEmail);
-            message.setSubject("⚠️ Your NutriFlow Premium Subscription is Expiring Soon");
-            message.setText(buildExpirationWarningEmail(userName, endDate));
-
-            mailSender.send(message);
+        log.info("✅ [EMAIL] Subscription expiration warning queued: {}", subscription.getUser().getEmail());
+    }
 
-            log.info("✅ [EMAIL] Subscription expiration warning sent: {}", userEmail);
+    /**
+     * Expiration warnings for a claimed ledger chunk.
+     * Runs synchronously inside the claiming transaction, so ledger rows and emails commit together.
+     */
+    @EventListener
+    public void onWarningsClaimed(SubscriptionWarningsClaimedEvent event) {
+        emailOutboxService.enqueueAll(event.getWarnings().stream()
+                .map(warning -> expirationWarning(warning.getEmail(), warning.getFirstName(), warning.getEndDate()))
+                .toList());
 
-        } catch (Exception e) {
-            log.error("❌ [EMAIL] Email could not be sent: {}", e.getMessage(), e);
-        }
+        log.info("✅ [EMAIL] Subscription expiration warnings queued: {}", event.getWarnings().size());
     }
 
     /**
-     * Subscription expired notification
+     * Subscription expired notifications for an expiry chunk.
+     * Runs synchronously inside the expiry transaction, so status changes and emails commit together.
      */
-    public void sendSubscriptionExpiredNotification(SubscriptionEntity subscription) {
-        try {
-            String userEmail = subscription.getUser().getEmail();
-            String userName = subscription.getUser().getFirstName();
+    @EventListener
+    public void onSubscriptionsExpired(SubscriptionsExpiredEvent event) {
+        emailOutboxService.enqueueAll(event.getSubscriptions().stream()
+                .map(expired -> expiredNotification(expired.getEmail(), expired.getFirstName()))
+                .toList());
 
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom("tural57535@gmail.com");
-            message.setTo(userEmail);
-            message.setSubject("❌ Your NutriFlow Premium Subscription Has Expired");
-            message.setText(buildExpiredEmail(userName));
-
-            mailSender.send(message);
+        log.info("✅ [EMAIL] Subscription expired notifications queued: {}", event.getSubscriptions().size());
+    }
 
-            log.info("✅ [EMAIL] Subscription expired notification sent: {}", userEmail);
+    /**
+     * Subscription expired notification
+     */
+    public void sendSubscriptionExpiredNotification(String userEmail, String userName) {
+        emailOutboxService.enqueue(expiredNotification(userEmail, userName));
 
-        } catch (Exception e) {
-            log.error("❌ [EMAIL] Email could not be sent: {}", e.getMessage(), e);
-        }
+        log.info("✅ [EMAIL] Subscription expired notification queued: {}", userEmail);
     }
 
     /**
      * Weekly report for admin
      */
     public void sendWeeklyReportToAdmin(long activeCount, long expiredCount, long cancelledCount) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom("tural57535@gmail.com");
-            message.setTo("tural57535@gmail.com");
-            message.setSubject("📊 NutriFlow - Weekly Subscription Report");
-            message.setText(buildWeeklyReportEmail(activeCount, expiredCount, cancelledCount));
+        emailOutboxService.enqueue(EmailOutboxService.OutboxEmail.of(EmailCategory.WEEKLY_REPORT, SENDER, ADMIN_EMAIL,
+                "📊 NutriFlow - Weekly Subscription Report",
+                buildWeeklyReportEmail(activeCount, expiredCount, cancelledCount)));
 
-            mailSender.send(message);
+        log.info("✅ [EMAIL] Weekly report queued for admin");
+    }
+
+    /**
+     * Weekly report for admin with report files attached (file name -> local file).
+     * Falls back to the plain outbox report if the email cannot be sent.
+     */
+    public void sendWeeklyReportToAdmin(long activeCount, long expiredCount, long cancelledCount,
+                                        Map<String, Path> attachments) {
+        if (attachments.isEmpty()) {
+            sendWeeklyReportToAdmin(activeCount, expiredCount, cancelledCount);
+            return;
+        }
 
-            log.info("✅ [EMAIL] Weekly report sent to admin");
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, StandardCharsets.UTF_8.name());
+            helper.setFrom(SENDER);
+            helper.setTo(ADMIN_EMAIL);
+            helper.setSubject("📊 NutriFlow - Weekly Subscription Report");
+            helper.setText(buildWeeklyReportEmail(activeCount, expiredCount, cancelledCount));
+            for (Map.Entry<String, Path> attachment : attachments.entrySet()) {
+                helper.addAttachment(attachment.getKey(), new FileSystemResource(attachment.getValue()));
+            }
+            mailSender.send(message);
 
-        } catch (Exception e) {
-            log.error("❌ [EMAIL] Admin report could not be sent: {}", e.getMessage(), e);
+            log.info("✅ [EMAIL] Weekly report sent to admin | Attachments: {}", attachments.keySet());
+        } catch (MessagingException | MailException e) {
+            log.warn("⚠️ [EMAIL] Weekly report with attachments could not be sent, queueing it without: {}",
+                    e.getMessage());
+            sendWeeklyReportToAdmin(activeCount, expiredCount, cancelledCount);
         }
     }
 
+    private EmailOutboxService.OutboxEmail expirationWarning(String userEmail, String userName, LocalDate endDate) {
+        String formattedEndDate = endDate.format(DateTimeFormatter.ofPattern("dd MMMM yyyy"));
+        return EmailOutboxService.OutboxEmail.of(EmailCategory.SUBSCRIPTION_EXPIRATION_WARNING, SENDER, userEmail,
+                "⚠️ Your NutriFlow Premium Subscription is Expiring Soon",
+                buildExpirationWarningEmail(userName, formattedEndDate));
+    }
+
+    private EmailOutboxService.OutboxEmail expiredNotification(String userEmail, String userName) {
+        return EmailOutboxService.OutboxEmail.of(EmailCategory.SUBSCRIPTION_EXPIRED, SENDER, userEmail,
+                "❌ Your NutriFlow Premium Subscription Has Expired",
+                buildExpiredEmail(userName));
+    }
+
     // ============== EMAIL TEMPLATES ==============
 
     private String buildExpirationWarningEmail(String userName, String endDate) {
@@ -0,0 +1,41 @@
+package com.nutriflow.services;
+
+import com.nutriflow.enums.EmailCategory;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxService {
+
+    void enqueue(OutboxEmail email);
+
+    void enqueueAll(List<OutboxEmail> emails);
+
+    List<OutboxEmail> claimBatch(String workerId, int limit);
+
+    void markSent(List<Long> ids);
+
+    boolean markFailed(OutboxEmail email, String error, boolean permanent);
+
+    int purgeSent(LocalDateTime before);
+
+    @Getter
+    @ToString(exclude = "body")
+    @RequiredArgsConstructor
+    class OutboxEmail {
+        private final Long id;
+        private final EmailCategory category;
+        private final String sender;
+        private final String recipient;
+        private final String subject;
+        private final String body;
+        private final int attempts;
+
+        public static OutboxEmail of(EmailCategory category, String sender, String recipient, String subject, String body) {
+            return new OutboxEmail(null, category, sender, recipient, subject, body, 0);
+        }
+    }
+}
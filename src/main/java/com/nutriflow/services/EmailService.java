@@ -1,58 +1,90 @@
 package com.nutriflow.services;
 
-import lombok.RequiredArgsConstructor;
+import com.nutriflow.enums.EmailCategory;
+import com.nutriflow.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+/**
+ * OTP emails, sent in the background on the bounded {@code emailExecutor} pool.
+ * When the pool's queue is full the request fails with 503 and the client asks for a new code;
+ * OTP emails are never written to the email outbox, where the code would be stored in plain text
+ * and could be delivered after it expired.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
 public class EmailService {
 
+    private static final String SENDER = "NutriFlow <noreply@nutriflow.com>";
+
     private final JavaMailSender mailSender;
+    private final ThreadPoolTaskExecutor emailExecutor;
+    private final MeterRegistry meterRegistry;
+
+    public EmailService(JavaMailSender mailSender,
+                        @Qualifier("emailExecutor") ThreadPoolTaskExecutor emailExecutor,
+                        MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.emailExecutor = emailExecutor;
+        this.meterRegistry = meterRegistry;
+    }
 
-    @Async
     public void sendVerificationEmail(String to, String otp) {
         log.info("Email sending process started. Recipient: {}", to);
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setFrom("NutriFlow <noreply@nutriflow.com>");
-            message.setSubject("NutriFlow - Verification Code");
-            message.setText("Hello!\n\n" +
-                    "Thank you for joining NutriFlow. " +
-                    "Your verification code to activate your account is: " + otp + "\n\n" +
-                    "This code is valid for 5 minutes.\n\n" +
-                    "Best regards,\nNutriFlow Team");
-            mailSender.send(message);
-            log.info("Verification email sent successfully: {}", to);
-        } catch (Exception e) {
-            log.error("Error sending verification email! Recipient: {}, Error: {}", to, e.getMessage());
-        }
+        send(EmailCategory.VERIFICATION_CODE, to,
+                "NutriFlow - Verification Code",
+                "Hello!\n\n" +
+                "Thank you for joining NutriFlow. " +
+                "Your verification code to activate your account is: " + otp + "\n\n" +
+                "This code is valid for 5 minutes.\n\n" +
+                "Best regards,\nNutriFlow Team");
     }
 
-    @Async
     public void sendForgotPasswordEmail(String to, String otp) {
         log.info("Forgot password email sending started. Recipient: {}", to);
+        send(EmailCategory.PASSWORD_RESET, to,
+                "NutriFlow - Password Reset Code",
+                "Hello!\n\n" +
+                "We received a request to reset your NutriFlow account password.\n" +
+                "Your password reset code is: " + otp + "\n\n" +
+                "This code is valid for 5 minutes.\n" +
+                "If you did not request this, please ignore this email.\n\n" +
+                "Best regards,\nNutriFlow Team");
+    }
+
+    private void send(EmailCategory category, String to, String subject, String text) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setFrom("NutriFlow <noreply@nutriflow.com>");
-            message.setSubject("NutriFlow - Password Reset Code");
-            message.setText("Hello!\n\n" +
-                    "We received a request to reset your NutriFlow account password.\n" +
-                    "Your password reset code is: " + otp + "\n\n" +
-                    "This code is valid for 5 minutes.\n" +
-                    "If you did not request this, please ignore this email.\n\n" +
-                    "Best regards,\nNutriFlow Team");
-            mailSender.send(message);
-            log.info("Forgot password email sent successfully: {}", to);
-        } catch (Exception e) {
-            log.error("Error sending forgot password email! Recipient: {}, Error: {}", to, e.getMessage());
+            emailExecutor.execute(() -> {
+                try {
+                    SimpleMailMessage message = new SimpleMailMessage();
+                    message.setTo(to);
+                    message.setFrom(SENDER);
+                    message.setSubject(subject);
+                    message.setText(text);
+                    mailSender.send(message);
+                    log.info("{} email sent successfully: {}", category, to);
+                } catch (Exception e) {
+                    log.error("Error sending {} email! Recipient: {}, Error: {}", category, to, e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rejected(category).increment();
+            log.warn("Email pool saturated ({} queued), {} email to {} rejected", emailExecutor.getQueueSize(), category, to);
+            throw new ServiceBusyException("Email service is busy, please request a new code shortly");
         }
     }
-}
\ No newline at end of file
+
+    private Counter rejected(EmailCategory category) {
+        return Counter.builder("nutriflow.mail.async.rejected")
+                .tag("category", category.name())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.nutriflow.services;
+
+import com.nutriflow.dto.response.JobResponse;
+import com.nutriflow.dto.response.JobRunResponse;
+import com.nutriflow.dto.response.JobStatsResponse;
+import com.nutriflow.enums.JobRunStatus;
+
+import java.util.List;
+
+public interface JobService {
+    List<JobResponse> listJobs();
+    JobRunResponse trigger(String jobName);
+    JobRunResponse getRun(Long runId);
+    List<JobRunResponse> getRecentRuns(String jobName, int limit);
+    JobStatsResponse getStats(String jobName, int days);
+
+    long startRun(String jobName, Long queuedRunId);
+    void finishRun(long runId, String jobName, JobRunStatus status, long durationMs, Long affectedRows, String error);
+}
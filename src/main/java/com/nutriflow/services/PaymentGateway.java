@@ -0,0 +1,92 @@
+package com.nutriflow.services;
+
+import com.nutriflow.entities.Money;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Hosted checkout and off-session charges at a payment provider. The implementation is picked with
+ * nutriflow.payments.gateway: stripe (default) or fake (in-process, no network).
+ */
+public interface PaymentGateway {
+
+    /**
+     * Creates a checkout session. Calls with the same idempotency key return the same session
+     * instead of creating another one; like Stripe, a provider may reject a key reused with a
+     * different request, so callers sharing a key must send equal requests.
+     */
+    CheckoutSession createCheckoutSession(CheckoutRequest request, String idempotencyKey);
+
+    /**
+     * Charges the customer's saved payment method without the customer being present. A decline is
+     * a result, not an exception.
+     *
+     * @throws com.nutriflow.exceptions.PaymentGatewayException if the outcome is unknown; resolve it
+     *         with {@link #findCharge(String)} before charging again
+     */
+    ChargeResult charge(ChargeRequest request, String idempotencyKey);
+
+    /**
+     * Looks up the charge made with this idempotency key, independent of how long the provider keeps
+     * idempotency keys.
+     *
+     * @return Empty if no charge with this key reached the provider
+     */
+    Optional<ChargeResult> findCharge(String idempotencyKey);
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    class CheckoutRequest {
+        private final String productName;
+        private final String productDescription;
+        private final Money amount;
+        // Part of the request, so every call sharing an idempotency key sends the same expiry
+        private final Instant expiresAt;
+        private final Map<String, String> metadata;
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    class CheckoutSession {
+        private final String id;
+        private final String url;
+        private final Instant expiresAt;
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    class ChargeRequest {
+        private final String customerRef;
+        private final Money amount;
+        private final String description;
+        private final Map<String, String> metadata;
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    class ChargeResult {
+        private final boolean succeeded;
+        private final String transactionRef;
+        private final String failureReason;
+
+        public static ChargeResult succeeded(String transactionRef) {
+            return new ChargeResult(true, transactionRef, null);
+        }
+
+        public static ChargeResult declined(String failureReason) {
+            return new ChargeResult(false, null, failureReason);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.nutriflow.services;
 
-import com.stripe.exception.StripeException;
-
 public interface PaymentService {
 
-    String createCheckoutSession(Long userId) throws StripeException;
+    String createCheckoutSession(Long userId);
     void handleStripeWebhook(String payload, String sigHeader);
+    void processStripeEvent(String payload);
 
 }
\ No newline at end of file
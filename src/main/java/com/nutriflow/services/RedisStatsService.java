@@ -0,0 +1,8 @@
+package com.nutriflow.services;
+
+import com.nutriflow.dto.response.RedisStatsResponse;
+
+public interface RedisStatsService {
+    RedisStatsResponse getStats();
+    RedisStatsResponse getLastSnapshot();
+}
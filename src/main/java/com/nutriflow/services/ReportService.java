@@ -0,0 +1,16 @@
+package com.nutriflow.services;
+
+import com.nutriflow.enums.ReportFormat;
+import com.nutriflow.enums.ReportType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+public interface ReportService {
+    StreamingResponseBody stream(ReportType type, ReportFormat format, LocalDate from, LocalDate to);
+    long write(ReportType type, ReportFormat format, LocalDate from, LocalDate to, OutputStream out);
+    Path writeToFile(ReportType type, ReportFormat format, LocalDate from, LocalDate to);
+    String fileName(ReportType type, ReportFormat format, LocalDate from, LocalDate to);
+}
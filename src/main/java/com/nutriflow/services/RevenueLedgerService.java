@@ -0,0 +1,32 @@
+package com.nutriflow.services;
+
+import com.nutriflow.entities.Money;
+import com.nutriflow.entities.PaymentEntity;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface RevenueLedgerService {
+
+    boolean recordPayment(PaymentEntity payment);
+
+    int recordPayments(List<PaymentBooking> bookings);
+
+    Money totalRevenue(String currency);
+
+    Map<String, Money> monthlyRevenue(String currency, LocalDate from, LocalDate to);
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    class PaymentBooking {
+        private final long paymentId;
+        private final Money amount;
+        private final LocalDateTime occurredAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.nutriflow.services;
+
+import com.nutriflow.dto.response.StripeEventResponse;
+import com.nutriflow.enums.StripeEventStatus;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StripeEventService {
+
+    boolean record(String eventId, String type, String payload, LocalDateTime stripeCreatedAt);
+
+    List<StoredEvent> claimBatch(String workerId, int limit);
+
+    void markProcessed(String eventId);
+
+    boolean markFailed(StoredEvent event, String error);
+
+    List<StripeEventResponse> listEvents(StripeEventStatus status, int limit);
+
+    StripeEventResponse replay(String eventId);
+
+    int purgeProcessed(LocalDateTime before);
+
+    @Getter
+    @ToString(exclude = "payload")
+    @RequiredArgsConstructor
+    class StoredEvent {
+        private final String id;
+        private final String type;
+        private final String payload;
+        private final int attempts;
+    }
+}
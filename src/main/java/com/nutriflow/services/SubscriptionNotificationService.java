@@ -0,0 +1,7 @@
+package com.nutriflow.services;
+
+import java.time.LocalDate;
+
+public interface SubscriptionNotificationService {
+    int sendExpirationWarnings(LocalDate today);
+}
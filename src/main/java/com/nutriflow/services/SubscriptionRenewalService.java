@@ -0,0 +1,25 @@
+package com.nutriflow.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+public interface SubscriptionRenewalService {
+
+    RenewalSummary renewDueSubscriptions(LocalDate today);
+
+    int reconcileUnknownCharges();
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    class RenewalSummary {
+        private final int claimed;
+        private final int renewed;
+        private final int declined;
+        private final int errors;
+        private final int needsReview;
+    }
+}
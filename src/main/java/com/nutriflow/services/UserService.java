@@ -21,6 +21,8 @@ public interface UserService {
 
     void cancelSubscription(String email);
 
+    void setAutoRenew(String email, boolean autoRenew);
+
     List<DeliveryDetailResponse> getMyDeliveries(String email);
 
     SubscriptionInfoResponse getMySubscriptionInfo(String email);
@@ -6,20 +6,24 @@ import com.nutriflow.dto.request.*;
 import com.nutriflow.dto.response.*;
 import com.nutriflow.entities.*;
 import com.nutriflow.enums.*;
+import com.nutriflow.events.AccountChangedEvent;
 import com.nutriflow.exceptions.BusinessException;
 import com.nutriflow.mappers.*;
 import com.nutriflow.repositories.*;
+import com.nutriflow.security.PasswordHashingService;
 import com.nutriflow.security.SecurityUser;
 import com.nutriflow.services.ActivityLogService;
 import com.nutriflow.services.AdminService;
+import com.nutriflow.services.RevenueLedgerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -63,7 +67,9 @@ public class AdminServiceImpl implements AdminService {
 
     // ============= SERVICES =============
     private final ActivityLogService activityLogService;
-    private final PasswordEncoder passwordEncoder;
+    private final RevenueLedgerService revenueLedgerService;
+    private final PasswordHashingService passwordHashingService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     // =====================================================
@@ -89,7 +95,10 @@ public class AdminServiceImpl implements AdminService {
         }
 
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            dietitian.setPassword(passwordEncoder.encode(request.getPassword()));
+            dietitian.setPassword(passwordHashingService.encode(request.getPassword()));
+            if (existing.isPresent()) {
+                eventPublisher.publishEvent(new AccountChangedEvent(dietitian.getEmail(), AccountChangedEvent.Reason.PASSWORD_CHANGED));
+            }
         }
 
         DietitianEntity saved = dietitianRepository.save(dietitian);
@@ -123,7 +132,10 @@ public class AdminServiceImpl implements AdminService {
         }
 
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            caterer.setPassword(passwordEncoder.encode(request.getPassword()));
+            caterer.setPassword(passwordHashingService.encode(request.getPassword()));
+            if (existing.isPresent()) {
+                eventPublisher.publishEvent(new AccountChangedEvent(caterer.getEmail(), AccountChangedEvent.Reason.PASSWORD_CHANGED));
+            }
         }
 
         CatererEntity saved = catererRepository.save(caterer);
@@ -146,7 +158,7 @@ public class AdminServiceImpl implements AdminService {
         }
 
         UserEntity user = userMapper.toEntity(request);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
 
         if (request.getHealthData() != null) {
             user.setHealthProfile(healthMapper.toHealthProfileEntity(request.getHealthData(), user));
@@ -184,7 +196,10 @@ public class AdminServiceImpl implements AdminService {
         }
 
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            subAdmin.setPassword(passwordEncoder.encode(request.getPassword()));
+            subAdmin.setPassword(passwordHashingService.encode(request.getPassword()));
+            if (existingAdmin.isPresent()) {
+                eventPublisher.publishEvent(new AccountChangedEvent(subAdmin.getEmail(), AccountChangedEvent.Reason.PASSWORD_CHANGED));
+            }
         }
 
         AdminEntity saved = adminRepository.save(subAdmin);
@@ -278,17 +293,12 @@ public class AdminServiceImpl implements AdminService {
         LocalDateTime finalEnd = (end != null) ? end : LocalDateTime.now();
 
         // 2. Collect financial data
-        Double totalRevenue = paymentRepository.getTotalRevenueByStatus(PaymentStatus.SUCCESS);
-        if (totalRevenue == null) totalRevenue = 0.0;
-
-        List<Object[]> results = paymentRepository.getMonthlyRevenueCustomRange(finalStart, finalEnd);
-        Map<String, Double> chartData = new LinkedHashMap<>();
+        // Read from the revenue ledger's running balances, exact in minor units
+        Money totalRevenue = revenueLedgerService.totalRevenue(Money.AZN);
 
-        for (Object[] result : results) {
-            String month = (result[0] != null) ? result[0].toString().trim() : "Unknown";
-            Double amount = (result[1] != null) ? ((Number) result[1]).doubleValue() : 0.0;
-            chartData.put(month, amount);
-        }
+        Map<String, BigDecimal> chartData = new LinkedHashMap<>();
+        revenueLedgerService.monthlyRevenue(Money.AZN, finalStart.toLocalDate(), finalEnd.toLocalDate())
+                .forEach((month, amount) -> chartData.put(month, amount.toMajor()));
 
         // 3. Logging (using format from AdminMapper)
         activityLogService.logAction(
@@ -312,7 +322,7 @@ public class AdminServiceImpl implements AdminService {
                 dietitianRepository.count(),
                 catererRepository.count(),
                 subscriptionRepository.countByStatus(SubscriptionStatus.ACTIVE),
-                totalRevenue,
+                totalRevenue.toMajor(),
                 deliveryRepository.count(),
                 deliveryRepository.countByStatus(DeliveryStatus.DELIVERED),
                 deliveryRepository.countByStatus(DeliveryStatus.FAILED),
@@ -393,6 +403,9 @@ public class AdminServiceImpl implements AdminService {
         dietitian.setActive(newStatus);
 
         DietitianEntity saved = dietitianRepository.save(dietitian);
+        if (!newStatus) {
+            eventPublisher.publishEvent(new AccountChangedEvent(saved.getEmail(), AccountChangedEvent.Reason.DEACTIVATED));
+        }
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(),
@@ -415,6 +428,7 @@ public class AdminServiceImpl implements AdminService {
         user.setStatus(newStatus);
 
         UserEntity saved = userRepository.save(user);
+        eventPublisher.publishEvent(new AccountChangedEvent(saved.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(), ActionType.UPDATE_USER,
@@ -436,6 +450,9 @@ public class AdminServiceImpl implements AdminService {
         caterer.setStatus(newStatus);
 
         CatererEntity saved = catererRepository.save(caterer);
+        if (newStatus != CatererStatus.ACTIVE) {
+            eventPublisher.publishEvent(new AccountChangedEvent(saved.getEmail(), AccountChangedEvent.Reason.DEACTIVATED));
+        }
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(),
@@ -465,6 +482,9 @@ public class AdminServiceImpl implements AdminService {
         admin.setActive(newStatus);
 
         AdminEntity saved = adminRepository.save(admin);
+        if (!newStatus) {
+            eventPublisher.publishEvent(new AccountChangedEvent(saved.getEmail(), AccountChangedEvent.Reason.DEACTIVATED));
+        }
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(),
@@ -490,6 +510,7 @@ public class AdminServiceImpl implements AdminService {
         String oldData = adminMapper.formatUserData(user);
 
         userRepository.delete(user);
+        eventPublisher.publishEvent(new AccountChangedEvent(user.getEmail(), AccountChangedEvent.Reason.DELETED));
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(), ActionType.DELETE_USER,
@@ -514,6 +535,7 @@ public class AdminServiceImpl implements AdminService {
         });
 
         dietitianRepository.delete(dietitian);
+        eventPublisher.publishEvent(new AccountChangedEvent(dietitian.getEmail(), AccountChangedEvent.Reason.DELETED));
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(), ActionType.DELETE_DIETITIAN,
@@ -538,6 +560,7 @@ public class AdminServiceImpl implements AdminService {
         });
 
         catererRepository.delete(caterer);
+        eventPublisher.publishEvent(new AccountChangedEvent(caterer.getEmail(), AccountChangedEvent.Reason.DELETED));
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(), ActionType.DELETE_CATERER,
@@ -560,6 +583,7 @@ public class AdminServiceImpl implements AdminService {
         String oldData = adminMapper.formatAdminData(admin);
 
         adminRepository.delete(admin);
+        eventPublisher.publishEvent(new AccountChangedEvent(admin.getEmail(), AccountChangedEvent.Reason.DELETED));
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(), ActionType.DELETE_SUB_ADMIN,
@@ -582,6 +606,7 @@ public class AdminServiceImpl implements AdminService {
 
         // Format old data for logging
         String oldData = adminMapper.formatAdminData(admin);
+        String oldEmail = admin.getEmail();
 
         // 1. Check for email change
         if (!admin.getEmail().equalsIgnoreCase(request.getEmail())) {
@@ -589,6 +614,7 @@ public class AdminServiceImpl implements AdminService {
                 throw new BusinessException("This email is already in use!");
             });
             admin.setEmail(request.getEmail());
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.EMAIL_CHANGED));
         }
 
         // 2. Update fields via Mapper
@@ -596,10 +622,12 @@ public class AdminServiceImpl implements AdminService {
 
         // 3. Update password
         if (request.getNewPassword() != null && !request.getNewPassword().isBlank()) {
-            admin.setPassword(passwordEncoder.encode(request.getNewPassword()));
+            admin.setPassword(passwordHashingService.encode(request.getNewPassword()));
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.PASSWORD_CHANGED));
         }
 
         AdminEntity saved = adminRepository.save(admin);
+        eventPublisher.publishEvent(new AccountChangedEvent(saved.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         // 4. Logging
         activityLogService.logAction(
@@ -720,7 +748,8 @@ public class AdminServiceImpl implements AdminService {
         if (request.getLastName() != null)    user.setLastName(request.getLastName());
         if (request.getPhoneNumber() != null) user.setPhoneNumber(request.getPhoneNumber());
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
+            eventPublisher.publishEvent(new AccountChangedEvent(user.getEmail(), AccountChangedEvent.Reason.PASSWORD_CHANGED));
         }
 
         if (user.getHealthProfile() != null) {
@@ -741,6 +770,7 @@ public class AdminServiceImpl implements AdminService {
         }
 
         UserEntity saved = userRepository.save(user);
+        eventPublisher.publishEvent(new AccountChangedEvent(saved.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(), ActionType.UPDATE_USER,
@@ -758,12 +788,14 @@ public class AdminServiceImpl implements AdminService {
                 .orElseThrow(() -> new BusinessException("Dietitian not found!"));
 
         String oldData = adminMapper.formatDietitianData(dietitian);
+        String oldEmail = dietitian.getEmail();
 
         if (request.getEmail() != null && !request.getEmail().equalsIgnoreCase(dietitian.getEmail())) {
             if (dietitianRepository.findByEmail(request.getEmail()).isPresent()) {
                 throw new BusinessException("This email is already in use: " + request.getEmail());
             }
             dietitian.setEmail(request.getEmail());
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.EMAIL_CHANGED));
         }
 
         if (request.getFirstName() != null)      dietitian.setFirstName(request.getFirstName());
@@ -771,10 +803,12 @@ public class AdminServiceImpl implements AdminService {
         if (request.getPhoneNumber() != null)    dietitian.setPhone(request.getPhoneNumber());
         if (request.getSpecialization() != null) dietitian.setSpecialization(request.getSpecialization());
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            dietitian.setPassword(passwordEncoder.encode(request.getPassword()));
+            dietitian.setPassword(passwordHashingService.encode(request.getPassword()));
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.PASSWORD_CHANGED));
         }
 
         DietitianEntity saved = dietitianRepository.save(dietitian);
+        eventPublisher.publishEvent(new AccountChangedEvent(saved.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(), ActionType.UPDATE_DIETITIAN,
@@ -792,22 +826,26 @@ public class AdminServiceImpl implements AdminService {
                 .orElseThrow(() -> new BusinessException("Caterer not found!"));
 
         String oldData = adminMapper.formatCatererData(caterer);
+        String oldEmail = caterer.getEmail();
 
         if (request.getEmail() != null && !request.getEmail().equalsIgnoreCase(caterer.getEmail())) {
             if (catererRepository.findByEmail(request.getEmail()).isPresent()) {
                 throw new BusinessException("This email is already in use: " + request.getEmail());
             }
             caterer.setEmail(request.getEmail());
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.EMAIL_CHANGED));
         }
 
         if (request.getName() != null)    caterer.setName(request.getName());
         if (request.getPhone() != null)   caterer.setPhone(request.getPhone());
         if (request.getAddress() != null) caterer.setAddress(request.getAddress());
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            caterer.setPassword(passwordEncoder.encode(request.getPassword()));
+            caterer.setPassword(passwordHashingService.encode(request.getPassword()));
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.PASSWORD_CHANGED));
         }
 
         CatererEntity saved = catererRepository.save(caterer);
+        eventPublisher.publishEvent(new AccountChangedEvent(saved.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(), ActionType.UPDATE_CATERER_ADMIN,
@@ -829,22 +867,26 @@ public class AdminServiceImpl implements AdminService {
                 .orElseThrow(() -> new BusinessException("Admin not found!"));
 
         String oldData = adminMapper.formatAdminData(admin);
+        String oldEmail = admin.getEmail();
 
         if (!admin.getEmail().equalsIgnoreCase(request.getEmail())) {
             adminRepository.findByEmail(request.getEmail()).ifPresent(a -> {
                 throw new BusinessException("This email is already in use!");
             });
             admin.setEmail(request.getEmail());
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.EMAIL_CHANGED));
         }
 
         admin.setFirstName(request.getFirstName());
         admin.setLastName(request.getLastName());
 
         if (request.getNewPassword() != null && !request.getNewPassword().isBlank()) {
-            admin.setPassword(passwordEncoder.encode(request.getNewPassword()));
+            admin.setPassword(passwordHashingService.encode(request.getNewPassword()));
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.PASSWORD_CHANGED));
         }
 
         AdminEntity saved = adminRepository.save(admin);
+        eventPublisher.publishEvent(new AccountChangedEvent(saved.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         activityLogService.logAction(
                 Role.ADMIN, currentUser.getId(), ActionType.UPDATE_PROFILE,
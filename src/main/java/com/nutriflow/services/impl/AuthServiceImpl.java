@@ -4,34 +4,33 @@ import com.nutriflow.constants.AuthMessages;
 import com.nutriflow.dto.request.*;
 import com.nutriflow.dto.response.*;
 import com.nutriflow.entities.*;
+import com.nutriflow.enums.CatererStatus;
 import com.nutriflow.enums.Role;
 import com.nutriflow.enums.UserStatus;
+import com.nutriflow.events.AccountChangedEvent;
 import com.nutriflow.exceptions.*;
+import com.nutriflow.helpers.AccountPasswordHelper;
 import com.nutriflow.helpers.OtpHelper;
 import com.nutriflow.mappers.UserMapper;
 import com.nutriflow.repositories.*;
+import com.nutriflow.security.AccountSummary;
 import com.nutriflow.security.JwtService;
-import com.nutriflow.security.SecurityUser;
+import com.nutriflow.security.PasswordHashingService;
+import com.nutriflow.security.RefreshTokenStore;
 import com.nutriflow.services.AuthService;
 import com.nutriflow.services.EmailService;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.concurrent.TimeUnit;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -39,27 +38,26 @@ import java.util.concurrent.TimeUnit;
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final AdminRepository adminRepository;
-    private final DietitianRepository dietitianRepository;
-    private final CatererRepository catererRepository;
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final EmailService emailService;
-    private final RedisTemplate<String, String> redisTemplate;
     private final JwtService jwtService;
-    private final OtpRepository otpRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final OtpHelper otpHelper;
-    private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
-
-    @Value("${nutriflow.jwt.refresh-token.expiration}")
-    private long refreshExpiration;
+    private final AccountPasswordHelper accountPasswordHelper;
+    private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${nutriflow.redis.prefix.otp}")
     private String otpPrefix;
 
-    @Value("${nutriflow.redis.prefix.refresh-token}")
-    private String refreshTokenPrefix;
+    // Compared against on logins for unknown emails so they cost the same as a wrong password
+    private String unknownAccountHash;
+
+    @PostConstruct
+    public void init() {
+        this.unknownAccountHash = passwordHashingService.encode(UUID.randomUUID().toString());
+    }
 
     // ===================== REGISTER =====================
 
@@ -77,7 +75,7 @@ public class AuthServiceImpl implements AuthService {
         }
 
         UserEntity user = userMapper.toEntity(request);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         userRepository.save(user);
         log.info("User saved: ID={}, Email={}", user.getId(), request.getEmail());
 
@@ -121,58 +119,28 @@ public class AuthServiceImpl implements AuthService {
         log.info("Login attempt: {}", request.getEmail());
 
         try {
-            Authentication auth = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
-
-            SecurityUser securityUser = (SecurityUser) auth.getPrincipal();
-            String accessToken = jwtService.generateToken(securityUser);
-            String refreshToken = jwtService.generateRefreshToken(securityUser);
-
-            redisTemplate.opsForValue().set(
-                    refreshTokenPrefix + securityUser.getUsername(),
-                    refreshToken, refreshExpiration, TimeUnit.MILLISECONDS
-            );
-
-            String role = securityUser.getRole();
-
-            if (Role.ADMIN.name().equals(role) || Role.SUPER_ADMIN.name().equals(role)) {
-                AdminEntity a = adminRepository.findByEmail(request.getEmail())
-                        .orElseThrow(() -> new UserNotFoundException(AuthMessages.ADMIN_NOT_FOUND + request.getEmail()));
-                return AdminAuthResponse.builder()
-                        .token(accessToken).refreshToken(refreshToken)
-                        .email(a.getEmail()).firstName(a.getFirstName()).lastName(a.getLastName())
-                        .isActive(a.isActive()).role(Role.valueOf(role)).build();
+            // One directory lookup provides the credentials and every profile field of the response
+            AccountEntity account = accountRepository.findFirstByEmailOrderByPriorityAsc(request.getEmail())
+                    .orElse(null);
+
+            if (account == null) {
+                // Hash anyway so unknown emails take as long as wrong passwords
+                passwordHashingService.matches(request.getPassword(), unknownAccountHash);
+                throw new BusinessException(AuthMessages.INVALID_CREDENTIALS);
             }
-
-            if (Role.DIETITIAN.name().equals(role)) {
-                DietitianEntity d = dietitianRepository.findByEmail(request.getEmail())
-                        .orElseThrow(() -> new UserNotFoundException(AuthMessages.DIETITIAN_NOT_FOUND + request.getEmail()));
-                return DietitianAuthResponse.builder()
-                        .token(accessToken).refreshToken(refreshToken)
-                        .email(d.getEmail()).firstName(d.getFirstName()).lastName(d.getLastName())
-                        .specialization(d.getSpecialization()).isActive(d.isActive()).role(Role.DIETITIAN).build();
+            if (!passwordHashingService.matches(request.getPassword(), account.getPasswordHash()) || !account.isActive()) {
+                throw new BusinessException(AuthMessages.INVALID_CREDENTIALS);
             }
+            rehashIfNeeded(account, request.getPassword());
 
-            if (Role.CATERER.name().equals(role)) {
-                CatererEntity c = catererRepository.findByEmail(request.getEmail())
-                        .orElseThrow(() -> new UserNotFoundException(AuthMessages.CATERER_NOT_FOUND + request.getEmail()));
-                return CatererAuthResponse.builder()
-                        .token(accessToken).refreshToken(refreshToken)
-                        .email(c.getEmail()).companyName(c.getName()).phone(c.getPhone())
-                        .status(c.getStatus()).role(Role.CATERER).build();
-            }
+            AccountSummary summary = AccountSummary.from(account);
+            String accessToken = jwtService.generateToken(summary.toSecurityUser());
+            String refreshToken = refreshTokenStore.createFamily(summary);
 
-            UserEntity u = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new UserNotFoundException(AuthMessages.USER_NOT_FOUND));
-            return AuthResponse.builder()
-                    .token(accessToken).refreshToken(refreshToken)
-                    .email(u.getEmail()).status(u.getStatus()).role(Role.USER).build();
+            return buildAuthResponse(summary, accessToken, refreshToken);
 
-        } catch (BadCredentialsException e) {
-            throw new BusinessException(AuthMessages.INVALID_CREDENTIALS);
-        } catch (AuthenticationException e) {
-            throw new BusinessException(AuthMessages.LOGIN_FAILED);
+        } catch (BusinessException | ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Unexpected error during login: {}", e.getMessage());
             throw new BusinessException(AuthMessages.SYSTEM_ERROR);
@@ -188,53 +156,92 @@ public class AuthServiceImpl implements AuthService {
         String cleanToken = (refreshToken != null && refreshToken.startsWith("Bearer "))
                 ? refreshToken.substring(7) : refreshToken;
 
-        String userEmail = jwtService.extractUsername(cleanToken);
-        String storedToken = redisTemplate.opsForValue().get(refreshTokenPrefix + userEmail);
+        Claims claims = jwtService.parseToken(cleanToken);
+        String userEmail = claims.getSubject();
+
+        // Tokens issued before rotation families existed are exchanged once for a new family
+        if (claims.get(JwtService.CLAIM_FAMILY_ID) == null) {
+            return refreshLegacyToken(userEmail, cleanToken);
+        }
+
+        // Single Redis round trip: rotates the token and returns the cached profile
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(claims);
+        AccountSummary summary = rotation.getSummary();
+
+        if (rotation.isProfileOutdated()) {
+            summary = loadActiveSummary(userEmail);
+            refreshTokenStore.updateProfile(rotation.getFamilyId(), summary);
+        }
+
+        String newAccessToken = jwtService.generateToken(summary.toSecurityUser());
+        return buildAuthResponse(summary, newAccessToken, rotation.getRefreshToken());
+    }
 
-        if (storedToken == null) {
+    private BaseAuthResponse refreshLegacyToken(String userEmail, String token) {
+        if (!refreshTokenStore.consumeLegacyToken(userEmail, token)) {
             throw new InvalidTokenException(AuthMessages.INVALID_REFRESH_TOKEN);
         }
-        if (!storedToken.equals(cleanToken)) {
-            throw new InvalidTokenException(AuthMessages.TOKEN_MISMATCH);
+
+        AccountSummary summary = loadActiveSummary(userEmail);
+        String newAccessToken = jwtService.generateToken(summary.toSecurityUser());
+        String newRefreshToken = refreshTokenStore.createFamily(summary);
+        return buildAuthResponse(summary, newAccessToken, newRefreshToken);
+    }
+
+    private AccountSummary loadActiveSummary(String email) {
+        return accountRepository.findFirstByEmailOrderByPriorityAsc(email)
+                .filter(AccountEntity::isActive)
+                .map(AccountSummary::from)
+                .orElseThrow(() -> new UserNotFoundException(AuthMessages.USER_NOT_FOUND));
+    }
+
+    /**
+     * Migrates a hash created with an older work factor while the plain password is at hand.
+     * Failures are logged only; the login itself has already succeeded.
+     */
+    private void rehashIfNeeded(AccountEntity account, String rawPassword) {
+        if (!passwordHashingService.needsRehash(account.getPasswordHash())) {
+            return;
+        }
+        try {
+            accountPasswordHelper.updatePassword(account, passwordHashingService.encode(rawPassword));
+            log.info("Password hash upgraded to current work factor: {}", account.getEmail());
+        } catch (Exception e) {
+            log.warn("Password hash upgrade skipped for {}: {}", account.getEmail(), e.getMessage());
         }
+    }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-        String newAccessToken = jwtService.generateToken(userDetails);
-        SecurityUser securityUser = (SecurityUser) userDetails;
-        String role = securityUser.getRole();
+    /**
+     * Builds the role-specific auth response from the account summary, without re-fetching the entity.
+     */
+    private BaseAuthResponse buildAuthResponse(AccountSummary account, String accessToken, String refreshToken) {
+        String role = account.getRole();
 
         if (Role.ADMIN.name().equals(role) || Role.SUPER_ADMIN.name().equals(role)) {
-            AdminEntity a = adminRepository.findByEmail(userEmail)
-                    .orElseThrow(() -> new UserNotFoundException(AuthMessages.ADMIN_NOT_FOUND));
             return AdminAuthResponse.builder()
-                    .token(newAccessToken).refreshToken(cleanToken)
-                    .email(a.getEmail()).firstName(a.getFirstName()).lastName(a.getLastName())
-                    .isActive(a.isActive()).role(Role.valueOf(role)).build();
+                    .token(accessToken).refreshToken(refreshToken)
+                    .email(account.getEmail()).firstName(account.getFirstName()).lastName(account.getLastName())
+                    .isActive(account.isActive()).role(Role.valueOf(role)).build();
         }
 
         if (Role.DIETITIAN.name().equals(role)) {
-            DietitianEntity d = dietitianRepository.findByEmail(userEmail)
-                    .orElseThrow(() -> new UserNotFoundException(AuthMessages.DIETITIAN_NOT_FOUND));
             return DietitianAuthResponse.builder()
-                    .token(newAccessToken).refreshToken(cleanToken)
-                    .email(d.getEmail()).firstName(d.getFirstName()).lastName(d.getLastName())
-                    .specialization(d.getSpecialization()).isActive(d.isActive()).role(Role.DIETITIAN).build();
+                    .token(accessToken).refreshToken(refreshToken)
+                    .email(account.getEmail()).firstName(account.getFirstName()).lastName(account.getLastName())
+                    .specialization(account.getSpecialization()).isActive(account.isActive()).role(Role.DIETITIAN).build();
         }
 
         if (Role.CATERER.name().equals(role)) {
-            CatererEntity c = catererRepository.findByEmail(userEmail)
-                    .orElseThrow(() -> new UserNotFoundException(AuthMessages.CATERER_NOT_FOUND));
             return CatererAuthResponse.builder()
-                    .token(newAccessToken).refreshToken(cleanToken)
-                    .email(c.getEmail()).companyName(c.getName()).phone(c.getPhone())
-                    .status(c.getStatus()).role(Role.CATERER).build();
+                    .token(accessToken).refreshToken(refreshToken)
+                    .email(account.getEmail()).companyName(account.getCompanyName()).phone(account.getPhone())
+                    .status(account.getStatus() != null ? CatererStatus.valueOf(account.getStatus()) : null)
+                    .role(Role.CATERER).build();
         }
 
-        UserEntity u = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UserNotFoundException(AuthMessages.USER_NOT_FOUND));
         return AuthResponse.builder()
-                .token(newAccessToken).refreshToken(cleanToken)
-                .email(u.getEmail()).status(u.getStatus()).role(Role.USER).build();
+                .token(accessToken).refreshToken(refreshToken)
+                .email(account.getEmail()).status(UserStatus.valueOf(account.getStatus())).role(Role.USER).build();
     }
 
     // ===================== RESEND OTP =====================
@@ -267,12 +274,7 @@ public class AuthServiceImpl implements AuthService {
     public String forgotPassword(ForgotPasswordRequest request) {
         log.info("Forgot password request: {}", request.getEmail());
 
-        boolean exists = userRepository.existsByEmail(request.getEmail())
-                || dietitianRepository.existsByEmail(request.getEmail())
-                || catererRepository.existsByEmail(request.getEmail())
-                || adminRepository.existsByEmail(request.getEmail());
-
-        if (!exists) {
+        if (!accountRepository.existsByEmail(request.getEmail())) {
             log.warn("Email not found in any table: {}", request.getEmail());
             throw new UserNotFoundException(AuthMessages.USER_NOT_FOUND);
         }
@@ -297,38 +299,15 @@ public class AuthServiceImpl implements AuthService {
 
         otpHelper.validateOtp(request.getEmail(), request.getOtp(), otpPrefix);
 
-        String encodedPassword = passwordEncoder.encode(request.getNewPassword());
         String email = request.getEmail();
+        AccountEntity account = accountRepository.findFirstByEmailOrderByPriorityAsc(email)
+                .orElseThrow(() -> new UserNotFoundException(AuthMessages.USER_NOT_FOUND));
 
-        if (userRepository.existsByEmail(email)) {
-            UserEntity user = userRepository.findByEmail(email).get();
-            user.setPassword(encodedPassword);
-            userRepository.save(user);
-            log.info("Password updated in users table: {}", email);
-
-        } else if (dietitianRepository.existsByEmail(email)) {
-            DietitianEntity dietitian = dietitianRepository.findByEmail(email).get();
-            dietitian.setPassword(encodedPassword);
-            dietitianRepository.save(dietitian);
-            log.info("Password updated in dietitians table: {}", email);
-
-        } else if (catererRepository.existsByEmail(email)) {
-            CatererEntity caterer = catererRepository.findByEmail(email).get();
-            caterer.setPassword(encodedPassword);
-            catererRepository.save(caterer);
-            log.info("Password updated in caterers table: {}", email);
-
-        } else if (adminRepository.existsByEmail(email)) {
-            AdminEntity admin = adminRepository.findByEmail(email).get();
-            admin.setPassword(encodedPassword);
-            adminRepository.save(admin);
-            log.info("Password updated in admins table: {}", email);
-
-        } else {
-            throw new UserNotFoundException(AuthMessages.USER_NOT_FOUND);
-        }
+        String encodedPassword = passwordHashingService.encode(request.getNewPassword());
+        accountPasswordHelper.updatePassword(account, encodedPassword);
 
         otpHelper.markOtpAsUsed(request.getEmail(), request.getOtp(), otpPrefix);
+        eventPublisher.publishEvent(new AccountChangedEvent(email, AccountChangedEvent.Reason.PASSWORD_CHANGED));
 
         return AuthMessages.PASSWORD_RESET_SUCCESS;
     }
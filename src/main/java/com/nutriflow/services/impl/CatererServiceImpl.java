@@ -9,17 +9,19 @@ import com.nutriflow.entities.CatererEntity;
 import com.nutriflow.entities.DeliveryEntity;
 import com.nutriflow.entities.MenuItemEntity;
 import com.nutriflow.enums.DeliveryStatus;
+import com.nutriflow.events.AccountChangedEvent;
 import com.nutriflow.exceptions.*;
 import com.nutriflow.helpers.DeliveryHelper;
 import com.nutriflow.mappers.CatererMapper;
 import com.nutriflow.mappers.DeliveryMapper;
 import com.nutriflow.repositories.CatererRepository;
 import com.nutriflow.repositories.DeliveryRepository;
+import com.nutriflow.security.PasswordHashingService;
 import com.nutriflow.services.CatererService;
 import com.nutriflow.utils.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,7 +40,8 @@ public class CatererServiceImpl implements CatererService {
 
     private final DeliveryRepository deliveryRepository;
     private final CatererRepository catererRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Helpers
     private final DeliveryHelper deliveryHelper;
@@ -141,15 +144,19 @@ public class CatererServiceImpl implements CatererService {
         if (request.getPhone() != null) caterer.setPhone(request.getPhone());
         if (request.getAddress() != null) caterer.setAddress(request.getAddress());
 
+        String oldEmail = caterer.getEmail();
         if (request.getEmail() != null && !request.getEmail().equals(caterer.getEmail())) {
             caterer.setEmail(request.getEmail());
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.EMAIL_CHANGED));
         }
 
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            caterer.setPassword(passwordEncoder.encode(request.getPassword()));
+            caterer.setPassword(passwordHashingService.encode(request.getPassword()));
+            eventPublisher.publishEvent(new AccountChangedEvent(oldEmail, AccountChangedEvent.Reason.PASSWORD_CHANGED));
         }
 
         catererRepository.save(caterer);
+        eventPublisher.publishEvent(new AccountChangedEvent(caterer.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         log.info("Profile updated successfully");
         return "Your profile information has been updated successfully";
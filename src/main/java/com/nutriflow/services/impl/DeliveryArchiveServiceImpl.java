@@ -0,0 +1,339 @@
+package com.nutriflow.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriflow.dto.response.DeliveryArchiveResponse;
+import com.nutriflow.exceptions.FileStorageException;
+import com.nutriflow.exceptions.ResourceNotFoundException;
+import com.nutriflow.helpers.JobFence;
+import com.nutriflow.helpers.RedisLeaseLock;
+import com.nutriflow.services.DeliveryArchiveService;
+import com.nutriflow.utils.FileOperationUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives aged delivery records to compressed files on local disk before they are deleted.
+ *
+ * Each calendar month is written to its own gzip-compressed newline-delimited JSON file
+ * (deliveries-YYYY-MM.ndjson.gz) next to a small manifest. Rows are streamed with a
+ * server-side cursor, the row count is verified against the database and the written file,
+ * and only then are the rows deleted in bounded chunks, each fenced with the job's lease by
+ * {@link JobFence}.
+ */
+@Service
+@Slf4j
+public class DeliveryArchiveServiceImpl implements DeliveryArchiveService {
+
+    private static final String FILE_PREFIX = "deliveries-";
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String MANIFEST_SUFFIX = ".manifest.json";
+
+    private static final String SELECT_MONTH_SQL =
+            "SELECT id, user_id, caterer_id, address_id, batch_id, delivery_date, status, " +
+            "estimated_delivery_time, actual_delivery_time, delivery_notes, caterer_note, created_at, updated_at " +
+            "FROM deliveries WHERE delivery_date >= ? AND delivery_date < ? AND id <= ? ORDER BY id";
+
+    private static final String COUNT_MONTH_SQL =
+            "SELECT COUNT(*) FROM deliveries WHERE delivery_date >= ? AND delivery_date < ? AND id <= ?";
+
+    private static final String MAX_ID_SQL =
+            "SELECT MAX(id) FROM deliveries WHERE delivery_date >= ? AND delivery_date < ?";
+
+    private static final String OLDEST_DATE_SQL =
+            "SELECT MIN(delivery_date) FROM deliveries WHERE delivery_date < ?";
+
+    private static final String DELETE_CHUNK_SQL =
+            "DELETE FROM deliveries WHERE id IN (" +
+            "SELECT id FROM deliveries WHERE delivery_date >= ? AND delivery_date < ? AND id <= ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final JobFence jobFence;
+
+    @Value("${nutriflow.archive.deliveries.dir:archive/deliveries}")
+    private String archiveDir;
+
+    @Value("${nutriflow.archive.deliveries.delete-chunk-size:5000}")
+    private int deleteChunkSize;
+
+    public DeliveryArchiveServiceImpl(DataSource dataSource,
+                                      PlatformTransactionManager transactionManager,
+                                      ObjectMapper objectMapper,
+                                      JobFence jobFence,
+                                      @Value("${nutriflow.archive.deliveries.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Separate template so the fetch size only applies to the archive cursor
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // PostgreSQL only uses a server-side cursor inside a transaction (autocommit off)
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+
+        this.objectMapper = objectMapper;
+        this.jobFence = jobFence;
+    }
+
+    /**
+     * Archives and deletes all deliveries dated before the first day of the cutoff's month.
+     * The cutoff is aligned to a month boundary so every archive file covers a whole month.
+     *
+     * @param cutoff Retention cutoff date
+     * @return Number of deleted delivery rows
+     */
+    @Override
+    public int archiveAndPurge(LocalDate cutoff) {
+        LocalDate alignedCutoff = cutoff.withDayOfMonth(1);
+        FileOperationUtil.ensureDirectoryExists(archiveDir);
+
+        LocalDate oldest = jdbcTemplate.queryForObject(OLDEST_DATE_SQL, LocalDate.class, alignedCutoff);
+        if (oldest == null) {
+            log.info("No deliveries older than {} found, nothing to archive", alignedCutoff);
+            return 0;
+        }
+
+        int totalDeleted = 0;
+        YearMonth lastMonth = YearMonth.from(alignedCutoff);
+        for (YearMonth month = YearMonth.from(oldest); month.isBefore(lastMonth); month = month.plusMonths(1)) {
+            RedisLeaseLock.checkCurrentLease();
+            totalDeleted += archiveMonth(month);
+        }
+        return totalDeleted;
+    }
+
+    @Override
+    public List<DeliveryArchiveResponse> listArchives() {
+        Path dir = FileOperationUtil.toPath(archiveDir);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        List<DeliveryArchiveResponse> archives = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path manifest : files.filter(p -> p.getFileName().toString().endsWith(MANIFEST_SUFFIX)).sorted().toList()) {
+                archives.add(objectMapper.readValue(manifest.toFile(), DeliveryArchiveResponse.class));
+            }
+        } catch (IOException e) {
+            log.error("Error while listing delivery archives: {}", e.getMessage(), e);
+            throw new FileStorageException("Delivery archives could not be listed", e);
+        }
+        return archives;
+    }
+
+    /**
+     * Opens an archived month for streaming without restoring it into the database.
+     * The archive is resolved eagerly so a missing month fails before the response is committed.
+     *
+     * @param month      Archived month
+     * @param compressed true to stream the stored gzip file, false for plain newline-delimited JSON
+     * @return Response body that copies the archive to the client
+     */
+    @Override
+    public StreamingResponseBody openArchive(YearMonth month, boolean compressed) {
+        Path dataFile = requireArchive(month);
+
+        if (compressed) {
+            return out -> Files.copy(dataFile, out);
+        }
+        return out -> {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(dataFile))) {
+                in.transferTo(out);
+            }
+        };
+    }
+
+    // ============== ARCHIVE STEPS ==============
+
+    private int archiveMonth(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        Path dataFile = dataPath(month);
+        Path manifestFile = manifestPath(month);
+
+        DeliveryArchiveResponse manifest;
+        if (Files.exists(manifestFile) && Files.exists(dataFile)) {
+            // Archive was written by an earlier run; only finish the deletion of rows it covers
+            manifest = readManifest(manifestFile);
+            log.info("Archive already exists for {}, resuming deletion up to ID {}", month, manifest.getMaxId());
+        } else {
+            Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class, from, to);
+            if (maxId == null) {
+                return 0;
+            }
+            manifest = writeArchive(month, from, to, maxId, dataFile, manifestFile);
+        }
+
+        int deleted = purge(from, to, manifest.getMaxId());
+
+        Long remaining = jdbcTemplate.queryForObject(COUNT_MONTH_SQL, Long.class, from, to, Long.MAX_VALUE);
+        if (remaining != null && remaining > 0) {
+            log.warn("{} deliveries for {} were created after archiving and were kept", remaining, month);
+        }
+
+        log.info("Month {} archived | Rows: {} | Deleted: {}", month, manifest.getRowCount(), deleted);
+        return deleted;
+    }
+
+    private DeliveryArchiveResponse writeArchive(YearMonth month, LocalDate from, LocalDate to, long maxId,
+                                                 Path dataFile, Path manifestFile) {
+        Path tempFile = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+
+        try {
+            Long expected = jdbcTemplate.queryForObject(COUNT_MONTH_SQL, Long.class, from, to, maxId);
+            long written = readOnlyTransactionTemplate.execute(status -> exportRows(from, to, maxId, tempFile));
+            long reread = countLines(tempFile);
+
+            if (expected == null || written != expected || reread != expected) {
+                throw new IllegalStateException(String.format(
+                        "Row count mismatch for %s: database=%s, written=%d, file=%d", month, expected, written, reread));
+            }
+
+            Files.move(tempFile, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            DeliveryArchiveResponse manifest = DeliveryArchiveResponse.builder()
+                    .month(month.toString())
+                    .fromDate(from)
+                    .toDate(to)
+                    .maxId(maxId)
+                    .rowCount(written)
+                    .sizeBytes(Files.size(dataFile))
+                    .archivedAt(LocalDateTime.now())
+                    .build();
+            objectMapper.writeValue(manifestFile.toFile(), manifest);
+
+            log.info("Archive file written: {} | Rows: {} | Size: {} bytes", dataFile, written, manifest.getSizeBytes());
+            return manifest;
+
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Error while writing delivery archive for {}: {}", month, e.getMessage(), e);
+            throw new FileStorageException("Delivery archive could not be written for " + month, e);
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Temporary archive file could not be removed: {}", tempFile);
+            }
+        }
+    }
+
+    private long exportRows(LocalDate from, LocalDate to, long maxId, Path target) {
+        long[] count = {0};
+
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(target)), StandardCharsets.UTF_8))) {
+
+            cursorJdbcTemplate.query(SELECT_MONTH_SQL, rs -> {
+                ResultSetMetaData meta = rs.getMetaData();
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    row.put(meta.getColumnLabel(i), toJsonValue(rs.getObject(i)));
+                }
+                try {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            }, from, to, maxId);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count[0];
+    }
+
+    private int purge(LocalDate from, LocalDate to, long maxId) {
+        int total = 0;
+        int deleted;
+        do {
+            // Each chunk runs in its own short transaction; stop if the cluster lease was lost meanwhile
+            RedisLeaseLock.checkCurrentLease();
+            deleted = transactionTemplate.execute(status -> {
+                jobFence.checkCurrent();
+                return jdbcTemplate.update(DELETE_CHUNK_SQL, from, to, maxId, deleteChunkSize);
+            });
+            total += deleted;
+        } while (deleted > 0);
+        return total;
+    }
+
+    // ============== FILE HELPERS ==============
+
+    private long countLines(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().count();
+        }
+    }
+
+    private DeliveryArchiveResponse readManifest(Path manifestFile) {
+        try {
+            return objectMapper.readValue(manifestFile.toFile(), DeliveryArchiveResponse.class);
+        } catch (IOException e) {
+            throw new FileStorageException("Archive manifest could not be read: " + manifestFile, e);
+        }
+    }
+
+    private Path requireArchive(YearMonth month) {
+        Path dataFile = dataPath(month);
+        if (!Files.exists(dataFile)) {
+            throw new ResourceNotFoundException("No delivery archive found for " + month);
+        }
+        return dataFile;
+    }
+
+    private Path dataPath(YearMonth month) {
+        return FileOperationUtil.toPath(archiveDir).resolve(FILE_PREFIX + month + DATA_SUFFIX);
+    }
+
+    private Path manifestPath(YearMonth month) {
+        return FileOperationUtil.toPath(archiveDir).resolve(FILE_PREFIX + month + MANIFEST_SUFFIX);
+    }
+
+    private Object toJsonValue(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        return value;
+    }
+}
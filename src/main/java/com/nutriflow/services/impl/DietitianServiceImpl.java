@@ -7,16 +7,19 @@ import com.nutriflow.entities.*;
 import com.nutriflow.enums.MealType;
 import com.nutriflow.enums.MenuStatus;
 import com.nutriflow.enums.UserStatus;
+import com.nutriflow.events.AccountChangedEvent;
 import com.nutriflow.exceptions.*;
 import com.nutriflow.helpers.EntityFinderHelper;
 import com.nutriflow.helpers.MenuBatchHelper;
+import com.nutriflow.helpers.ReferenceDataCache;
 import com.nutriflow.mappers.DietitianMapper;
 import com.nutriflow.repositories.*;
+import com.nutriflow.security.PasswordHashingService;
 import com.nutriflow.services.DietitianService;
 import com.nutriflow.utils.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,11 +40,13 @@ public class DietitianServiceImpl implements DietitianService {
     private final MenuRepository menuRepository;
     private final MenuBatchRepository menuBatchRepository;
     private final MedicalFileRepository medicalFileRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Helpers
     private final MenuBatchHelper menuBatchHelper;
     private final EntityFinderHelper entityFinder;
+    private final ReferenceDataCache referenceDataCache;
 
     // Mappers
     private final DietitianMapper dietitianMapper;
@@ -114,27 +119,31 @@ public class DietitianServiceImpl implements DietitianService {
                 throw new ResourceAlreadyExistsException("This email is already in use.");
             }
             dietitian.setEmail(request.getEmail());
+            eventPublisher.publishEvent(new AccountChangedEvent(currentEmail, AccountChangedEvent.Reason.EMAIL_CHANGED));
         }
 
         // Password update
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            dietitian.setPassword(passwordEncoder.encode(request.getPassword()));
+            dietitian.setPassword(passwordHashingService.encode(request.getPassword()));
+            eventPublisher.publishEvent(new AccountChangedEvent(currentEmail, AccountChangedEvent.Reason.PASSWORD_CHANGED));
         }
 
         dietitianRepository.save(dietitian);
+        eventPublisher.publishEvent(new AccountChangedEvent(dietitian.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
         log.info("Profile updated successfully");
         return "Your profile information has been updated successfully.";
     }
 
+    /**
+     * Served from the reference cache; no transaction, so a hit does not take a database connection.
+     */
     @Override
-    @Transactional(readOnly = true)
     public DietitianProfileResponse getProfile(String email) {
         log.info("Dietitian profile requested: email={}", email);
 
-        DietitianEntity dietitian = entityFinder.findDietitianByEmail(email);
-
         // Convert to response via Mapper
-        return dietitianMapper.toProfileResponse(dietitian);
+        return referenceDataCache.dietitianProfile(email,
+                () -> dietitianMapper.toProfileResponse(entityFinder.findDietitianByEmail(email)));
     }
 
     @Override
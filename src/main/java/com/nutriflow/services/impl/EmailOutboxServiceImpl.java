@@ -0,0 +1,145 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.enums.EmailCategory;
+import com.nutriflow.enums.EmailOutboxStatus;
+import com.nutriflow.services.EmailOutboxService;
+import com.nutriflow.utils.RetryUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outbox of notification emails in the {@code email_outbox} table.
+ *
+ * Enqueueing joins the caller's transaction (JdbcTemplate uses the connection bound by the
+ * transaction manager), so an email is stored if and only if the business change commits.
+ * Workers claim due rows with FOR UPDATE SKIP LOCKED, so any number of workers on any number of
+ * nodes take disjoint batches. A claim older than the stale timeout belongs to a worker that died
+ * mid-batch and is taken over.
+ */
+@Service
+@Slf4j
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO email_outbox (category, sender, recipient, subject, body) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String CLAIM_SQL =
+            "WITH due AS (" +
+            "SELECT id FROM email_outbox " +
+            "WHERE (status = 'PENDING' AND next_attempt_at <= now()) " +
+            "OR (status = 'SENDING' AND claimed_at < now() - make_interval(secs => ?)) " +
+            "ORDER BY next_attempt_at, id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE email_outbox o SET status = 'SENDING', claimed_by = ?, claimed_at = now(), attempts = o.attempts + 1 " +
+            "FROM due WHERE o.id = due.id " +
+            "RETURNING o.id, o.category, o.sender, o.recipient, o.subject, o.body, o.attempts";
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE email_outbox SET status = 'SENT', sent_at = now(), last_error = NULL, claimed_by = NULL, claimed_at = NULL " +
+            "WHERE id = ?";
+
+    private static final String MARK_FAILED_SQL =
+            "UPDATE email_outbox SET status = ?, next_attempt_at = now() + make_interval(secs => ?), last_error = ?, " +
+            "claimed_by = NULL, claimed_at = NULL WHERE id = ?";
+
+    private static final String PURGE_SENT_SQL =
+            "DELETE FROM email_outbox WHERE status = 'SENT' AND sent_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${nutriflow.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${nutriflow.mail.outbox.backoff-initial-seconds:30}")
+    private long backoffInitialSeconds;
+
+    @Value("${nutriflow.mail.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${nutriflow.mail.outbox.stale-claim-seconds:300}")
+    private long staleClaimSeconds;
+
+    public EmailOutboxServiceImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void enqueue(OutboxEmail email) {
+        jdbcTemplate.update(INSERT_SQL, insertArgs(email));
+    }
+
+    @Override
+    public void enqueueAll(List<OutboxEmail> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, emails.stream().map(this::insertArgs).toList());
+    }
+
+    /**
+     * Claims up to {@code limit} due emails for one worker. Runs in its own autocommit statement,
+     * so the row locks are released as soon as the claim is recorded.
+     */
+    @Override
+    public List<OutboxEmail> claimBatch(String workerId, int limit) {
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new OutboxEmail(
+                        rs.getLong("id"),
+                        EmailCategory.valueOf(rs.getString("category")),
+                        rs.getString("sender"),
+                        rs.getString("recipient"),
+                        rs.getString("subject"),
+                        rs.getString("body"),
+                        rs.getInt("attempts")),
+                staleClaimSeconds, limit, workerId);
+    }
+
+    @Override
+    public void markSent(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(MARK_SENT_SQL, ids.stream().map(id -> new Object[]{id}).toList());
+    }
+
+    /**
+     * Schedules the next attempt with exponential backoff and jitter, or gives up after the last
+     * attempt or on a permanent error (e.g. an unparseable address).
+     *
+     * @return true if another attempt was scheduled
+     */
+    @Override
+    public boolean markFailed(OutboxEmail email, String error, boolean permanent) {
+        boolean giveUp = permanent || email.getAttempts() >= maxAttempts;
+        EmailOutboxStatus status = giveUp ? EmailOutboxStatus.FAILED : EmailOutboxStatus.PENDING;
+        long delaySeconds = giveUp ? 0
+                : RetryUtils.backoffSeconds(email.getAttempts(), backoffInitialSeconds, backoffMaxSeconds);
+
+        jdbcTemplate.update(MARK_FAILED_SQL, status.name(), delaySeconds, RetryUtils.truncateError(error), email.getId());
+
+        if (giveUp) {
+            log.error("Outbox email {} to {} failed permanently after {} attempt(s): {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), error);
+        } else {
+            log.warn("Outbox email {} to {} failed (attempt {}), retrying in {}s: {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), delaySeconds, error);
+        }
+        return !giveUp;
+    }
+
+    @Override
+    public int purgeSent(LocalDateTime before) {
+        return jdbcTemplate.update(PURGE_SENT_SQL, Timestamp.valueOf(before));
+    }
+
+    private Object[] insertArgs(OutboxEmail email) {
+        return new Object[]{email.getCategory().name(), email.getSender(), email.getRecipient(),
+                email.getSubject(), email.getBody()};
+    }
+}
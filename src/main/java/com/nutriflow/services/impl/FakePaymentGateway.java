@@ -0,0 +1,79 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.exceptions.PaymentGatewayException;
+import com.nutriflow.services.PaymentGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process gateway for local runs and tests (nutriflow.payments.gateway=fake). Honours
+ * idempotency keys like Stripe, including rejecting a checkout key reused with a different request,
+ * and counts the sessions and charges it created, so callers can check
+ * that repeated requests did not reach the gateway. Charges to a customer whose reference contains
+ * "decline" are declined; for one containing "lost-response" the charge is made but the call fails,
+ * as when the response is lost on the way back.
+ */
+@Service
+@ConditionalOnProperty(name = "nutriflow.payments.gateway", havingValue = "fake")
+@Slf4j
+public class FakePaymentGateway implements PaymentGateway {
+
+    private final Map<String, CheckoutSession> sessionsByKey = new ConcurrentHashMap<>();
+    private final Map<String, CheckoutRequest> sessionRequestsByKey = new ConcurrentHashMap<>();
+    private final AtomicInteger createdSessions = new AtomicInteger();
+    private final Map<String, ChargeResult> chargesByKey = new ConcurrentHashMap<>();
+    private final AtomicInteger createdCharges = new AtomicInteger();
+
+    @Override
+    public CheckoutSession createCheckoutSession(CheckoutRequest request, String idempotencyKey) {
+        CheckoutRequest first = sessionRequestsByKey.putIfAbsent(idempotencyKey, request);
+        if (first != null && !first.equals(request)) {
+            throw new PaymentGatewayException("Keys for idempotent requests can only be used with the same parameters: "
+                    + idempotencyKey);
+        }
+        return sessionsByKey.computeIfAbsent(idempotencyKey, key -> {
+            createdSessions.incrementAndGet();
+            String id = "cs_fake_" + UUID.randomUUID().toString().replace("-", "");
+            log.info("Fake checkout session created: ID={}, Request={}", id, request);
+            return new CheckoutSession(id, "https://checkout.fake.local/pay/" + id, request.getExpiresAt());
+        });
+    }
+
+    @Override
+    public ChargeResult charge(ChargeRequest request, String idempotencyKey) {
+        ChargeResult result = chargesByKey.computeIfAbsent(idempotencyKey, key -> {
+            createdCharges.incrementAndGet();
+            if (request.getCustomerRef().contains("decline")) {
+                log.info("Fake charge declined: Request={}", request);
+                return ChargeResult.declined("card_declined");
+            }
+            String id = "pi_fake_" + UUID.randomUUID().toString().replace("-", "");
+            log.debug("Fake charge succeeded: ID={}, Request={}", id, request);
+            return ChargeResult.succeeded(id);
+        });
+        if (request.getCustomerRef().contains("lost-response")) {
+            throw new PaymentGatewayException("Fake charge response lost: key " + idempotencyKey);
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<ChargeResult> findCharge(String idempotencyKey) {
+        return Optional.ofNullable(chargesByKey.get(idempotencyKey));
+    }
+
+    public int getCreatedSessions() {
+        return createdSessions.get();
+    }
+
+    public int getCreatedCharges() {
+        return createdCharges.get();
+    }
+}
@@ -4,6 +4,7 @@ import com.nutriflow.dto.request.HealthDataRequest;
 import com.nutriflow.dto.response.HealthDataResponse;
 import com.nutriflow.entities.*;
 import com.nutriflow.enums.UserStatus;
+import com.nutriflow.events.AccountChangedEvent;
 import com.nutriflow.helpers.EntityFinderHelper;
 import com.nutriflow.mappers.HealthMapper;
 import com.nutriflow.repositories.UserRepository;
@@ -11,6 +12,7 @@ import com.nutriflow.services.FileStorageService;
 import com.nutriflow.services.HealthProfileService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -29,6 +31,7 @@ public class HealthProfileServiceImpl implements HealthProfileService {
 
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Helpers
     private final EntityFinderHelper entityFinder;
@@ -75,6 +78,7 @@ public class HealthProfileServiceImpl implements HealthProfileService {
         log.info("Saving user, HealthProfile and Address...");
         UserEntity savedUser = userRepository.save(user);
         log.info("First save completed. HealthProfileId={}", savedUser.getHealthProfile().getId());
+        eventPublisher.publishEvent(new AccountChangedEvent(savedUser.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
 
         // 6. Process medical files
         if (hasFiles(files)) {
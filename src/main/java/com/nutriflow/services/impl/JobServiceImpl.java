@@ -0,0 +1,229 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.dto.response.JobResponse;
+import com.nutriflow.dto.response.JobRunResponse;
+import com.nutriflow.dto.response.JobStatsResponse;
+import com.nutriflow.enums.JobRunStatus;
+import com.nutriflow.enums.JobTrigger;
+import com.nutriflow.exceptions.ResourceNotFoundException;
+import com.nutriflow.helpers.JobRegistry;
+import com.nutriflow.helpers.JobRunContext;
+import com.nutriflow.services.JobService;
+import com.nutriflow.utils.RetryUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Job run history in {@code job_runs}.
+ *
+ * Scheduled runs are inserted as RUNNING when they start; manual runs are inserted as QUEUED when
+ * triggered, so the caller gets the run id at once, and execute on the scheduler pool. A manual run
+ * still QUEUED after the job returned never got past the cluster lock and is marked SKIPPED.
+ * All writes are autocommit statements outside the job's own transaction.
+ */
+@Service
+@Slf4j
+public class JobServiceImpl implements JobService {
+
+    private static final String RUN_COLUMNS =
+            "id, job_name, trigger_type, status, instance_id, requested_at, started_at, finished_at, " +
+            "duration_ms, affected_rows, error";
+
+    private static final String INSERT_RUN_SQL =
+            "INSERT INTO job_runs (job_name, trigger_type, status, instance_id, requested_at, started_at) " +
+            "VALUES (?, ?, ?, ?, now(), ?)";
+
+    private static final String START_QUEUED_SQL =
+            "UPDATE job_runs SET status = 'RUNNING', instance_id = ?, started_at = now() WHERE id = ?";
+
+    private static final String FINISH_SQL =
+            "UPDATE job_runs SET status = ?, finished_at = now(), duration_ms = ?, affected_rows = ?, error = ? WHERE id = ?";
+
+    private static final String SKIP_QUEUED_SQL =
+            "UPDATE job_runs SET status = 'SKIPPED', finished_at = now(), " +
+            "error = 'Lock held by another instance or job already ran within its window' " +
+            "WHERE id = ? AND status = 'QUEUED'";
+
+    private static final String FIND_RUN_SQL =
+            "SELECT " + RUN_COLUMNS + " FROM job_runs WHERE id = ?";
+
+    private static final String RECENT_RUNS_SQL =
+            "SELECT " + RUN_COLUMNS + " FROM job_runs WHERE job_name = ? ORDER BY id DESC LIMIT ?";
+
+    private static final String LAST_RUNS_SQL =
+            "SELECT DISTINCT ON (job_name) " + RUN_COLUMNS + " FROM job_runs ORDER BY job_name, id DESC";
+
+    private static final String STATS_SQL =
+            "SELECT COUNT(*) AS runs, " +
+            "COUNT(*) FILTER (WHERE status = 'FAILED') AS failures, " +
+            "percentile_cont(0.5) WITHIN GROUP (ORDER BY duration_ms) AS p50, " +
+            "percentile_cont(0.9) WITHIN GROUP (ORDER BY duration_ms) AS p90, " +
+            "percentile_cont(0.99) WITHIN GROUP (ORDER BY duration_ms) AS p99, " +
+            "MAX(duration_ms) AS max_ms, " +
+            "AVG(affected_rows)::float8 AS avg_affected " +
+            "FROM job_runs WHERE job_name = ? AND finished_at >= ? AND status IN ('SUCCEEDED', 'FAILED')";
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private static final RowMapper<JobRunResponse> RUN_MAPPER = (rs, rowNum) -> JobRunResponse.builder()
+            .id(rs.getLong("id"))
+            .jobName(rs.getString("job_name"))
+            .trigger(JobTrigger.valueOf(rs.getString("trigger_type")))
+            .status(JobRunStatus.valueOf(rs.getString("status")))
+            .instanceId(rs.getString("instance_id"))
+            .requestedAt(rs.getObject("requested_at", LocalDateTime.class))
+            .startedAt(rs.getObject("started_at", LocalDateTime.class))
+            .finishedAt(rs.getObject("finished_at", LocalDateTime.class))
+            .durationMs(rs.getObject("duration_ms", Long.class))
+            .affectedRows(rs.getObject("affected_rows", Long.class))
+            .error(rs.getString("error"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobRegistry jobRegistry;
+    private final TaskScheduler taskScheduler;
+    private final MeterRegistry meterRegistry;
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+
+    public JobServiceImpl(DataSource dataSource,
+                          JobRegistry jobRegistry,
+                          TaskScheduler taskScheduler,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jobRegistry = jobRegistry;
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<JobResponse> listJobs() {
+        Map<String, JobRunResponse> lastRuns = jdbcTemplate.query(LAST_RUNS_SQL, RUN_MAPPER).stream()
+                .collect(Collectors.toMap(JobRunResponse::getJobName, Function.identity()));
+
+        return jobRegistry.getJobs().stream()
+                .map(job -> JobResponse.builder()
+                        .name(job.getName())
+                        .schedule(job.getSchedule())
+                        .lastRun(lastRuns.get(job.getName()))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Queues a manual run and returns immediately; poll {@link #getRun(Long)} for the outcome.
+     */
+    @Override
+    public JobRunResponse trigger(String jobName) {
+        JobRegistry.RegisteredJob job = findJob(jobName);
+        long runId = insertRun(jobName, JobTrigger.MANUAL, JobRunStatus.QUEUED, null);
+
+        taskScheduler.schedule(() -> {
+            JobRunContext.bindManual(runId);
+            try {
+                job.invoke();
+            } catch (Exception e) {
+                log.error("❌ [JOBS] Manual run {} of {} failed: {}", runId, jobName, e.getMessage(), e);
+            } finally {
+                JobRunContext.clear();
+                jdbcTemplate.update(SKIP_QUEUED_SQL, runId);
+            }
+        }, Instant.now());
+
+        log.info("📋 [JOBS] Manual run {} of {} queued", runId, jobName);
+        return getRun(runId);
+    }
+
+    @Override
+    public JobRunResponse getRun(Long runId) {
+        return jdbcTemplate.query(FIND_RUN_SQL, RUN_MAPPER, runId).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Job run not found: " + runId));
+    }
+
+    @Override
+    public List<JobRunResponse> getRecentRuns(String jobName, int limit) {
+        findJob(jobName);
+        return jdbcTemplate.query(RECENT_RUNS_SQL, RUN_MAPPER, jobName, limit);
+    }
+
+    @Override
+    public JobStatsResponse getStats(String jobName, int days) {
+        findJob(jobName);
+        LocalDateTime since = LocalDateTime.now().minusDays(days);
+
+        return jdbcTemplate.queryForObject(STATS_SQL, (rs, rowNum) -> JobStatsResponse.builder()
+                .jobName(jobName)
+                .since(since)
+                .runs(rs.getLong("runs"))
+                .failures(rs.getLong("failures"))
+                .p50Ms(rs.getObject("p50", Double.class))
+                .p90Ms(rs.getObject("p90", Double.class))
+                .p99Ms(rs.getObject("p99", Double.class))
+                .maxMs(rs.getObject("max_ms", Long.class))
+                .avgAffectedRows(rs.getObject("avg_affected", Double.class))
+                .build(), jobName, Timestamp.valueOf(since));
+    }
+
+    /**
+     * @param queuedRunId Id of the manual run bound to this thread, or null for a scheduled run
+     * @return Id of the RUNNING row
+     */
+    @Override
+    public long startRun(String jobName, Long queuedRunId) {
+        if (queuedRunId != null) {
+            jdbcTemplate.update(START_QUEUED_SQL, instanceId, queuedRunId);
+            return queuedRunId;
+        }
+        return insertRun(jobName, JobTrigger.SCHEDULED, JobRunStatus.RUNNING, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public void finishRun(long runId, String jobName, JobRunStatus status, long durationMs, Long affectedRows, String error) {
+        Timer.builder("nutriflow.job.duration")
+                .tag("job", jobName)
+                .tag("status", status.name())
+                .register(meterRegistry)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+
+        jdbcTemplate.update(FINISH_SQL, status.name(), durationMs, affectedRows,
+                RetryUtils.truncateError(error, MAX_ERROR_LENGTH), runId);
+    }
+
+    private long insertRun(String jobName, JobTrigger trigger, JobRunStatus status, Timestamp startedAt) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_RUN_SQL, new String[]{"id"});
+            ps.setString(1, jobName);
+            ps.setString(2, trigger.name());
+            ps.setString(3, status.name());
+            ps.setString(4, startedAt == null ? null : instanceId);
+            ps.setTimestamp(5, startedAt);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private JobRegistry.RegisteredJob findJob(String jobName) {
+        return jobRegistry.find(jobName)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found: " + jobName));
+    }
+}
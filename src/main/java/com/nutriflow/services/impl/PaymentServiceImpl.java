@@ -1,35 +1,42 @@
 package com.nutriflow.services.impl;
 
 import com.nutriflow.entities.PaymentEntity;
+import com.nutriflow.entities.PlanEntity;
 import com.nutriflow.entities.SubscriptionEntity;
 import com.nutriflow.entities.UserEntity;
 import com.nutriflow.enums.PaymentStatus;
+import com.nutriflow.exceptions.ResourceNotFoundException;
 import com.nutriflow.exceptions.UserNotFoundException;
 import com.nutriflow.exceptions.WebhookProcessingException;
+import com.nutriflow.helpers.CheckoutSessionCache;
 import com.nutriflow.helpers.SubscriptionHelper;
 import com.nutriflow.repositories.PaymentRepository;
+import com.nutriflow.repositories.PlanRepository;
 import com.nutriflow.repositories.SubscriptionRepository;
 import com.nutriflow.repositories.UserRepository;
+import com.nutriflow.services.PaymentGateway;
 import com.nutriflow.services.PaymentService;
-import com.stripe.Stripe;
+import com.nutriflow.services.RevenueLedgerService;
+import com.nutriflow.services.StripeEventService;
 import com.stripe.exception.SignatureVerificationException;
-import com.stripe.exception.StripeException;
 import com.stripe.model.Event;
 import com.stripe.model.EventDataObjectDeserializer;
 import com.stripe.model.StripeObject;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.ApiResource;
 import com.stripe.net.Webhook;
-import com.stripe.param.checkout.SessionCreateParams;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Payment Service Implementation (Refactored).
@@ -43,62 +50,64 @@ public class PaymentServiceImpl implements PaymentService {
     private final UserRepository userRepository;
     private final SubscriptionRepository subscriptionRepository;
     private final PaymentRepository paymentRepository;
+    private final PlanRepository planRepository;
+    private final StripeEventService stripeEventService;
+    private final PaymentGateway paymentGateway;
+    private final CheckoutSessionCache checkoutSessionCache;
+    private final RevenueLedgerService revenueLedgerService;
 
     // Helper
     private final SubscriptionHelper subscriptionHelper;
 
-    @Value("${stripe.api.key}")
-    private String stripeApiKey;
-
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
 
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = stripeApiKey;
-        log.info("✅ Stripe API initialized successfully");
-    }
+    // Plan sold through checkout
+    @Value("${nutriflow.billing.default-plan:PREMIUM}")
+    private String defaultPlanCode;
 
+    /**
+     * Returns the user's open checkout URL from Redis if there is one; only otherwise is the
+     * gateway called, with an idempotency key shared by concurrent requests of the same user.
+     */
     @Override
-    public String createCheckoutSession(Long userId) throws StripeException {
-        log.info("Stripe Checkout Session creation started: UserId={}", userId);
+    public String createCheckoutSession(Long userId) {
+        Optional<String> cachedUrl = checkoutSessionCache.findUrl(userId);
+        if (cachedUrl.isPresent()) {
+            log.info("Open checkout session reused: UserId={}", userId);
+            return cachedUrl.get();
+        }
+
+        log.info("Checkout Session creation started: UserId={}", userId);
 
-        // Store userId in metadata
+        PlanEntity plan = planRepository.findByCodeAndActiveTrue(defaultPlanCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Plan not found: " + defaultPlanCode));
+
+        // Store userId and plan in metadata
         Map<String, String> metadata = new HashMap<>();
         metadata.put("userId", String.valueOf(userId));
+        metadata.put("planCode", plan.getCode());
 
-        SessionCreateParams params = SessionCreateParams.builder()
-                .setMode(SessionCreateParams.Mode.PAYMENT)
-                .setSuccessUrl("http://localhost:3000/payment-success?session_id={CHECKOUT_SESSION_ID}")
-                .setCancelUrl("http://localhost:3000/payment-cancel")
-                .addLineItem(
-                        SessionCreateParams.LineItem.builder()
-                                .setQuantity(1L)
-                                .setPriceData(
-                                        SessionCreateParams.LineItem.PriceData.builder()
-                                                .setCurrency("azn")
-                                                .setUnitAmount(150000L) // 1500 AZN = 150000 qepik
-                                                .setProductData(
-                                                        SessionCreateParams.LineItem.PriceData.ProductData.builder()
-                                                                .setName("Premium Plan")
-                                                                .setDescription("Monthly Premium Subscription")
-                                                                .build()
-                                                )
-                                                .build()
-                                )
-                                .build()
-                )
-                .putAllMetadata(metadata)
-                .build();
+        CheckoutSessionCache.PendingCheckout pending = checkoutSessionCache.pendingCheckout(userId);
+        PaymentGateway.CheckoutRequest request = new PaymentGateway.CheckoutRequest(
+                plan.getName() + " Plan",
+                plan.getDescription(),
+                plan.getPrice(),
+                pending.getExpiresAt(),
+                metadata);
 
-        Session session = Session.create(params);
-        log.info("✅ Stripe Session created: ID={}, URL={}", session.getId(), session.getUrl());
+        PaymentGateway.CheckoutSession session =
+                paymentGateway.createCheckoutSession(request, pending.getIdempotencyKey());
+        checkoutSessionCache.store(userId, session);
 
         return session.getUrl();
     }
 
+    /**
+     * Verifies the signature and stores the event; processing happens in {@code StripeEventWorker}.
+     * Stripe gets its 2xx as soon as the event is durable, so slow processing never causes redeliveries.
+     */
     @Override
-    @Transactional
     public void handleStripeWebhook(String payload, String sigHeader) {
         log.info("📩 Webhook notification received from Stripe");
 
@@ -111,6 +120,23 @@ public class PaymentServiceImpl implements PaymentService {
             throw new WebhookProcessingException("Invalid signature");
         }
 
+        LocalDateTime createdAt = event.getCreated() == null ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochSecond(event.getCreated()), ZoneId.systemDefault());
+        if (stripeEventService.record(event.getId(), event.getType(), payload, createdAt)) {
+            log.info("📥 Webhook event stored for processing: EventId={}", event.getId());
+        } else {
+            log.info("ℹ️ Webhook event already received, ignoring redelivery: EventId={}", event.getId());
+        }
+    }
+
+    /**
+     * Applies a stored event. Runs inside the worker's transaction; every handler is idempotent,
+     * so retries and replays of the same event are safe.
+     */
+    @Override
+    public void processStripeEvent(String payload) {
+        Event event = ApiResource.GSON.fromJson(payload, Event.class);
+
         // Process based on event type
         switch (event.getType()) {
             case "checkout.session.completed" -> {
@@ -144,12 +170,15 @@ public class PaymentServiceImpl implements PaymentService {
             // Get userId from metadata
             Map<String, String> metadata = session.getMetadata();
             Long userId = Long.parseLong(metadata.get("userId"));
+            // Sessions created before the plan catalog carry no plan code
+            String planCode = metadata.getOrDefault("planCode", defaultPlanCode);
             String stripeSessionId = session.getId();
 
-            log.info("📋 Metadata read: UserId={}, StripeSessionId={}", userId, stripeSessionId);
+            log.info("📋 Metadata read: UserId={}, Plan={}, StripeSessionId={}, Customer={}",
+                    userId, planCode, stripeSessionId, session.getCustomer());
 
             // Finalize subscription
-            finalizeSubscription(userId, stripeSessionId);
+            finalizeSubscription(userId, planCode, stripeSessionId, session.getCustomer());
 
         } catch (Exception e) {
             log.error("❌ Unexpected error during webhook processing: {}", e.getMessage(), e);
@@ -157,8 +186,11 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
 
+    /**
+     * @param customerRef Stripe customer holding the card saved at checkout; renewals charge it
+     */
     @Transactional
-    public void finalizeSubscription(Long userId, String stripeSessionId) {
+    public void finalizeSubscription(Long userId, String planCode, String stripeSessionId, String customerRef) {
         log.info("========== SUBSCRIPTION FINALIZATION STARTED ==========");
         log.info("UserId: {}, StripeSessionId: {}", userId, stripeSessionId);
 
@@ -179,22 +211,33 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         // 🚀 Get subscription returned from HELPER
-        SubscriptionEntity savedSubscription = subscriptionHelper.finalizeSubscriptionWithResources(user, "Premium", 1500.0, 1);
+        // A paid checkout is honoured even if its plan was retired since
+        PlanEntity plan = planRepository.findByCode(planCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Plan not found: " + planCode));
+        SubscriptionEntity savedSubscription = subscriptionHelper.finalizeSubscriptionWithResources(
+                user, plan.getName(), plan.getPrice(), plan.getDurationMonths());
+        savedSubscription.setPlanCode(plan.getCode());
+        savedSubscription.setBillingCustomerRef(customerRef);
 
         // ✅ Use savedSubscription directly when creating payment
         PaymentEntity payment = PaymentEntity.builder()
                 .subscription(savedSubscription) // <-- used instead of user.getSubscription()
-                .amount(1500.0)
+                .amount(plan.getPrice())
                 .provider("stripe")
                 .status(PaymentStatus.SUCCESS)
                 .transactionRef(stripeSessionId)
                 .paymentDate(LocalDateTime.now())
-                .description("Premium Plan Subscription")
+                .description(plan.getName() + " Plan Subscription")
                 .build();
 
         paymentRepository.save(payment);
         log.info("✅ Payment record created: TransactionRef={}", payment.getTransactionRef());
 
+        revenueLedgerService.recordPayment(payment);
+
+        // The paid session must not be handed out again
+        checkoutSessionCache.evict(userId);
+
         log.info("========== SUBSCRIPTION FINALIZATION COMPLETED ==========");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.dto.response.RedisStatsResponse;
+import com.nutriflow.helpers.RedisStatsRecorder;
+import com.nutriflow.services.RedisStatsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Redis statistics built from the counters kept by {@link RedisStatsRecorder} plus INFO memory/keyspace.
+ * The cost of a snapshot does not depend on the number of keys. Gauges read the last snapshot,
+ * which is refreshed on a schedule, so metric scrapes never reach Redis.
+ */
+@Service
+@Slf4j
+public class RedisStatsServiceImpl implements RedisStatsService {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisStatsRecorder redisStatsRecorder;
+    private final AtomicReference<RedisStatsResponse> lastSnapshot = new AtomicReference<>(new RedisStatsResponse());
+
+    public RedisStatsServiceImpl(RedisTemplate<String, String> redisTemplate,
+                                 RedisStatsRecorder redisStatsRecorder,
+                                 MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.redisStatsRecorder = redisStatsRecorder;
+
+        gauge(meterRegistry, "nutriflow.redis.otp.live", RedisStatsResponse::getLiveOtps);
+        gauge(meterRegistry, "nutriflow.redis.refresh.families.live", RedisStatsResponse::getLiveRefreshFamilies);
+        gauge(meterRegistry, "nutriflow.redis.memory.used", RedisStatsResponse::getUsedMemoryBytes);
+        gauge(meterRegistry, "nutriflow.redis.memory.fragmentation", RedisStatsResponse::getMemoryFragmentationRatio);
+        gauge(meterRegistry, "nutriflow.redis.keys", s -> s.getKeysPerDatabase() == null ? 0
+                : s.getKeysPerDatabase().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Override
+    public RedisStatsResponse getStats() {
+        LocalDate today = LocalDate.now();
+        String liveOtps = redisStatsRecorder.key(RedisStatsRecorder.LIVE_OTPS);
+        String liveFamilies = redisStatsRecorder.key(RedisStatsRecorder.LIVE_FAMILIES);
+        long now = System.currentTimeMillis();
+
+        // Expired members are trimmed first; both the trim and the count are O(log n) per removed member
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForZSet().removeRangeByScore(liveOtps, Double.NEGATIVE_INFINITY, now);
+                ops.opsForZSet().removeRangeByScore(liveFamilies, Double.NEGATIVE_INFINITY, now);
+                ops.opsForZSet().zCard(liveOtps);
+                ops.opsForZSet().zCard(liveFamilies);
+                ops.opsForValue().get(redisStatsRecorder.dailyKey(RedisStatsRecorder.OTP_ISSUED, today));
+                ops.opsForValue().get(redisStatsRecorder.dailyKey(RedisStatsRecorder.OTP_VERIFIED, today));
+                ops.opsForValue().get(redisStatsRecorder.dailyKey(RedisStatsRecorder.OTP_LOCKED, today));
+                ops.opsForHyperLogLog().size(redisStatsRecorder.dailyKey(RedisStatsRecorder.OTP_EMAILS, today));
+                ops.opsForValue().get(redisStatsRecorder.dailyKey(RedisStatsRecorder.FAMILIES_CREATED, today));
+                ops.opsForValue().get(redisStatsRecorder.dailyKey(RedisStatsRecorder.TOKEN_REUSE, today));
+                return null;
+            }
+        });
+
+        Properties memory = redisTemplate.execute((RedisCallback<Properties>) connection -> info(connection, "memory"));
+        Properties keyspace = redisTemplate.execute((RedisCallback<Properties>) connection -> info(connection, "keyspace"));
+
+        RedisStatsResponse stats = RedisStatsResponse.builder()
+                .liveOtps(toLong(results.get(2)))
+                .liveRefreshFamilies(toLong(results.get(3)))
+                .otpsIssuedToday(toLong(results.get(4)))
+                .otpsVerifiedToday(toLong(results.get(5)))
+                .otpsLockedToday(toLong(results.get(6)))
+                .distinctOtpEmailsToday(toLong(results.get(7)))
+                .refreshFamiliesCreatedToday(toLong(results.get(8)))
+                .refreshTokenReuseToday(toLong(results.get(9)))
+                .usedMemoryBytes(toLong(memory.getProperty("used_memory")))
+                .usedMemoryPeakBytes(toLong(memory.getProperty("used_memory_peak")))
+                .maxMemoryBytes(toLong(memory.getProperty("maxmemory")))
+                .memoryFragmentationRatio(toDouble(memory.getProperty("mem_fragmentation_ratio")))
+                .keysPerDatabase(parseKeyspace(keyspace))
+                .generatedAt(LocalDateTime.now())
+                .build();
+
+        lastSnapshot.set(stats);
+        return stats;
+    }
+
+    @Override
+    public RedisStatsResponse getLastSnapshot() {
+        return lastSnapshot.get();
+    }
+
+    @Scheduled(fixedDelayString = "${nutriflow.redis.stats.refresh-interval-ms:60000}")
+    public void refreshSnapshot() {
+        try {
+            getStats();
+        } catch (Exception e) {
+            log.warn("Redis statistics snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, ToDoubleFunction<RedisStatsResponse> value) {
+        Gauge.builder(name, lastSnapshot, ref -> value.applyAsDouble(ref.get())).register(meterRegistry);
+    }
+
+    private static Properties info(RedisConnection connection, String section) {
+        Properties properties = connection.serverCommands().info(section);
+        return properties != null ? properties : new Properties();
+    }
+
+    /**
+     * Parses INFO keyspace lines such as {@code db0 -> keys=12,expires=10,avg_ttl=0}.
+     */
+    private static Map<String, Long> parseKeyspace(Properties keyspace) {
+        Map<String, Long> keys = new TreeMap<>();
+        for (String db : keyspace.stringPropertyNames()) {
+            for (String part : keyspace.getProperty(db).split(",")) {
+                if (part.startsWith("keys=")) {
+                    keys.put(db, toLong(part.substring("keys=".length())));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double toDouble(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.enums.DeliveryStatus;
+import com.nutriflow.enums.ReportFormat;
+import com.nutriflow.enums.ReportType;
+import com.nutriflow.exceptions.BusinessException;
+import com.nutriflow.exceptions.FileStorageException;
+import com.nutriflow.helpers.ReportWriter;
+import com.nutriflow.services.ReportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Admin reports streamed straight from a server-side cursor into a {@link ReportWriter}.
+ *
+ * Rows are fetched nutriflow.reports.fetch-size at a time and written one by one, so neither the
+ * result set nor the document is ever held in memory as a whole. Every report covers the
+ * half-open period [from, to).
+ */
+@Service
+@Slf4j
+public class ReportServiceImpl implements ReportService {
+
+    private static final String SUBSCRIPTIONS_SQL =
+            "SELECT s.id AS subscription_id, u.id AS user_id, u.first_name, u.last_name, u.email, " +
+            "s.plan_name, " + majorAmount("s.price_minor", "s.currency") + " AS price, s.currency, " +
+            "s.status, s.start_date, s.end_date, s.created_at " +
+            "FROM subscriptions s JOIN users u ON u.id = s.user_id " +
+            "WHERE s.end_date >= ? AND s.start_date < ? ORDER BY s.id";
+
+    private static final String PAYMENTS_SQL =
+            "SELECT p.id AS payment_id, p.subscription_id, u.id AS user_id, u.email, p.provider, " +
+            majorAmount("p.amount_minor", "p.currency") + " AS amount, p.currency, " +
+            "p.status, p.transaction_ref, p.payment_date, p.created_at, p.description " +
+            "FROM payments p JOIN subscriptions s ON s.id = p.subscription_id JOIN users u ON u.id = s.user_id " +
+            "WHERE p.created_at >= ? AND p.created_at < ? ORDER BY p.id";
+
+    private static final String CATERER_DELIVERIES_SQL =
+            "SELECT c.id AS caterer_id, c.name AS caterer_name, d.delivery_date, COUNT(*) AS total, " +
+            Arrays.stream(DeliveryStatus.values())
+                    .map(status -> "COUNT(*) FILTER (WHERE d.status = '" + status.name() + "') AS " +
+                            status.name().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.joining(", ")) + " " +
+            "FROM deliveries d JOIN caterers c ON c.id = d.caterer_id " +
+            "WHERE d.delivery_date >= ? AND d.delivery_date < ? " +
+            "GROUP BY c.id, c.name, d.delivery_date ORDER BY c.id, d.delivery_date";
+
+    private static final String ACTIVITY_LOGS_SQL =
+            "SELECT id, created_at, actor_type, actor_id, action, entity_type, entity_id, ip_address, details " +
+            "FROM activity_logs WHERE created_at >= ? AND created_at < ? ORDER BY id";
+
+    /**
+     * SQL expression for the fraction digits of a row's currency: 2 unless the ISO 4217 default differs.
+     */
+    private static String fractionDigits(String currencyColumn) {
+        return "CASE " + currencyColumn + " " +
+                Currency.getAvailableCurrencies().stream()
+                        .filter(currency -> currency.getDefaultFractionDigits() >= 0
+                                && currency.getDefaultFractionDigits() != 2)
+                        .map(currency -> "WHEN '" + currency.getCurrencyCode() + "' THEN "
+                                + currency.getDefaultFractionDigits())
+                        .sorted()
+                        .collect(Collectors.joining(" ")) +
+                " ELSE 2 END";
+    }
+
+    /**
+     * SQL expression converting a minor-unit amount to major units, e.g. 150000 AZN to 1500.00, like
+     * {@code Money.toMajor()}.
+     */
+    private static String majorAmount(String amountColumn, String currencyColumn) {
+        String digits = fractionDigits(currencyColumn);
+        return "ROUND(" + amountColumn + "::numeric / POWER(10::numeric, " + digits + "), " + digits + ")";
+    }
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public ReportServiceImpl(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${nutriflow.reports.fetch-size:1000}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+
+        // PostgreSQL only uses a server-side cursor inside a transaction (autocommit off)
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public StreamingResponseBody stream(ReportType type, ReportFormat format, LocalDate from, LocalDate to) {
+        validatePeriod(from, to);
+        return out -> write(type, format, from, to, out);
+    }
+
+    /**
+     * Writes the report to {@code out}; the stream is flushed but not closed.
+     *
+     * @return Number of data rows written
+     */
+    @Override
+    public long write(ReportType type, ReportFormat format, LocalDate from, LocalDate to, OutputStream out) {
+        validatePeriod(from, to);
+        long startMillis = System.currentTimeMillis();
+
+        Long rows = readOnlyTransactionTemplate.execute(status -> {
+            long[] count = {0};
+            try (ReportWriter writer = ReportWriter.open(format, out)) {
+                // The header comes from the result set metadata, which the driver also sends for no rows
+                cursorJdbcTemplate.query(sql(type), (ResultSetExtractor<Void>) rs -> {
+                    try {
+                        ResultSetMetaData meta = rs.getMetaData();
+                        List<String> columns = new ArrayList<>(meta.getColumnCount());
+                        for (int i = 1; i <= meta.getColumnCount(); i++) {
+                            columns.add(meta.getColumnLabel(i));
+                        }
+                        writer.writeHeader(columns);
+
+                        while (rs.next()) {
+                            Object[] values = new Object[columns.size()];
+                            for (int i = 0; i < values.length; i++) {
+                                values[i] = rs.getObject(i + 1);
+                            }
+                            writer.writeRow(values);
+                            count[0]++;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return null;
+                }, parameters(type, from, to));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count[0];
+        });
+
+        log.info("📊 [REPORTS] {} report ({}) for {} - {} written | Rows: {} | Time: {}ms",
+                type, format, from, to, rows, System.currentTimeMillis() - startMillis);
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Writes the report to a temporary file; the caller deletes it when done.
+     */
+    @Override
+    public Path writeToFile(ReportType type, ReportFormat format, LocalDate from, LocalDate to) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("nutriflow-report-", "." + extension(format));
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                write(type, format, from, to, out);
+            }
+            return file;
+        } catch (IOException | UncheckedIOException e) {
+            deleteQuietly(file);
+            log.error("Error while writing {} report to file: {}", type, e.getMessage(), e);
+            throw new FileStorageException("Report could not be written", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    /**
+     * E.g. payments_2026-01-01_2026-02-01.xlsx; the end date is exclusive.
+     */
+    @Override
+    public String fileName(ReportType type, ReportFormat format, LocalDate from, LocalDate to) {
+        return type.name().toLowerCase(Locale.ROOT) + "_" + from + "_" + to + "." + extension(format);
+    }
+
+    private static String sql(ReportType type) {
+        return switch (type) {
+            case SUBSCRIPTIONS -> SUBSCRIPTIONS_SQL;
+            case PAYMENTS -> PAYMENTS_SQL;
+            case CATERER_DELIVERIES -> CATERER_DELIVERIES_SQL;
+            case ACTIVITY_LOGS -> ACTIVITY_LOGS_SQL;
+        };
+    }
+
+    private static Object[] parameters(ReportType type, LocalDate from, LocalDate to) {
+        return switch (type) {
+            case SUBSCRIPTIONS, CATERER_DELIVERIES -> new Object[]{from, to};
+            case PAYMENTS, ACTIVITY_LOGS -> new Object[]{
+                    Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay())};
+        };
+    }
+
+    private static String extension(ReportFormat format) {
+        return format.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static void validatePeriod(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new BusinessException("Report period start must be before its end");
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary report file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.entities.Money;
+import com.nutriflow.entities.PaymentEntity;
+import com.nutriflow.enums.LedgerEntryType;
+import com.nutriflow.services.RevenueLedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Append-only revenue ledger ({@code revenue_ledger}) with per-day running balances
+ * ({@code revenue_daily_balances}).
+ *
+ * Booking an entry appends it, adds it to its day's row and shifts the running total of that day
+ * and every later day. Bookings of one currency are serialized with a transaction-scoped advisory
+ * lock, so a new day row always starts from the committed total of the day before it. Totals are
+ * then read from a single row instead of summing every payment.
+ */
+@Service
+@Slf4j
+public class RevenueLedgerServiceImpl implements RevenueLedgerService {
+
+    private static final String LOCK_SQL =
+            "SELECT pg_advisory_xact_lock(hashtext('revenue-ledger:' || ?))";
+
+    private static final String INSERT_ENTRY_SQL =
+            "INSERT INTO revenue_ledger (payment_id, entry_type, amount_minor, currency, booking_day, occurred_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (payment_id, entry_type) DO NOTHING";
+
+    private static final String UPSERT_DAY_SQL =
+            "INSERT INTO revenue_daily_balances (currency, day, amount_minor, entry_count, running_total_minor) " +
+            "VALUES (?, ?, ?, ?, ? + COALESCE((SELECT running_total_minor FROM revenue_daily_balances " +
+            "WHERE currency = ? AND day < ? ORDER BY day DESC LIMIT 1), 0)) " +
+            "ON CONFLICT (currency, day) DO UPDATE SET " +
+            "amount_minor = revenue_daily_balances.amount_minor + EXCLUDED.amount_minor, " +
+            "entry_count = revenue_daily_balances.entry_count + EXCLUDED.entry_count, " +
+            "running_total_minor = revenue_daily_balances.running_total_minor + EXCLUDED.amount_minor";
+
+    private static final String SHIFT_LATER_DAYS_SQL =
+            "UPDATE revenue_daily_balances SET running_total_minor = running_total_minor + ? " +
+            "WHERE currency = ? AND day > ?";
+
+    private static final String TOTAL_SQL =
+            "SELECT running_total_minor FROM revenue_daily_balances WHERE currency = ? ORDER BY day DESC LIMIT 1";
+
+    private static final String MONTHLY_SQL =
+            "SELECT TRIM(TO_CHAR(MIN(day), 'Month')) AS month, SUM(amount_minor) AS amount_minor " +
+            "FROM revenue_daily_balances WHERE currency = ? AND day BETWEEN ? AND ? " +
+            "GROUP BY date_trunc('month', day) ORDER BY date_trunc('month', day)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RevenueLedgerServiceImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Books a successful payment in the caller's transaction. A payment is booked at most once.
+     *
+     * @return false if the payment was already booked
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean recordPayment(PaymentEntity payment) {
+        LocalDateTime occurredAt = payment.getPaymentDate() != null ? payment.getPaymentDate() : LocalDateTime.now();
+        return recordPayments(List.of(new PaymentBooking(payment.getId(), payment.getAmount(), occurredAt))) == 1;
+    }
+
+    /**
+     * Books many payments in the caller's transaction: the entries are inserted in one batch and every
+     * day touched gets a single upsert and shift, however many of the payments fall on it.
+     *
+     * @return Number of payments booked; already booked ones are skipped
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordPayments(List<PaymentBooking> bookings) {
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+
+        // Sorted, so concurrent bulk bookings take the currency locks in the same order
+        new TreeSet<>(bookings.stream().map(b -> b.getAmount().getCurrency()).toList())
+                .forEach(currency -> jdbcTemplate.queryForList(LOCK_SQL, currency));
+
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, bookings.stream()
+                .map(b -> new Object[]{b.getPaymentId(), LedgerEntryType.PAYMENT.name(), b.getAmount().getAmountMinor(),
+                        b.getAmount().getCurrency(), b.getOccurredAt().toLocalDate(), Timestamp.valueOf(b.getOccurredAt())})
+                .toList());
+
+        // (currency, day) -> {amount, count} of the entries actually inserted
+        Map<String, Map<LocalDate, long[]>> days = new TreeMap<>();
+        int booked = 0;
+        PaymentBooking lastBooked = null;
+        for (int i = 0; i < bookings.size(); i++) {
+            PaymentBooking booking = bookings.get(i);
+            if (inserted[i] == 0) {
+                log.warn("Payment {} is already booked in the revenue ledger", booking.getPaymentId());
+                continue;
+            }
+            long[] day = days.computeIfAbsent(booking.getAmount().getCurrency(), c -> new TreeMap<>())
+                    .computeIfAbsent(booking.getOccurredAt().toLocalDate(), d -> new long[2]);
+            day[0] += booking.getAmount().getAmountMinor();
+            day[1]++;
+            booked++;
+            lastBooked = booking;
+        }
+
+        days.forEach((currency, amounts) -> amounts.forEach((day, sums) -> {
+            jdbcTemplate.update(UPSERT_DAY_SQL, currency, day, sums[0], sums[1], sums[0], currency, day);
+            // Touches rows only for a late booking dated before the latest day
+            jdbcTemplate.update(SHIFT_LATER_DAYS_SQL, sums[0], currency, day);
+        }));
+
+        if (booked == 1) {
+            log.info("Payment {} booked in the revenue ledger: {} on {}",
+                    lastBooked.getPaymentId(), lastBooked.getAmount(), lastBooked.getOccurredAt().toLocalDate());
+        } else if (booked > 1) {
+            log.info("{} payments booked in the revenue ledger", booked);
+        }
+        return booked;
+    }
+
+    @Override
+    public Money totalRevenue(String currency) {
+        Long total = jdbcTemplate.query(TOTAL_SQL, rs -> rs.next() ? rs.getLong(1) : 0L, currency);
+        return Money.of(total == null ? 0L : total, currency);
+    }
+
+    /**
+     * Net revenue per calendar month, in order, from the daily rows of the period (at most one row per day).
+     */
+    @Override
+    public Map<String, Money> monthlyRevenue(String currency, LocalDate from, LocalDate to) {
+        Map<String, Money> months = new LinkedHashMap<>();
+        jdbcTemplate.query(MONTHLY_SQL, rs -> {
+            months.merge(rs.getString("month"), Money.of(rs.getLong("amount_minor"), currency), Money::plus);
+        }, currency, from, to);
+        return months;
+    }
+}
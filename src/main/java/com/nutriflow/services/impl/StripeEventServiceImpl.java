@@ -0,0 +1,181 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.dto.response.StripeEventResponse;
+import com.nutriflow.enums.StripeEventStatus;
+import com.nutriflow.exceptions.ResourceConflictException;
+import com.nutriflow.exceptions.ResourceNotFoundException;
+import com.nutriflow.services.StripeEventService;
+import com.nutriflow.utils.RetryUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inbox of verified Stripe webhook events in the {@code stripe_events} table.
+ *
+ * The event id is the primary key, so a redelivered event is stored once. Workers claim due rows
+ * with FOR UPDATE SKIP LOCKED like the email outbox; a claim older than the stale timeout belongs
+ * to a worker that died mid-event and is taken over. Marking an event processed joins the
+ * caller's transaction, so it commits together with the event's business changes.
+ */
+@Service
+@Slf4j
+public class StripeEventServiceImpl implements StripeEventService {
+
+    private static final String COLUMNS =
+            "id, type, status, attempts, next_attempt_at, last_error, stripe_created_at, received_at, processed_at";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO stripe_events (id, type, payload, stripe_created_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    private static final String CLAIM_SQL =
+            "WITH due AS (" +
+            "SELECT id FROM stripe_events " +
+            "WHERE (status = 'PENDING' AND next_attempt_at <= now()) " +
+            "OR (status = 'PROCESSING' AND claimed_at < now() - make_interval(secs => ?)) " +
+            "ORDER BY stripe_created_at NULLS LAST, received_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE stripe_events e SET status = 'PROCESSING', claimed_by = ?, claimed_at = now(), attempts = e.attempts + 1 " +
+            "FROM due WHERE e.id = due.id " +
+            "RETURNING e.id, e.type, e.payload, e.attempts";
+
+    private static final String MARK_PROCESSED_SQL =
+            "UPDATE stripe_events SET status = 'PROCESSED', processed_at = now(), last_error = NULL, " +
+            "claimed_by = NULL, claimed_at = NULL WHERE id = ?";
+
+    private static final String MARK_FAILED_SQL =
+            "UPDATE stripe_events SET status = ?, next_attempt_at = now() + make_interval(secs => ?), last_error = ?, " +
+            "claimed_by = NULL, claimed_at = NULL WHERE id = ?";
+
+    private static final String REPLAY_SQL =
+            "UPDATE stripe_events SET status = 'PENDING', attempts = 0, next_attempt_at = now(), " +
+            "claimed_by = NULL, claimed_at = NULL WHERE id = ? AND status IN ('FAILED', 'PROCESSED')";
+
+    private static final String FIND_SQL =
+            "SELECT " + COLUMNS + " FROM stripe_events WHERE id = ?";
+
+    private static final String LIST_SQL =
+            "SELECT " + COLUMNS + " FROM stripe_events WHERE status = ? ORDER BY received_at DESC LIMIT ?";
+
+    private static final String PURGE_PROCESSED_SQL =
+            "DELETE FROM stripe_events WHERE status = 'PROCESSED' AND processed_at < ?";
+
+    private static final RowMapper<StripeEventResponse> EVENT_MAPPER = (rs, rowNum) -> StripeEventResponse.builder()
+            .id(rs.getString("id"))
+            .type(rs.getString("type"))
+            .status(StripeEventStatus.valueOf(rs.getString("status")))
+            .attempts(rs.getInt("attempts"))
+            .nextAttemptAt(rs.getObject("next_attempt_at", LocalDateTime.class))
+            .lastError(rs.getString("last_error"))
+            .stripeCreatedAt(rs.getObject("stripe_created_at", LocalDateTime.class))
+            .receivedAt(rs.getObject("received_at", LocalDateTime.class))
+            .processedAt(rs.getObject("processed_at", LocalDateTime.class))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${nutriflow.stripe.events.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${nutriflow.stripe.events.backoff-initial-seconds:10}")
+    private long backoffInitialSeconds;
+
+    @Value("${nutriflow.stripe.events.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${nutriflow.stripe.events.stale-claim-seconds:300}")
+    private long staleClaimSeconds;
+
+    public StripeEventServiceImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @return false if the event was already stored (Stripe redelivery)
+     */
+    @Override
+    public boolean record(String eventId, String type, String payload, LocalDateTime stripeCreatedAt) {
+        return jdbcTemplate.update(INSERT_SQL, eventId, type, payload,
+                stripeCreatedAt == null ? null : Timestamp.valueOf(stripeCreatedAt)) > 0;
+    }
+
+    /**
+     * Claims up to {@code limit} due events, oldest Stripe timestamp first. Runs in its own
+     * autocommit statement, so the row locks are released as soon as the claim is recorded.
+     */
+    @Override
+    public List<StoredEvent> claimBatch(String workerId, int limit) {
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new StoredEvent(
+                        rs.getString("id"),
+                        rs.getString("type"),
+                        rs.getString("payload"),
+                        rs.getInt("attempts")),
+                staleClaimSeconds, limit, workerId);
+    }
+
+    @Override
+    public void markProcessed(String eventId) {
+        jdbcTemplate.update(MARK_PROCESSED_SQL, eventId);
+    }
+
+    /**
+     * Schedules the next attempt with exponential backoff and jitter, or gives up after the last attempt.
+     *
+     * @return true if another attempt was scheduled
+     */
+    @Override
+    public boolean markFailed(StoredEvent event, String error) {
+        boolean giveUp = event.getAttempts() >= maxAttempts;
+        StripeEventStatus status = giveUp ? StripeEventStatus.FAILED : StripeEventStatus.PENDING;
+        long delaySeconds = giveUp ? 0
+                : RetryUtils.backoffSeconds(event.getAttempts(), backoffInitialSeconds, backoffMaxSeconds);
+
+        jdbcTemplate.update(MARK_FAILED_SQL, status.name(), delaySeconds, RetryUtils.truncateError(error), event.getId());
+
+        if (giveUp) {
+            log.error("Stripe event {} ({}) failed permanently after {} attempt(s): {}",
+                    event.getId(), event.getType(), event.getAttempts(), error);
+        } else {
+            log.warn("Stripe event {} ({}) failed (attempt {}), retrying in {}s: {}",
+                    event.getId(), event.getType(), event.getAttempts(), delaySeconds, error);
+        }
+        return !giveUp;
+    }
+
+    @Override
+    public List<StripeEventResponse> listEvents(StripeEventStatus status, int limit) {
+        return jdbcTemplate.query(LIST_SQL, EVENT_MAPPER, status.name(), limit);
+    }
+
+    /**
+     * Queues a FAILED or PROCESSED event for another round of processing with a fresh attempt
+     * budget. Handlers are idempotent, so replaying an already processed event is harmless. An event
+     * that is pending or being processed is left alone, so no two workers ever hold it at once.
+     */
+    @Override
+    public StripeEventResponse replay(String eventId) {
+        if (jdbcTemplate.update(REPLAY_SQL, eventId) == 0) {
+            List<StripeEventResponse> existing = jdbcTemplate.query(FIND_SQL, EVENT_MAPPER, eventId);
+            if (existing.isEmpty()) {
+                throw new ResourceNotFoundException("Stripe event not found: " + eventId);
+            }
+            throw new ResourceConflictException("Stripe event " + eventId + " is " + existing.get(0).getStatus()
+                    + " and cannot be replayed now");
+        }
+        log.info("Stripe event {} queued for replay", eventId);
+        return jdbcTemplate.queryForObject(FIND_SQL, EVENT_MAPPER, eventId);
+    }
+
+    @Override
+    public int purgeProcessed(LocalDateTime before) {
+        return jdbcTemplate.update(PURGE_PROCESSED_SQL, Timestamp.valueOf(before));
+    }
+}
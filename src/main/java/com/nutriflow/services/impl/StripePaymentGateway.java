@@ -0,0 +1,176 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.exceptions.PaymentGatewayException;
+import com.nutriflow.services.PaymentGateway;
+import com.stripe.Stripe;
+import com.stripe.exception.CardException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentMethod;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentSearchParams;
+import com.stripe.param.PaymentMethodListParams;
+import com.stripe.param.checkout.SessionCreateParams;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Stripe Checkout and off-session PaymentIntents. Every session is created with an explicit expiry
+ * and an idempotency key, so a retried request within Stripe's 24h key window returns the session
+ * created first. Checkout always creates a customer and saves the card for off-session use, which is
+ * what renewals charge later.
+ */
+@Service
+@ConditionalOnProperty(name = "nutriflow.payments.gateway", havingValue = "stripe", matchIfMissing = true)
+@Slf4j
+public class StripePaymentGateway implements PaymentGateway {
+
+    // Every off-session PaymentIntent carries its idempotency key, so findCharge can search for it
+    private static final String CHARGE_KEY_METADATA = "chargeKey";
+
+    @Value("${stripe.api.key}")
+    private String stripeApiKey;
+
+    @Value("${nutriflow.payments.checkout.success-url:http://localhost:3000/payment-success?session_id={CHECKOUT_SESSION_ID}}")
+    private String successUrl;
+
+    @Value("${nutriflow.payments.checkout.cancel-url:http://localhost:3000/payment-cancel}")
+    private String cancelUrl;
+
+    @PostConstruct
+    public void init() {
+        Stripe.apiKey = stripeApiKey;
+        log.info("✅ Stripe API initialized successfully");
+    }
+
+    @Override
+    public CheckoutSession createCheckoutSession(CheckoutRequest request, String idempotencyKey) {
+        SessionCreateParams params = SessionCreateParams.builder()
+                .setMode(SessionCreateParams.Mode.PAYMENT)
+                .setSuccessUrl(successUrl)
+                .setCancelUrl(cancelUrl)
+                .setExpiresAt(request.getExpiresAt().getEpochSecond())
+                .setCustomerCreation(SessionCreateParams.CustomerCreation.ALWAYS)
+                .setPaymentIntentData(
+                        SessionCreateParams.PaymentIntentData.builder()
+                                .setSetupFutureUsage(SessionCreateParams.PaymentIntentData.SetupFutureUsage.OFF_SESSION)
+                                .build()
+                )
+                .addLineItem(
+                        SessionCreateParams.LineItem.builder()
+                                .setQuantity(1L)
+                                .setPriceData(
+                                        SessionCreateParams.LineItem.PriceData.builder()
+                                                .setCurrency(request.getAmount().getCurrency().toLowerCase(Locale.ROOT))
+                                                .setUnitAmount(request.getAmount().getAmountMinor())
+                                                .setProductData(
+                                                        SessionCreateParams.LineItem.PriceData.ProductData.builder()
+                                                                .setName(request.getProductName())
+                                                                .setDescription(request.getProductDescription())
+                                                                .build()
+                                                )
+                                                .build()
+                                )
+                                .build()
+                )
+                .putAllMetadata(request.getMetadata())
+                .build();
+
+        RequestOptions options = RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey)
+                .build();
+
+        try {
+            Session session = Session.create(params, options);
+            log.info("✅ Stripe Session created: ID={}, URL={}", session.getId(), session.getUrl());
+
+            // An idempotent replay returns the original session with its own expiry
+            Instant sessionExpiresAt = session.getExpiresAt() != null
+                    ? Instant.ofEpochSecond(session.getExpiresAt())
+                    : request.getExpiresAt();
+            return new CheckoutSession(session.getId(), session.getUrl(), sessionExpiresAt);
+        } catch (StripeException e) {
+            log.error("Stripe error: {}", e.getMessage());
+            throw new PaymentGatewayException("Error creating payment: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Confirms a PaymentIntent off-session against the customer's saved card. Card errors, including
+     * cards that require the customer to authenticate, come back as declines.
+     */
+    @Override
+    public ChargeResult charge(ChargeRequest request, String idempotencyKey) {
+        RequestOptions options = RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey)
+                .build();
+
+        try {
+            List<PaymentMethod> cards = PaymentMethod.list(PaymentMethodListParams.builder()
+                    .setCustomer(request.getCustomerRef())
+                    .setType(PaymentMethodListParams.Type.CARD)
+                    .setLimit(1L)
+                    .build()).getData();
+            if (cards.isEmpty()) {
+                return ChargeResult.declined("Customer has no saved card");
+            }
+
+            PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                    .setAmount(request.getAmount().getAmountMinor())
+                    .setCurrency(request.getAmount().getCurrency().toLowerCase(Locale.ROOT))
+                    .setCustomer(request.getCustomerRef())
+                    .setPaymentMethod(cards.get(0).getId())
+                    .setOffSession(true)
+                    .setConfirm(true)
+                    .setDescription(request.getDescription())
+                    .putAllMetadata(request.getMetadata())
+                    .putMetadata(CHARGE_KEY_METADATA, idempotencyKey)
+                    .build();
+
+            return toChargeResult(PaymentIntent.create(params, options));
+        } catch (CardException e) {
+            return ChargeResult.declined(e.getDeclineCode() != null ? e.getDeclineCode() : e.getMessage());
+        } catch (StripeException e) {
+            log.error("Stripe error while charging customer {}: {}", request.getCustomerRef(), e.getMessage());
+            throw new PaymentGatewayException("Error charging customer: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Searches PaymentIntents by their charge key. Stripe's search index lags behind by up to about a
+     * minute, so call this only for charges that are older than that.
+     */
+    @Override
+    public Optional<ChargeResult> findCharge(String idempotencyKey) {
+        PaymentIntentSearchParams params = PaymentIntentSearchParams.builder()
+                .setQuery("metadata['" + CHARGE_KEY_METADATA + "']:'" + idempotencyKey + "'")
+                .setLimit(1L)
+                .build();
+
+        try {
+            return PaymentIntent.search(params).getData().stream()
+                    .findFirst()
+                    .map(StripePaymentGateway::toChargeResult);
+        } catch (StripeException e) {
+            log.error("Stripe error while searching charge {}: {}", idempotencyKey, e.getMessage());
+            throw new PaymentGatewayException("Error searching charge: " + e.getMessage(), e);
+        }
+    }
+
+    private static ChargeResult toChargeResult(PaymentIntent intent) {
+        if ("succeeded".equals(intent.getStatus())) {
+            return ChargeResult.succeeded(intent.getId());
+        }
+        return ChargeResult.declined("PaymentIntent " + intent.getId() + " is " + intent.getStatus());
+    }
+}
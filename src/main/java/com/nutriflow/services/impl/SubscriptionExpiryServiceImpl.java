@@ -0,0 +1,100 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.events.SubscriptionsExpiredEvent;
+import com.nutriflow.helpers.JobFence;
+import com.nutriflow.helpers.RedisLeaseLock;
+import com.nutriflow.services.SubscriptionExpiryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Expires due subscriptions in set-based chunks.
+ *
+ * Every chunk is a single UPDATE ... RETURNING statement in its own short transaction, so row locks
+ * are held for milliseconds. SKIP LOCKED lets the chunk pass over rows another transaction
+ * (e.g. a renewal) is changing; they are picked up by a later chunk or the next run. The chunk's
+ * notifications are written to the email outbox in the same transaction, which is fenced with
+ * the job's lease by {@link JobFence}.
+ */
+@Service
+@Slf4j
+public class SubscriptionExpiryServiceImpl implements SubscriptionExpiryService {
+
+    private static final String EXPIRE_CHUNK_SQL =
+            "WITH due AS (" +
+            "SELECT id FROM subscriptions WHERE status = 'ACTIVE' AND end_date < ? " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE subscriptions s SET status = 'EXPIRED', updated_at = now() " +
+            "FROM due, users u " +
+            "WHERE s.id = due.id AND u.id = s.user_id " +
+            "RETURNING s.id, s.user_id, u.email, u.first_name";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobFence jobFence;
+
+    @Value("${nutriflow.subscription.expiry.chunk-size:1000}")
+    private int chunkSize;
+
+    public SubscriptionExpiryServiceImpl(DataSource dataSource,
+                                         PlatformTransactionManager transactionManager,
+                                         ApplicationEventPublisher eventPublisher,
+                                         JobFence jobFence) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.jobFence = jobFence;
+    }
+
+    /**
+     * Expires every ACTIVE subscription whose end date is before {@code today}.
+     * Must not run inside a surrounding transaction, otherwise all chunks share its locks.
+     *
+     * @param today Reference date
+     * @return Number of expired subscriptions
+     */
+    @Override
+    public int expireDueSubscriptions(LocalDate today) {
+        int total = 0;
+        int chunks = 0;
+        List<SubscriptionsExpiredEvent.ExpiredSubscription> expired;
+        do {
+            RedisLeaseLock.checkCurrentLease();
+
+            expired = transactionTemplate.execute(status -> expireChunk(today));
+
+            if (!expired.isEmpty()) {
+                total += expired.size();
+                chunks++;
+                log.debug("Expiry chunk committed: {} subscriptions", expired.size());
+            }
+        } while (!expired.isEmpty());
+
+        log.info("Subscription expiry finished: expired={}, chunks={}, chunkSize={}", total, chunks, chunkSize);
+        return total;
+    }
+
+    private List<SubscriptionsExpiredEvent.ExpiredSubscription> expireChunk(LocalDate today) {
+        jobFence.checkCurrent();
+
+        List<SubscriptionsExpiredEvent.ExpiredSubscription> expired = jdbcTemplate.query(EXPIRE_CHUNK_SQL,
+                (rs, rowNum) -> new SubscriptionsExpiredEvent.ExpiredSubscription(
+                        rs.getLong("id"), rs.getLong("user_id"), rs.getString("email"), rs.getString("first_name")),
+                today, chunkSize);
+
+        if (!expired.isEmpty()) {
+            eventPublisher.publishEvent(new SubscriptionsExpiredEvent(expired));
+        }
+        return expired;
+    }
+}
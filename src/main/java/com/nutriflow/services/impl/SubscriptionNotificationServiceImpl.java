@@ -0,0 +1,108 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.enums.SubscriptionNotificationType;
+import com.nutriflow.events.SubscriptionWarningsClaimedEvent;
+import com.nutriflow.helpers.JobFence;
+import com.nutriflow.helpers.RedisLeaseLock;
+import com.nutriflow.services.SubscriptionNotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Expiration warnings backed by the {@code subscription_notifications} ledger.
+ *
+ * A sweep claims warnings by inserting ledger rows for ACTIVE subscriptions whose end date lies in
+ * (today, today + window] and that the renewal engine will not charge; only the claimed rows are
+ * returned, so a restart, a second sweep or a second node never sends the same warning again. The
+ * range query is served by the (status, end_date) index. Every chunk is claimed in its own transaction together with its
+ * outbox emails, whose delivery (and retries) is left to the outbox workers, and fenced with the
+ * job's lease by {@link JobFence}.
+ */
+@Service
+@Slf4j
+public class SubscriptionNotificationServiceImpl implements SubscriptionNotificationService {
+
+    private static final String CLAIM_WARNINGS_SQL =
+            "WITH claimed AS (" +
+            "INSERT INTO subscription_notifications (subscription_id, notification_type, end_date, sent_at) " +
+            "SELECT s.id, ?, s.end_date, now() FROM subscriptions s " +
+            "WHERE s.status = 'ACTIVE' AND s.end_date > ? AND s.end_date <= ? " +
+            // Charged by the renewal engine instead; "renew now" would be wrong for them
+            "AND NOT (s.auto_renew AND s.billing_customer_ref IS NOT NULL) " +
+            "AND NOT EXISTS (SELECT 1 FROM subscription_notifications n " +
+            "WHERE n.subscription_id = s.id AND n.notification_type = ? AND n.end_date = s.end_date) " +
+            "ORDER BY s.id LIMIT ? " +
+            "ON CONFLICT (subscription_id, notification_type, end_date) DO NOTHING " +
+            "RETURNING subscription_id, end_date) " +
+            "SELECT c.subscription_id, c.end_date, u.email, u.first_name " +
+            "FROM claimed c JOIN subscriptions s ON s.id = c.subscription_id JOIN users u ON u.id = s.user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobFence jobFence;
+
+    @Value("${nutriflow.subscription.warning.days-before:7}")
+    private int warningDays;
+
+    @Value("${nutriflow.subscription.warning.chunk-size:500}")
+    private int chunkSize;
+
+    public SubscriptionNotificationServiceImpl(DataSource dataSource,
+                                               PlatformTransactionManager transactionManager,
+                                               ApplicationEventPublisher eventPublisher,
+                                               JobFence jobFence) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.jobFence = jobFence;
+    }
+
+    /**
+     * Claims every unsent warning in the window, chunk by chunk, and queues the emails of each chunk.
+     *
+     * @param today Reference date
+     * @return Number of warnings claimed by this sweep
+     */
+    @Override
+    public int sendExpirationWarnings(LocalDate today) {
+        LocalDate windowEnd = today.plusDays(warningDays);
+
+        int total = 0;
+        List<SubscriptionWarningsClaimedEvent.ClaimedWarning> claimed;
+        do {
+            RedisLeaseLock.checkCurrentLease();
+
+            claimed = transactionTemplate.execute(status -> claimChunk(today, windowEnd));
+            total += claimed.size();
+        } while (!claimed.isEmpty());
+
+        log.info("Expiration warnings claimed: {} (window {} .. {})", total, today.plusDays(1), windowEnd);
+        return total;
+    }
+
+    private List<SubscriptionWarningsClaimedEvent.ClaimedWarning> claimChunk(LocalDate today, LocalDate windowEnd) {
+        jobFence.checkCurrent();
+
+        String type = SubscriptionNotificationType.EXPIRATION_WARNING.name();
+        List<SubscriptionWarningsClaimedEvent.ClaimedWarning> claimed = jdbcTemplate.query(CLAIM_WARNINGS_SQL,
+                (rs, rowNum) -> new SubscriptionWarningsClaimedEvent.ClaimedWarning(
+                        rs.getLong("subscription_id"), rs.getObject("end_date", LocalDate.class),
+                        rs.getString("email"), rs.getString("first_name")),
+                type, today, windowEnd, type, chunkSize);
+
+        if (!claimed.isEmpty()) {
+            eventPublisher.publishEvent(new SubscriptionWarningsClaimedEvent(claimed));
+        }
+        return claimed;
+    }
+}
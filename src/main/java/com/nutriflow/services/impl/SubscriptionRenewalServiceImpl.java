@@ -0,0 +1,513 @@
+package com.nutriflow.services.impl;
+
+import com.nutriflow.entities.Money;
+import com.nutriflow.helpers.JobFence;
+import com.nutriflow.helpers.RedisLeaseLock;
+import com.nutriflow.services.PaymentGateway;
+import com.nutriflow.services.RevenueLedgerService;
+import com.nutriflow.services.SubscriptionRenewalService;
+import com.nutriflow.utils.RetryUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Charges and extends subscriptions ending within the next nutriflow.billing.renewal.days-ahead days.
+ *
+ * Due subscriptions are read in keyset chunks and every chunk is claimed in
+ * {@code subscription_renewals} (one row per subscription and end date being renewed), so a period is
+ * charged by one run at a time and never twice once it succeeded. Claimed chunks are charged in
+ * parallel on nutriflow.billing.renewal.threads threads; each chunk then commits in one short
+ * transaction that inserts its payments, books them in the revenue ledger and extends every renewed
+ * end date with a single UPDATE.
+ *
+ * A declined charge marks the period FAILED; later runs retry it while the subscription is still due,
+ * up to nutriflow.billing.renewal.max-attempts, with a new idempotency key per attempt. A charge whose
+ * outcome is unknown (gateway error, or the chunk's transaction failed after charging) stays
+ * PROCESSING and is never charged again by a renewal run. {@link #reconcileUnknownCharges()} looks
+ * it up at the gateway after nutriflow.billing.renewal.reconcile-after-seconds and records what
+ * actually happened, so the outcome no longer depends on the gateway keeping idempotency keys.
+ *
+ * A period that was charged while its subscription's end date changed is not extended; it is marked
+ * NEEDS_REVIEW for a refund or a manual extension.
+ *
+ * claimed_at is stamped again right before a period is charged and whenever the reconciliation takes
+ * it over, and every outcome write compares it: only the run that holds the latest stamp records
+ * the outcome, and payments, ledger entries and extensions follow only the rows it actually changed.
+ *
+ * Outcomes are recorded on pool threads, so the run's lease is handed to them and checked by
+ * {@link JobFence} in every outcome transaction, which also serializes those short transactions; a
+ * superseded run leaves its charges PROCESSING for the reconciliation.
+ */
+@Service
+@Slf4j
+public class SubscriptionRenewalServiceImpl implements SubscriptionRenewalService {
+
+    private static final String FIND_DUE_SQL =
+            "SELECT s.id, s.billing_customer_ref FROM subscriptions s " +
+            "WHERE s.status = 'ACTIVE' AND s.auto_renew AND s.billing_customer_ref IS NOT NULL AND s.plan_code IS NOT NULL " +
+            "AND s.end_date BETWEEN ? AND ? AND s.id > ? " +
+            "ORDER BY s.id LIMIT ?";
+
+    private static final String RENEWAL_COLUMNS =
+            "id, subscription_id, period_end, amount_minor, currency, attempts, claimed_at";
+
+    // Only FAILED periods are retried here; PROCESSING ones belong to the reconciliation
+    private static final String CLAIM_SQL =
+            "INSERT INTO subscription_renewals " +
+            "(subscription_id, period_end, plan_code, amount_minor, currency, duration_months, status, attempts, claimed_at) " +
+            "SELECT s.id, s.end_date, p.code, p.price_minor, p.currency, p.duration_months, 'PROCESSING', 1, now() " +
+            "FROM subscriptions s JOIN plans p ON p.code = s.plan_code AND p.active " +
+            "WHERE s.id = ANY(?) AND s.status = 'ACTIVE' AND s.auto_renew " +
+            "ON CONFLICT (subscription_id, period_end) DO UPDATE SET status = 'PROCESSING', claimed_at = now(), " +
+            "attempts = subscription_renewals.attempts + 1 " +
+            "WHERE subscription_renewals.status = 'FAILED' AND subscription_renewals.attempts < ? " +
+            "RETURNING " + RENEWAL_COLUMNS;
+
+    private static final String CLAIM_UNKNOWN_SQL =
+            "WITH stale AS (" +
+            "SELECT id FROM subscription_renewals " +
+            "WHERE status = 'PROCESSING' AND claimed_at < now() - make_interval(secs => ?) " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE subscription_renewals r SET claimed_at = clock_timestamp() FROM stale WHERE r.id = stale.id " +
+            "RETURNING r.id, r.subscription_id, r.period_end, r.amount_minor, r.currency, r.attempts, r.claimed_at";
+
+    // Restarts the reconciliation clock when the charge is actually sent, not when its chunk was claimed
+    private static final String MARK_SENDING_SQL =
+            "UPDATE subscription_renewals SET claimed_at = clock_timestamp() " +
+            "WHERE id = ? AND status = 'PROCESSING' AND claimed_at = ? RETURNING claimed_at";
+
+    // Outcome writes only apply while the period is still held under the caller's claimed_at
+    private static final String HELD = " AND status = 'PROCESSING' AND claimed_at = ?";
+
+    private static final String MARK_SUCCEEDED_SQL =
+            "UPDATE subscription_renewals SET status = 'SUCCEEDED', transaction_ref = ?, last_error = NULL, " +
+            "completed_at = now() WHERE id = ?" + HELD;
+
+    private static final String MARK_DECLINED_SQL =
+            "UPDATE subscription_renewals SET status = 'FAILED', last_error = ?, claimed_at = NULL WHERE id = ?" + HELD;
+
+    // Keeps the period PROCESSING; the reconciliation resolves it
+    private static final String MARK_UNKNOWN_SQL =
+            "UPDATE subscription_renewals SET last_error = ? WHERE id = ?" + HELD;
+
+    private static final String MARK_NEEDS_REVIEW_SQL =
+            "UPDATE subscription_renewals SET status = 'NEEDS_REVIEW', " +
+            "last_error = 'Charged, but the subscription end date changed before it could be extended; refund or extend manually' " +
+            "WHERE id = ?";
+
+    private static final String INSERT_PAYMENTS_SQL =
+            "INSERT INTO payments (subscription_id, provider, amount_minor, currency, status, transaction_ref, payment_date, description) " +
+            "SELECT r.subscription_id, ?, r.amount_minor, r.currency, 'SUCCESS', r.transaction_ref, now(), " +
+            "'Subscription renewal (' || r.plan_code || ')' " +
+            "FROM subscription_renewals r WHERE r.id = ANY(?) " +
+            "RETURNING id, amount_minor, currency, payment_date";
+
+    // The end date guard skips a subscription whose end date moved since it was claimed
+    private static final String EXTEND_SQL =
+            "UPDATE subscriptions s SET end_date = (r.period_end + make_interval(months => r.duration_months))::date, " +
+            "updated_at = now() " +
+            "FROM subscription_renewals r " +
+            "WHERE r.id = ANY(?) AND s.id = r.subscription_id AND s.end_date = r.period_end " +
+            "RETURNING r.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentGateway paymentGateway;
+    private final RevenueLedgerService revenueLedgerService;
+    private final JobFence jobFence;
+    private final ExecutorService renewalPool;
+    private final int threads;
+    private final Counter renewedCounter;
+    private final Counter declinedCounter;
+    private final Counter errorCounter;
+    private final Counter needsReviewCounter;
+
+    @Value("${nutriflow.billing.renewal.days-ahead:3}")
+    private int daysAhead;
+
+    @Value("${nutriflow.billing.renewal.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${nutriflow.billing.renewal.max-attempts:3}")
+    private int maxAttempts;
+
+    // Longer than a chunk takes to charge and record, and than the gateway's search index lags behind
+    @Value("${nutriflow.billing.renewal.reconcile-after-seconds:600}")
+    private long reconcileAfterSeconds;
+
+    @Value("${nutriflow.payments.gateway:stripe}")
+    private String provider;
+
+    public SubscriptionRenewalServiceImpl(DataSource dataSource,
+                                          PlatformTransactionManager transactionManager,
+                                          PaymentGateway paymentGateway,
+                                          RevenueLedgerService revenueLedgerService,
+                                          MeterRegistry meterRegistry,
+                                          JobFence jobFence,
+                                          @Value("${nutriflow.billing.renewal.threads:8}") int threads) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.paymentGateway = paymentGateway;
+        this.revenueLedgerService = revenueLedgerService;
+        this.jobFence = jobFence;
+        this.threads = threads;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.renewalPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "subscription-renewal-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.renewedCounter = Counter.builder("nutriflow.billing.renewals").tag("result", "renewed").register(meterRegistry);
+        this.declinedCounter = Counter.builder("nutriflow.billing.renewals").tag("result", "declined").register(meterRegistry);
+        this.errorCounter = Counter.builder("nutriflow.billing.renewals").tag("result", "error").register(meterRegistry);
+        this.needsReviewCounter = Counter.builder("nutriflow.billing.renewals").tag("result", "needs_review").register(meterRegistry);
+    }
+
+    /**
+     * Renews every due subscription and waits until all chunks are done. At most two chunks per
+     * thread are claimed ahead of the charging, so a lost lease stops the run without leaving many
+     * claimed periods behind. Must not run inside a surrounding transaction.
+     *
+     * @param today Reference date; subscriptions ending from today to today + days-ahead are due
+     */
+    @Override
+    public RenewalSummary renewDueSubscriptions(LocalDate today) {
+        LocalDate until = today.plusDays(daysAhead);
+        Deque<Future<int[]>> inFlight = new ArrayDeque<>();
+        int[] totals = new int[4];
+        int claimed = 0;
+        int chunks = 0;
+        long lastId = 0;
+        RedisLeaseLock.Lease lease = RedisLeaseLock.currentLease();
+
+        try {
+            while (true) {
+                RedisLeaseLock.checkCurrentLease();
+
+                List<DueSubscription> due = jdbcTemplate.query(FIND_DUE_SQL,
+                        (rs, rowNum) -> new DueSubscription(rs.getLong("id"), rs.getString("billing_customer_ref")),
+                        today, until, lastId, chunkSize);
+                if (due.isEmpty()) {
+                    break;
+                }
+                lastId = due.get(due.size() - 1).getSubscriptionId();
+
+                List<Renewal> renewals = claim(due);
+                if (renewals.isEmpty()) {
+                    continue;
+                }
+                claimed += renewals.size();
+                chunks++;
+
+                if (inFlight.size() >= threads * 2) {
+                    addTo(totals, inFlight.removeFirst());
+                }
+                inFlight.addLast(renewalPool.submit(() -> processChunk(renewals, lease)));
+            }
+        } finally {
+            while (!inFlight.isEmpty()) {
+                addTo(totals, inFlight.removeFirst());
+            }
+        }
+
+        log.info("Subscription renewal finished: claimed={}, renewed={}, declined={}, errors={}, needsReview={}, chunks={}, chunkSize={}",
+                claimed, totals[0], totals[1], totals[2], totals[3], chunks, chunkSize);
+        return new RenewalSummary(claimed, totals[0], totals[1], totals[2], totals[3]);
+    }
+
+    /**
+     * Resolves periods left PROCESSING by an unknown charge outcome: a charge found at the gateway is
+     * recorded like any other, a period without a charge is marked FAILED and retried by the next
+     * renewal run under a new key. A failed lookup leaves the period for the next reconciliation.
+     *
+     * @return Number of periods resolved
+     */
+    @Override
+    public int reconcileUnknownCharges() {
+        int resolved = 0;
+        RedisLeaseLock.Lease lease = RedisLeaseLock.currentLease();
+        List<Renewal> renewals;
+        do {
+            RedisLeaseLock.checkCurrentLease();
+
+            renewals = jdbcTemplate.query(CLAIM_UNKNOWN_SQL, renewalMapper(Map.of()), reconcileAfterSeconds, chunkSize);
+
+            List<Object[]> succeeded = new ArrayList<>();
+            List<Object[]> declined = new ArrayList<>();
+            for (Renewal renewal : renewals) {
+                try {
+                    Optional<PaymentGateway.ChargeResult> charge = paymentGateway.findCharge(renewal.idempotencyKey());
+                    if (charge.isEmpty()) {
+                        declined.add(outcome("No charge reached the gateway", renewal, renewal.getClaimedAt()));
+                    } else if (charge.get().isSucceeded()) {
+                        succeeded.add(outcome(charge.get().getTransactionRef(), renewal, renewal.getClaimedAt()));
+                    } else {
+                        String reason = RetryUtils.truncateError(charge.get().getFailureReason());
+                        declined.add(outcome(reason, renewal, renewal.getClaimedAt()));
+                    }
+                } catch (Exception e) {
+                    // claimed_at was just bumped, so the period waits for the next reconciliation
+                    log.error("Renewal charge lookup failed: SubscriptionId={}, PeriodEnd={}: {}",
+                            renewal.getSubscriptionId(), renewal.getPeriodEnd(), e.getMessage());
+                }
+            }
+
+            int[] outcome = recordOutcomes(succeeded, declined, List.of(), lease);
+            if (outcome != null) {
+                resolved += outcome[0] + outcome[1] + outcome[3];
+            }
+        } while (renewals.size() == chunkSize);
+
+        if (resolved > 0) {
+            log.info("Unknown renewal charges reconciled: resolved={}", resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * Claims the due periods of one chunk in its own autocommit statement. Periods already renewed,
+     * in flight or out of attempts are not returned.
+     */
+    private List<Renewal> claim(List<DueSubscription> due) {
+        Map<Long, String> customers = new HashMap<>();
+        due.forEach(d -> customers.put(d.getSubscriptionId(), d.getCustomerRef()));
+        long[] ids = due.stream().mapToLong(DueSubscription::getSubscriptionId).toArray();
+
+        return jdbcTemplate.query(CLAIM_SQL, renewalMapper(customers), ids, maxAttempts);
+    }
+
+    /**
+     * Charges one chunk, then records its outcome in one transaction.
+     *
+     * @return {renewed, declined, errors, needsReview}
+     */
+    private int[] processChunk(List<Renewal> renewals, RedisLeaseLock.Lease lease) {
+        List<Object[]> succeeded = new ArrayList<>();
+        List<Object[]> declined = new ArrayList<>();
+        List<Object[]> unknown = new ArrayList<>();
+
+        int skipped = 0;
+        for (Renewal renewal : renewals) {
+            List<LocalDateTime> sentAt = jdbcTemplate.queryForList(MARK_SENDING_SQL, LocalDateTime.class,
+                    renewal.getId(), renewal.getClaimedAt());
+            if (sentAt.isEmpty()) {
+                // Taken over by the reconciliation while the chunk waited in the queue
+                skipped++;
+                continue;
+            }
+            try {
+                PaymentGateway.ChargeResult result = paymentGateway.charge(toChargeRequest(renewal), renewal.idempotencyKey());
+                if (result.isSucceeded()) {
+                    succeeded.add(outcome(result.getTransactionRef(), renewal, sentAt.get(0)));
+                } else {
+                    log.warn("Renewal charge declined: SubscriptionId={}, PeriodEnd={}, Attempt={}, Reason={}",
+                            renewal.getSubscriptionId(), renewal.getPeriodEnd(), renewal.getAttempts(), result.getFailureReason());
+                    declined.add(outcome(RetryUtils.truncateError(result.getFailureReason()), renewal, sentAt.get(0)));
+                }
+            } catch (Exception e) {
+                log.error("Renewal charge failed: SubscriptionId={}, PeriodEnd={}: {}",
+                        renewal.getSubscriptionId(), renewal.getPeriodEnd(), e.getMessage());
+                unknown.add(outcome(RetryUtils.truncateError(e.getMessage()), renewal, sentAt.get(0)));
+            }
+        }
+        if (skipped > 0) {
+            log.warn("{} claimed renewal(s) were taken over by the reconciliation before they were charged", skipped);
+        }
+
+        int[] outcome = recordOutcomes(succeeded, declined, unknown, lease);
+        if (outcome == null) {
+            // Every charged period of the chunk stays PROCESSING and is resolved by the reconciliation
+            int charged = succeeded.size() + declined.size() + unknown.size();
+            errorCounter.increment(charged);
+            return new int[]{0, 0, charged, 0};
+        }
+        return outcome;
+    }
+
+    /**
+     * Records charge outcomes in one transaction, fenced with the run's lease. Outcomes of periods
+     * another run has taken over meanwhile are dropped and not counted.
+     *
+     * @return {renewed, declined, errors, needsReview}, or null if the transaction failed
+     */
+    private int[] recordOutcomes(List<Object[]> succeeded, List<Object[]> declined, List<Object[]> unknown,
+                                 RedisLeaseLock.Lease lease) {
+        int[] outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> {
+                jobFence.check(lease);
+                int declinedCount = changed(jdbcTemplate.batchUpdate(MARK_DECLINED_SQL, declined));
+                int unknownCount = changed(jdbcTemplate.batchUpdate(MARK_UNKNOWN_SQL, unknown));
+                int[] renewals = succeeded.isEmpty() ? new int[2] : recordRenewals(succeeded);
+                return new int[]{renewals[0], declinedCount, unknownCount, renewals[1]};
+            });
+        } catch (Exception e) {
+            log.error("Renewal outcomes could not be recorded, {} charge(s) left for reconciliation: {}",
+                    succeeded.size() + declined.size() + unknown.size(), e.getMessage(), e);
+            return null;
+        }
+
+        int superseded = succeeded.size() + declined.size() + unknown.size()
+                - outcome[0] - outcome[1] - outcome[2] - outcome[3];
+        if (superseded > 0) {
+            log.warn("{} renewal outcome(s) dropped: the period was taken over by another run", superseded);
+        }
+        renewedCounter.increment(outcome[0]);
+        declinedCounter.increment(outcome[1]);
+        errorCounter.increment(outcome[2]);
+        needsReviewCounter.increment(outcome[3]);
+        return outcome;
+    }
+
+    /**
+     * Books and extends only the periods whose SUCCEEDED update went through.
+     *
+     * @return {renewed, needsReview}
+     */
+    private int[] recordRenewals(List<Object[]> succeeded) {
+        int[] updated = jdbcTemplate.batchUpdate(MARK_SUCCEEDED_SQL, succeeded);
+        long[] renewalIds = new long[changed(updated)];
+        for (int i = 0, n = 0; i < updated.length; i++) {
+            if (updated[i] > 0) {
+                renewalIds[n++] = (Long) succeeded.get(i)[1];
+            }
+        }
+        if (renewalIds.length == 0) {
+            return new int[2];
+        }
+
+        List<RevenueLedgerService.PaymentBooking> bookings = jdbcTemplate.query(INSERT_PAYMENTS_SQL,
+                (rs, rowNum) -> new RevenueLedgerService.PaymentBooking(
+                        rs.getLong("id"),
+                        Money.of(rs.getLong("amount_minor"), rs.getString("currency")),
+                        rs.getObject("payment_date", LocalDateTime.class)),
+                provider, renewalIds);
+        revenueLedgerService.recordPayments(bookings);
+
+        Set<Long> extended = new HashSet<>(jdbcTemplate.queryForList(EXTEND_SQL, Long.class, renewalIds));
+        List<Object[]> notExtended = new ArrayList<>();
+        for (long renewalId : renewalIds) {
+            if (!extended.contains(renewalId)) {
+                notExtended.add(new Object[]{renewalId});
+            }
+        }
+        if (!notExtended.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_NEEDS_REVIEW_SQL, notExtended);
+            log.error("{} renewal(s) were charged but their subscription's end date changed meanwhile; marked NEEDS_REVIEW",
+                    notExtended.size());
+        }
+        return new int[]{renewalIds.length - notExtended.size(), notExtended.size()};
+    }
+
+    /**
+     * Outcome arguments: the result (transaction ref or error), the period and the claimed_at it is held under.
+     */
+    private static Object[] outcome(String result, Renewal renewal, LocalDateTime claimedAt) {
+        return new Object[]{result, renewal.getId(), claimedAt};
+    }
+
+    private static int changed(int[] updateCounts) {
+        int changed = 0;
+        for (int count : updateCounts) {
+            if (count > 0) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private PaymentGateway.ChargeRequest toChargeRequest(Renewal renewal) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("subscriptionId", String.valueOf(renewal.getSubscriptionId()));
+        metadata.put("renewalId", String.valueOf(renewal.getId()));
+        metadata.put("periodEnd", renewal.getPeriodEnd().toString());
+
+        return new PaymentGateway.ChargeRequest(renewal.getCustomerRef(), renewal.getAmount(),
+                "Subscription renewal", metadata);
+    }
+
+    private static RowMapper<Renewal> renewalMapper(Map<Long, String> customers) {
+        return (rs, rowNum) -> new Renewal(
+                rs.getLong("id"),
+                rs.getLong("subscription_id"),
+                customers.get(rs.getLong("subscription_id")),
+                rs.getObject("period_end", LocalDate.class),
+                Money.of(rs.getLong("amount_minor"), rs.getString("currency")),
+                rs.getInt("attempts"),
+                rs.getObject("claimed_at", LocalDateTime.class));
+    }
+
+    private static void addTo(int[] totals, Future<int[]> chunk) {
+        try {
+            int[] result = chunk.get();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += result[i];
+            }
+        } catch (ExecutionException e) {
+            // processChunk records its own failures
+            log.error("Renewal chunk failed unexpectedly: {}", e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for renewal chunks", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewalPool.shutdownNow();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class DueSubscription {
+        private final long subscriptionId;
+        private final String customerRef;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Renewal {
+        private final long id;
+        private final long subscriptionId;
+        private final String customerRef;
+        private final LocalDate periodEnd;
+        private final Money amount;
+        private final int attempts;
+        private final LocalDateTime claimedAt;
+
+        // One key per attempt; a PROCESSING period is only ever looked up by it, never charged again
+        String idempotencyKey() {
+            return "renewal-" + id + "-" + attempts;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.nutriflow.dto.response.*;
 import com.nutriflow.entities.*;
 import com.nutriflow.enums.DeliveryStatus;
 import com.nutriflow.enums.MenuStatus;
+import com.nutriflow.events.AccountChangedEvent;
 import com.nutriflow.exceptions.*;
 import com.nutriflow.helpers.DeliveryHelper;
 import com.nutriflow.helpers.EntityFinderHelper;
@@ -18,12 +19,13 @@ import com.nutriflow.mappers.UserMapper;
 import com.nutriflow.repositories.MenuBatchRepository;
 import com.nutriflow.repositories.SubscriptionRepository;
 import com.nutriflow.repositories.UserRepository;
+import com.nutriflow.security.PasswordHashingService;
 import com.nutriflow.services.UserService;
 import com.nutriflow.utils.DateUtils;
 import com.nutriflow.utils.EntityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -42,7 +44,8 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final MenuBatchRepository menuBatchRepository;
     private final SubscriptionRepository subscriptionRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Helpers
     private final DeliveryHelper deliveryHelper;
@@ -183,7 +186,8 @@ public class UserServiceImpl implements UserService {
 
         // Update password
         if (request.getPassword() != null && !request.getPassword().isBlank()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
+            eventPublisher.publishEvent(new AccountChangedEvent(email, AccountChangedEvent.Reason.PASSWORD_CHANGED));
         }
 
         // Update address
@@ -206,6 +210,7 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new AccountChangedEvent(user.getEmail(), AccountChangedEvent.Reason.PROFILE_UPDATED));
         log.info("Profile updated successfully: UserId={}", user.getId());
     }
 
@@ -222,6 +227,19 @@ public class UserServiceImpl implements UserService {
         log.info("Subscription cancelled");
     }
 
+    @Override
+    @Transactional
+    public void setAutoRenew(String email, boolean autoRenew) {
+        UserEntity user = entityFinder.findUserByEmail(email);
+
+        SubscriptionEntity subscription = subscriptionRepository.findByUser(user)
+                .orElseThrow(() -> new ResourceNotFoundException("Subscription not found"));
+        subscription.setAutoRenew(autoRenew);
+        subscriptionRepository.save(subscription);
+
+        log.info("Subscription auto-renew {}: SubscriptionId={}", autoRenew ? "enabled" : "disabled", subscription.getId());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<DeliveryDetailResponse> getMyDeliveries(String email) {
@@ -98,8 +98,8 @@ public class LoggingUtils {
         }
         return String.format(
                 "Amount: %.2f %s, Status: %s, Date: %s",
-                entity.getAmount(),
-                "AZN",
+                entity.getAmount() != null ? entity.getAmount().toMajor() : null,
+                entity.getAmount() != null ? entity.getAmount().getCurrency() : null,
                 entity.getStatus(),
                 entity.getPaymentDate()
         );
@@ -0,0 +1,44 @@
+package com.nutriflow.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry helpers shared by the database-backed work queues (email outbox, Stripe events, jobs)
+ */
+public final class RetryUtils {
+
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    private RetryUtils() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Exponential backoff with +-20% jitter, so items that failed together do not retry together.
+     *
+     * @param attempts       Attempts made so far (1 after the first failure)
+     * @param initialSeconds Delay after the first failure
+     * @param maxSeconds     Upper bound before jitter
+     * @return Delay in seconds, at least 1
+     */
+    public static long backoffSeconds(int attempts, long initialSeconds, long maxSeconds) {
+        long exponential = initialSeconds << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, maxSeconds);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Math.max(1, Math.round(capped * jitter));
+    }
+
+    /**
+     * Cuts an error message to {@link #MAX_ERROR_LENGTH} characters for storage.
+     */
+    public static String truncateError(String error) {
+        return truncateError(error, MAX_ERROR_LENGTH);
+    }
+
+    public static String truncateError(String error, int maxLength) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= maxLength ? error : error.substring(0, maxLength);
+    }
+}
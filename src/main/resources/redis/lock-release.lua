@@ -0,0 +1,9 @@
+-- Releases a lease, but only for its current holder.
+-- KEYS[1]   lock key
+-- ARGV[1]   holder value (fencing token and instance id)
+-- Returns 1 if released, 0 if the lease expired or belongs to someone else.
+
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
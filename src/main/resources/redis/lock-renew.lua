@@ -0,0 +1,10 @@
+-- Extends a lease, but only for its current holder.
+-- KEYS[1]   lock key
+-- ARGV[1]   holder value (fencing token and instance id)
+-- ARGV[2]   new lease length in milliseconds
+-- Returns 1 if extended, 0 if the lease expired or belongs to someone else.
+
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
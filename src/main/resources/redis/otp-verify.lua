@@ -0,0 +1,24 @@
+-- Checks an OTP and counts failed attempts, atomically.
+-- KEYS[1]   OTP hash (code, attempts)
+-- ARGV[1]   code entered by the user
+-- ARGV[2]   maximum number of failed attempts
+-- Returns  1 if the code matches,
+--          0 if it does not (attempt counted),
+--         -1 if the attempt limit is reached: the OTP is deleted,
+--         -2 if no OTP exists (expired, used or never issued).
+
+local code = redis.call('HGET', KEYS[1], 'code')
+if not code then
+    return -2
+end
+
+if code == ARGV[1] then
+    return 1
+end
+
+local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1)
+if attempts >= tonumber(ARGV[2]) then
+    redis.call('DEL', KEYS[1])
+    return -1
+end
+return 0
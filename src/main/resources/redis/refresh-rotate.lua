@@ -0,0 +1,27 @@
+-- Rotates the current refresh token of a family, atomically.
+-- KEYS[1]   family hash
+-- KEYS[2]   profile-changed marker of the account (epoch millis of its last profile change)
+-- ARGV[1]   id (jti) of the presented refresh token
+-- ARGV[2]   id (jti) of the token that replaces it
+-- Returns {1, profileChangedAt or '', field1, value1, ...} on success,
+--         {0} if the family does not exist (expired or revoked),
+--         {-1} if the presented token was already rotated (reuse): the family is revoked.
+
+local current = redis.call('HGET', KEYS[1], 'current')
+if not current then
+    return {0}
+end
+
+if current ~= ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    return {-1}
+end
+
+redis.call('HSET', KEYS[1], 'current', ARGV[2])
+
+local result = {1, redis.call('GET', KEYS[2]) or ''}
+local fields = redis.call('HGETALL', KEYS[1])
+for i = 1, #fields do
+    result[#result + 1] = fields[i]
+end
+return result
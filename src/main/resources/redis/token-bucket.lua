@@ -0,0 +1,54 @@
+-- Multi-key token bucket, evaluated atomically.
+-- KEYS[i]            bucket key (hash with fields tokens, ts)
+-- ARGV[2i-1]         bucket capacity
+-- ARGV[2i]           refill rate in tokens per millisecond
+-- A request is allowed only if every bucket holds a token; then one token is taken from each.
+-- Returns {allowed (1/0), retry-after in milliseconds}.
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local levels = {}
+local retryAfter = 0
+
+for i = 1, #KEYS do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local rate = tonumber(ARGV[2 * i])
+    local bucket = redis.call('HMGET', KEYS[i], 'tokens', 'ts')
+    local tokens = tonumber(bucket[1])
+    local ts = tonumber(bucket[2])
+
+    if tokens == nil or ts == nil then
+        tokens = capacity
+        ts = now
+    end
+
+    tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+    levels[i] = tokens
+
+    if tokens < 1 then
+        local wait = math.ceil((1 - tokens) / rate)
+        if wait > retryAfter then
+            retryAfter = wait
+        end
+    end
+end
+
+local allowed = 0
+if retryAfter == 0 then
+    allowed = 1
+end
+
+for i = 1, #KEYS do
+    local capacity = tonumber(ARGV[2 * i - 1])
+    local rate = tonumber(ARGV[2 * i])
+    local tokens = levels[i]
+    if allowed == 1 then
+        tokens = tokens - 1
+    end
+    redis.call('HSET', KEYS[i], 'tokens', tostring(tokens), 'ts', tostring(now))
+    -- A bucket untouched for a full refill period is equivalent to a missing one
+    redis.call('PEXPIRE', KEYS[i], math.ceil(capacity / rate))
+end
+
+return {allowed, retryAfter}
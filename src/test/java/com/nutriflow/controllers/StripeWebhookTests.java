@@ -0,0 +1,196 @@
+package com.nutriflow.controllers;
+
+import com.nutriflow.entities.CatererEntity;
+import com.nutriflow.entities.DietitianEntity;
+import com.nutriflow.entities.UserEntity;
+import com.nutriflow.enums.CatererStatus;
+import com.nutriflow.enums.StripeEventStatus;
+import com.nutriflow.enums.UserStatus;
+import com.nutriflow.helpers.StripeWebhookSigner;
+import com.nutriflow.repositories.CatererRepository;
+import com.nutriflow.repositories.DietitianRepository;
+import com.nutriflow.repositories.UserRepository;
+import com.nutriflow.services.PaymentService;
+import com.nutriflow.services.StripeEventService;
+import com.stripe.Stripe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Posts a signed checkout.session.completed fixture to the webhook endpoint, processes it the way
+ * the event worker does and checks that neither Stripe's redelivery nor an admin replay creates a
+ * second subscription or payment.
+ */
+@SpringBootTest(properties = {
+        "stripe.webhook.secret=" + StripeWebhookTests.WEBHOOK_SECRET,
+        // The test drives processing itself
+        "nutriflow.stripe.events.enabled=false"
+})
+@AutoConfigureMockMvc
+class StripeWebhookTests {
+
+    static final String WEBHOOK_SECRET = "whsec_fixture";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private StripeEventService stripeEventService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DietitianRepository dietitianRepository;
+
+    @Autowired
+    private CatererRepository catererRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Checkout assigns an active dietitian and caterer
+        dietitianRepository.save(DietitianEntity.builder()
+                .firstName("Fixture")
+                .lastName("Dietitian")
+                .email("dietitian-" + UUID.randomUUID() + "@test.nutriflow.local")
+                .password("unused")
+                .isActive(true)
+                .build());
+        catererRepository.save(CatererEntity.builder()
+                .name("Fixture Caterer")
+                .email("caterer-" + UUID.randomUUID() + "@test.nutriflow.local")
+                .password("unused")
+                .status(CatererStatus.ACTIVE)
+                .build());
+    }
+
+    @Test
+    void redeliveredAndReplayedCheckoutIsAppliedOnce() throws Exception {
+        Long userId = userRepository.save(UserEntity.builder()
+                .firstName("Webhook")
+                .lastName("Test")
+                .email("webhook-" + UUID.randomUUID() + "@test.nutriflow.local")
+                .status(UserStatus.DATA_SUBMITTED)
+                .build()).getId();
+        String eventId = "evt_fixture_" + UUID.randomUUID().toString().replace("-", "");
+        String sessionId = "cs_fixture_" + UUID.randomUUID().toString().replace("-", "");
+        String payload = checkoutCompletedEvent(eventId, sessionId, userId);
+
+        postWebhook(payload);
+        processStoredEvent(eventId, payload);
+
+        assertThat(subscriptions(userId)).isEqualTo(1);
+        assertThat(payments(sessionId)).isEqualTo(1);
+
+        // Stripe redelivers with a fresh signature when it did not see the 2xx
+        postWebhook(payload);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stripe_events WHERE id = ?", Integer.class, eventId))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM stripe_events WHERE id = ?", String.class, eventId))
+                .isEqualTo(StripeEventStatus.PROCESSED.name());
+
+        // An admin replay runs the handler again, which must not apply the checkout twice
+        stripeEventService.replay(eventId);
+        processStoredEvent(eventId, payload);
+
+        assertThat(subscriptions(userId)).isEqualTo(1);
+        assertThat(payments(sessionId)).isEqualTo(1);
+    }
+
+    @Test
+    void eventWithWrongSignatureIsRejected() throws Exception {
+        String payload = checkoutCompletedEvent("evt_fixture_" + UUID.randomUUID().toString().replace("-", ""),
+                "cs_fixture_unused", 0L);
+
+        mockMvc.perform(post("/api/v1/payments/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Stripe-Signature", StripeWebhookSigner.signatureHeader(payload, "whsec_other"))
+                        .content(payload))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void postWebhook(String payload) throws Exception {
+        mockMvc.perform(post("/api/v1/payments/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Stripe-Signature", StripeWebhookSigner.signatureHeader(payload, WEBHOOK_SECRET))
+                        .content(payload))
+                .andExpect(status().isOk());
+    }
+
+    // Same transaction boundary as StripeEventWorker
+    private void processStoredEvent(String eventId, String payload) {
+        transactionTemplate.executeWithoutResult(status -> {
+            paymentService.processStripeEvent(payload);
+            stripeEventService.markProcessed(eventId);
+        });
+    }
+
+    private int subscriptions(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM subscriptions WHERE user_id = ?", Integer.class, userId);
+    }
+
+    private int payments(String sessionId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments WHERE transaction_ref = ?", Integer.class, sessionId);
+    }
+
+    private String checkoutCompletedEvent(String eventId, String sessionId, Long userId) {
+        return String.format("""
+                {
+                  "id": "%s",
+                  "object": "event",
+                  "api_version": "%s",
+                  "created": %d,
+                  "livemode": false,
+                  "type": "checkout.session.completed",
+                  "data": {
+                    "object": {
+                      "id": "%s",
+                      "object": "checkout.session",
+                      "mode": "payment",
+                      "payment_status": "paid",
+                      "status": "complete",
+                      "amount_total": 150000,
+                      "currency": "azn",
+                      "customer": "cus_fixture",
+                      "metadata": {
+                        "userId": "%d",
+                        "planCode": "PREMIUM"
+                      }
+                    }
+                  }
+                }
+                """, eventId, Stripe.API_VERSION, Instant.now().getEpochSecond(), sessionId, userId);
+    }
+}
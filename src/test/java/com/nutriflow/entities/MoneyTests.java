@@ -0,0 +1,50 @@
+package com.nutriflow.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTests {
+
+    @Test
+    void ofMajorUsesTheCurrencyFractionDigits() {
+        assertThat(Money.ofMajor(new BigDecimal("1500.25"), "AZN").getAmountMinor()).isEqualTo(150025);
+        assertThat(Money.ofMajor(new BigDecimal("1500"), "JPY").getAmountMinor()).isEqualTo(1500);
+        assertThat(Money.ofMajor(new BigDecimal("1.500"), "BHD").getAmountMinor()).isEqualTo(1500);
+    }
+
+    @Test
+    void ofMajorRejectsMoreDecimalsThanTheCurrencyAllows() {
+        assertThatThrownBy(() -> Money.ofMajor(new BigDecimal("10.005"), "AZN"))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toMajorKeepsTheCurrencyScale() {
+        assertThat(Money.azn(150000).toMajor().toPlainString()).isEqualTo("1500.00");
+        assertThat(Money.azn(5).toMajor().toPlainString()).isEqualTo("0.05");
+        assertThat(Money.of(1500, "JPY").toMajor().toPlainString()).isEqualTo("1500");
+        assertThat(Money.azn(-250).toString()).isEqualTo("-2.50 AZN");
+    }
+
+    @Test
+    void plusAddsAmountsOfTheSameCurrency() {
+        assertThat(Money.azn(150000).plus(Money.azn(-2550))).isEqualTo(Money.azn(147450));
+    }
+
+    @Test
+    void plusRejectsAnotherCurrency() {
+        assertThatThrownBy(() -> Money.azn(100).plus(Money.of(100, "USD")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("AZN and USD");
+    }
+
+    @Test
+    void plusRejectsOverflow() {
+        assertThatThrownBy(() -> Money.azn(Long.MAX_VALUE).plus(Money.azn(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
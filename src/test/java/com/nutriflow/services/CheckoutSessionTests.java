@@ -0,0 +1,96 @@
+package com.nutriflow.services;
+
+import com.nutriflow.helpers.CheckoutSessionCache;
+import com.nutriflow.services.impl.FakePaymentGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a user's open checkout session is served from Redis and the gateway is called once,
+ * also when several requests race before the session is cached.
+ */
+@SpringBootTest(properties = "nutriflow.payments.gateway=fake")
+class CheckoutSessionTests {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private FakePaymentGateway paymentGateway;
+
+    @Autowired
+    private CheckoutSessionCache checkoutSessionCache;
+
+    // createCheckoutSession does not look the user up, so an unused id keeps runs apart
+    private final Long userId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+
+    @AfterEach
+    void evictSession() {
+        checkoutSessionCache.evict(userId);
+    }
+
+    @Test
+    void repeatedCheckoutReusesCachedSession() {
+        int sessionsBefore = paymentGateway.getCreatedSessions();
+
+        String firstUrl = paymentService.createCheckoutSession(userId);
+        String secondUrl = paymentService.createCheckoutSession(userId);
+
+        assertThat(secondUrl).isEqualTo(firstUrl);
+        assertThat(checkoutSessionCache.findUrl(userId)).contains(firstUrl);
+        assertThat(paymentGateway.getCreatedSessions() - sessionsBefore).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCheckoutsShareOneSession() throws Exception {
+        int sessionsBefore = paymentGateway.getCreatedSessions();
+        int requests = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> urls = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                urls.add(pool.submit(() -> {
+                    start.await();
+                    return paymentService.createCheckoutSession(userId);
+                }));
+            }
+            start.countDown();
+
+            Set<String> distinctUrls = new HashSet<>();
+            for (Future<String> url : urls) {
+                // Fails if a request reused the shared key with a different expiry
+                distinctUrls.add(url.get(10, TimeUnit.SECONDS));
+            }
+            assertThat(distinctUrls).hasSize(1);
+            assertThat(paymentGateway.getCreatedSessions() - sessionsBefore).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void evictedSessionIsNotReused() {
+        String firstUrl = paymentService.createCheckoutSession(userId);
+
+        checkoutSessionCache.evict(userId);
+        String secondUrl = paymentService.createCheckoutSession(userId);
+
+        assertThat(secondUrl).isNotEqualTo(firstUrl);
+    }
+}
@@ -0,0 +1,147 @@
+package com.nutriflow.services;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.nutriflow.enums.EmailCategory;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the outbox workers against a GreenMail SMTP server: an email is stored only when the
+ * enqueueing transaction commits, is delivered by the workers, and is retried with backoff after
+ * the server was unreachable.
+ */
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "spring.mail.properties.mail.smtp.starttls.required=false",
+        "nutriflow.mail.outbox.poll-interval-ms=100",
+        // round(2 * jitter) is always 2 seconds
+        "nutriflow.mail.outbox.backoff-initial-seconds=2",
+        "nutriflow.mail.outbox.backoff-max-seconds=2"
+})
+class EmailOutboxTests {
+
+    private static final String SENDER = "no-reply@test.nutriflow.local";
+
+    private static final GreenMail greenMail = new GreenMail(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void startSmtp() {
+        greenMail.start();
+    }
+
+    @AfterAll
+    static void stopSmtp() {
+        greenMail.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void rolledBackTransactionLeavesNoEmail() {
+        String recipient = recipient();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            emailOutboxService.enqueue(email(recipient));
+            status.setRollbackOnly();
+        });
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox WHERE recipient = ?",
+                Integer.class, recipient)).isZero();
+    }
+
+    @Test
+    void committedEmailIsDelivered() throws Exception {
+        String recipient = recipient();
+
+        transactionTemplate.executeWithoutResult(status -> emailOutboxService.enqueue(email(recipient)));
+
+        Map<String, Object> row = awaitRow(recipient, r -> "SENT".equals(r.get("status")));
+        assertThat(row).containsEntry("attempts", 1);
+
+        MimeMessage[] received = greenMail.getReceivedMessagesForDomain(recipient);
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getSubject()).isEqualTo("Outbox test");
+    }
+
+    @Test
+    void failedDeliveryIsRetriedWithBackoff() throws Exception {
+        String recipient = recipient();
+
+        greenMail.stop();
+        try {
+            emailOutboxService.enqueue(email(recipient));
+
+            Map<String, Object> failed = awaitRow(recipient,
+                    r -> (int) r.get("attempts") == 1 && "PENDING".equals(r.get("status")));
+            assertThat(failed.get("last_error")).isNotNull();
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT next_attempt_at >= created_at + interval '2 seconds' FROM email_outbox WHERE recipient = ?",
+                    Boolean.class, recipient)).isTrue();
+        } finally {
+            greenMail.start();
+        }
+
+        Map<String, Object> sent = awaitRow(recipient, r -> "SENT".equals(r.get("status")));
+        assertThat(sent).containsEntry("attempts", 2);
+        assertThat(greenMail.getReceivedMessagesForDomain(recipient)).hasSize(1);
+    }
+
+    private Map<String, Object> awaitRow(String recipient, Predicate<Map<String, Object>> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (true) {
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                    "SELECT status, attempts, last_error FROM email_outbox WHERE recipient = ?", recipient);
+            if (condition.test(row)) {
+                return row;
+            }
+            assertThat(System.nanoTime()).as("Outbox row for %s stuck at %s", recipient, row).isLessThan(deadline);
+            Thread.sleep(100);
+        }
+    }
+
+    private static String recipient() {
+        return "outbox-" + UUID.randomUUID() + "@test.nutriflow.local";
+    }
+
+    private static EmailOutboxService.OutboxEmail email(String recipient) {
+        return EmailOutboxService.OutboxEmail.of(EmailCategory.WEEKLY_REPORT, SENDER, recipient, "Outbox test", "Hello");
+    }
+}
@@ -0,0 +1,100 @@
+package com.nutriflow.services;
+
+import com.nutriflow.entities.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Books payments on far-future days of their own, so the running totals only move by the test's
+ * bookings on top of whatever earlier days already hold.
+ */
+@SpringBootTest
+class RevenueLedgerTests {
+
+    @Autowired
+    private RevenueLedgerService revenueLedgerService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private LocalDate day;
+    private long paymentId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        day = LocalDate.of(2200, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(50_000));
+        // revenue_ledger has no foreign key to payments; a random range keeps runs apart
+        paymentId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE / 2);
+    }
+
+    @Test
+    void lateBookingShiftsTheRunningTotalOfLaterDays() {
+        long before = runningTotalBefore(day);
+
+        book(booking(paymentId, 10_000, day.plusDays(2)));
+        book(booking(paymentId + 1, 5_000, day));
+        // Same day as an existing row, after the later day was booked
+        book(booking(paymentId + 2, 2_500, day));
+        book(booking(paymentId + 3, 1_000, day.plusDays(1)));
+
+        assertThat(dayRow(day)).containsExactly(7_500L, 2L, before + 7_500);
+        assertThat(dayRow(day.plusDays(1))).containsExactly(1_000L, 1L, before + 8_500);
+        assertThat(dayRow(day.plusDays(2))).containsExactly(10_000L, 1L, before + 18_500);
+    }
+
+    @Test
+    void paymentIsBookedOnce() {
+        long before = runningTotalBefore(day);
+        RevenueLedgerService.PaymentBooking booking = booking(paymentId, 10_000, day);
+
+        assertThat(book(booking)).isEqualTo(1);
+        assertThat(book(booking)).isZero();
+        // A batch with the duplicate books only the new payment
+        assertThat(book(booking, booking(paymentId + 1, 500, day))).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM revenue_ledger WHERE payment_id = ?",
+                Integer.class, paymentId)).isEqualTo(1);
+        assertThat(dayRow(day)).containsExactly(10_500L, 2L, before + 10_500);
+    }
+
+    private int book(RevenueLedgerService.PaymentBooking... bookings) {
+        Integer booked = transactionTemplate.execute(status -> revenueLedgerService.recordPayments(List.of(bookings)));
+        return booked == null ? 0 : booked;
+    }
+
+    private static RevenueLedgerService.PaymentBooking booking(long paymentId, long amountMinor, LocalDate day) {
+        return new RevenueLedgerService.PaymentBooking(paymentId, Money.azn(amountMinor), day.atTime(12, 0));
+    }
+
+    private long runningTotalBefore(LocalDate day) {
+        Long total = jdbcTemplate.query("SELECT running_total_minor FROM revenue_daily_balances " +
+                        "WHERE currency = ? AND day < ? ORDER BY day DESC LIMIT 1",
+                rs -> rs.next() ? rs.getLong(1) : 0L, Money.AZN, day);
+        return total == null ? 0 : total;
+    }
+
+    private List<Long> dayRow(LocalDate day) {
+        return jdbcTemplate.queryForObject("SELECT amount_minor, entry_count, running_total_minor " +
+                        "FROM revenue_daily_balances WHERE currency = ? AND day = ?",
+                (rs, rowNum) -> List.of(rs.getLong(1), rs.getLong(2), rs.getLong(3)), Money.AZN, day);
+    }
+}
@@ -0,0 +1,164 @@
+package com.nutriflow.services;
+
+import com.nutriflow.entities.Money;
+import com.nutriflow.entities.SubscriptionEntity;
+import com.nutriflow.entities.UserEntity;
+import com.nutriflow.enums.SubscriptionStatus;
+import com.nutriflow.enums.UserStatus;
+import com.nutriflow.repositories.SubscriptionRepository;
+import com.nutriflow.repositories.UserRepository;
+import com.nutriflow.services.impl.FakePaymentGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the renewal engine against FakePaymentGateway. Every test renews subscriptions ending on
+ * its own far-future day, so the runs only see the test's own subscriptions.
+ */
+@SpringBootTest(properties = {
+        "nutriflow.payments.gateway=fake",
+        "nutriflow.billing.renewal.days-ahead=0"
+})
+class SubscriptionRenewalTests {
+
+    @Autowired
+    private SubscriptionRenewalService renewalService;
+
+    @Autowired
+    private FakePaymentGateway paymentGateway;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        today = LocalDate.of(2200, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(50_000));
+    }
+
+    @Test
+    void renewedPeriodIsNotChargedAgain() {
+        Long subscriptionId = subscription("cus_ok");
+        int chargesBefore = paymentGateway.getCreatedCharges();
+
+        SubscriptionRenewalService.RenewalSummary first = renewalService.renewDueSubscriptions(today);
+        SubscriptionRenewalService.RenewalSummary second = renewalService.renewDueSubscriptions(today);
+
+        assertThat(first.getRenewed()).isEqualTo(1);
+        assertThat(second.getClaimed()).isZero();
+        assertThat(paymentGateway.getCreatedCharges() - chargesBefore).isEqualTo(1);
+        assertThat(endDate(subscriptionId)).isEqualTo(today.plusMonths(1));
+        assertThat(payments(subscriptionId)).isEqualTo(1);
+        assertThat(renewal(subscriptionId)).containsEntry("status", "SUCCEEDED");
+    }
+
+    @Test
+    void declinedChargeIsRetriedByTheNextRun() {
+        Long subscriptionId = subscription("cus_decline");
+
+        SubscriptionRenewalService.RenewalSummary declined = renewalService.renewDueSubscriptions(today);
+
+        assertThat(declined.getDeclined()).isEqualTo(1);
+        assertThat(renewal(subscriptionId)).containsEntry("status", "FAILED").containsEntry("attempts", 1);
+        assertThat(endDate(subscriptionId)).isEqualTo(today);
+
+        // The user updates their card
+        jdbcTemplate.update("UPDATE subscriptions SET billing_customer_ref = 'cus_ok' WHERE id = ?", subscriptionId);
+        SubscriptionRenewalService.RenewalSummary retried = renewalService.renewDueSubscriptions(today);
+
+        assertThat(retried.getRenewed()).isEqualTo(1);
+        assertThat(renewal(subscriptionId)).containsEntry("status", "SUCCEEDED").containsEntry("attempts", 2);
+        assertThat(endDate(subscriptionId)).isEqualTo(today.plusMonths(1));
+        assertThat(payments(subscriptionId)).isEqualTo(1);
+    }
+
+    @Test
+    void unknownOutcomeIsResolvedByReconciliation() {
+        Long subscriptionId = subscription("cus_lost-response");
+
+        SubscriptionRenewalService.RenewalSummary summary = renewalService.renewDueSubscriptions(today);
+
+        assertThat(summary.getErrors()).isEqualTo(1);
+        assertThat(renewal(subscriptionId)).containsEntry("status", "PROCESSING");
+        assertThat(payments(subscriptionId)).isZero();
+
+        makeStale(subscriptionId);
+        renewalService.reconcileUnknownCharges();
+
+        assertThat(renewal(subscriptionId)).containsEntry("status", "SUCCEEDED");
+        assertThat(payments(subscriptionId)).isEqualTo(1);
+        assertThat(endDate(subscriptionId)).isEqualTo(today.plusMonths(1));
+    }
+
+    @Test
+    void chargedPeriodWhoseEndDateChangedNeedsReview() {
+        Long subscriptionId = subscription("cus_lost-response");
+        renewalService.renewDueSubscriptions(today);
+
+        // An admin extends the subscription while the charge outcome is unknown
+        jdbcTemplate.update("UPDATE subscriptions SET end_date = ? WHERE id = ?", today.plusDays(10), subscriptionId);
+        makeStale(subscriptionId);
+        renewalService.reconcileUnknownCharges();
+
+        assertThat(renewal(subscriptionId)).containsEntry("status", "NEEDS_REVIEW");
+        assertThat(endDate(subscriptionId)).isEqualTo(today.plusDays(10));
+    }
+
+    private Long subscription(String customerRef) {
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .firstName("Renewal")
+                .lastName("Test")
+                .email("renewal-" + UUID.randomUUID() + "@test.nutriflow.local")
+                .status(UserStatus.ACTIVE)
+                .build());
+
+        return subscriptionRepository.save(SubscriptionEntity.builder()
+                .user(user)
+                .planName("Premium")
+                .planCode("PREMIUM")
+                .price(Money.azn(150000))
+                .status(SubscriptionStatus.ACTIVE)
+                .startDate(today.minusMonths(1))
+                .endDate(today)
+                .billingCustomerRef(customerRef + "_" + UUID.randomUUID())
+                .build()).getId();
+    }
+
+    private void makeStale(Long subscriptionId) {
+        jdbcTemplate.update("UPDATE subscription_renewals SET claimed_at = claimed_at - interval '1 day' WHERE subscription_id = ?",
+                subscriptionId);
+    }
+
+    private Map<String, Object> renewal(Long subscriptionId) {
+        return jdbcTemplate.queryForMap("SELECT status, attempts FROM subscription_renewals WHERE subscription_id = ?",
+                subscriptionId);
+    }
+
+    private LocalDate endDate(Long subscriptionId) {
+        return jdbcTemplate.queryForObject("SELECT end_date FROM subscriptions WHERE id = ?", LocalDate.class, subscriptionId);
+    }
+
+    private int payments(Long subscriptionId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments WHERE subscription_id = ?", Integer.class, subscriptionId);
+    }
+}